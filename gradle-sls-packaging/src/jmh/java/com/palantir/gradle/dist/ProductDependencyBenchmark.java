@@ -0,0 +1,173 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.palantir.gradle.dist.ProductDependencyWorkloads.Mix;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Covers the product dependency code which gets slow in large repos, where services discover tens of thousands of
+ * recommended product dependencies from their classpath, many of them on the same products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProductDependencyBenchmark {
+    // Recommended product dependencies are typically embedded in a few jars each
+    private static final int DEPENDENCIES_PER_FILE = 50;
+
+    private static final Pattern LOCK_PATTERN = Pattern.compile(
+            "^(?<group>[^:]+):(?<name>[^ ]+) \\((?<min>[^,]+), (?<max>[^\\)]+)\\)(?<optional> optional)?$");
+
+    @Param({"10", "1000", "50000"})
+    public int count;
+
+    @Param({"UNIQUE", "DUPLICATE_HEAVY", "CONFLICT_HEAVY"})
+    public Mix mix;
+
+    private Collection<Collection<ProductDependency>> discoveredByProduct;
+    private List<ProductDependency> merged;
+    private Set<ProductId> inRepoProductIds;
+    private String lockFile;
+    private Path lockFilePath;
+    private Path recommendedProductDependenciesDir;
+    private List<File> recommendedProductDependenciesFiles;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        List<ProductDependency> discovered = ProductDependencyWorkloads.discovered(count, mix);
+        ImmutableSetMultimap<ProductId, ProductDependency> byProductId =
+                ProductDependencyWorkloads.byProductId(discovered);
+        discoveredByProduct = byProductId.asMap().values();
+        merged = mergeAll();
+        // Some of the products are published from the same repo, so their minimum version is a placeholder
+        inRepoProductIds = byProductId.keySet().stream()
+                .sorted(Comparator.comparing(ProductId::toString))
+                .limit(Math.max(1, byProductId.keySet().size() / 10))
+                .collect(Collectors.toSet());
+        lockFile = ProductDependencyLockFile.asString(merged, inRepoProductIds);
+        recommendedProductDependenciesDir = Files.createTempDirectory("product-dependency-benchmark");
+        lockFilePath = recommendedProductDependenciesDir.resolve(ProductDependencyLockFile.LOCK_FILE);
+        Files.writeString(lockFilePath, lockFile);
+        recommendedProductDependenciesFiles = ProductDependencyWorkloads.writeRecommendedProductDependencies(
+                discovered, DEPENDENCIES_PER_FILE, recommendedProductDependenciesDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (File file : recommendedProductDependenciesFiles) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(lockFilePath);
+        Files.delete(recommendedProductDependenciesDir);
+    }
+
+    @Benchmark
+    public List<ProductDependency> merge() {
+        return mergeAll();
+    }
+
+    /** Reduces every group one pair at a time, which is how groups were merged before, as a baseline. */
+    @Benchmark
+    public List<ProductDependency> mergePairwise() {
+        return discoveredByProduct.stream()
+                .map(deps -> deps.stream().reduce(ProductDependencyMerger::merge).orElseThrow())
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public String lockFileAsString() {
+        return ProductDependencyLockFile.asString(merged, inRepoProductIds);
+    }
+
+    @Benchmark
+    public List<ProductDependency> lockFileFromString() {
+        return ProductDependencyLockFile.fromString(lockFile, "1.0.0");
+    }
+
+    /** The regex based parser {@link ProductDependencyLockFile#fromString} replaced, as a baseline. */
+    @Benchmark
+    public List<ProductDependency> lockFileFromStringRegex() {
+        return Splitter.on("\n").splitToList(lockFile).stream()
+                .flatMap(line -> {
+                    Matcher matcher = LOCK_PATTERN.matcher(line);
+                    if (matcher.matches()) {
+                        return Stream.of(new ProductDependency(
+                                matcher.group("group"),
+                                matcher.group("name"),
+                                matcher.group("min").equals(ProductDependencyLockFile.PROJECT_VERSION)
+                                        ? "1.0.0"
+                                        : matcher.group("min"),
+                                matcher.group("max"),
+                                null,
+                                matcher.group("optional") != null));
+                    }
+                    return Stream.empty();
+                })
+                .collect(Collectors.toList());
+    }
+
+    /** Reads the lock file from disk, as every project does, which after the first read only parses it from cache. */
+    @Benchmark
+    public List<ProductDependency> lockFileFromFile() throws IOException {
+        return ProductDependencyLockFile.fromFile(lockFilePath, "1.0.0");
+    }
+
+    @Benchmark
+    public void readRecommendedProductDependencies(Blackhole blackhole) {
+        for (File file : recommendedProductDependenciesFiles) {
+            blackhole.consume(ObjectMappers.readRecommendedProductDependencies(file));
+        }
+    }
+
+    private List<ProductDependency> mergeAll() {
+        return discoveredByProduct.stream()
+                .map(ProductDependencyMerger::merge)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Lists;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/** Synthetic product dependencies, shaped like those discovered on the classpath of services in large repos. */
+public final class ProductDependencyWorkloads {
+    public enum Mix {
+        /** Every dependency is on a different product. */
+        UNIQUE,
+        /** Ten jars recommend each product, with the same range but different recommended versions. */
+        DUPLICATE_HEAVY,
+        /** A hundred jars recommend each product, with overlapping but different ranges that merging must narrow. */
+        CONFLICT_HEAVY
+    }
+
+    public static List<ProductDependency> discovered(int count, Mix mix) {
+        Random random = new Random(count);
+        ImmutableList.Builder<ProductDependency> deps = ImmutableList.builderWithExpectedSize(count);
+        for (int i = 0; i < count; i++) {
+            deps.add(dependency(i, mix, random));
+        }
+        return deps.build();
+    }
+
+    public static ImmutableSetMultimap<ProductId, ProductDependency> byProductId(List<ProductDependency> deps) {
+        return deps.stream().collect(ImmutableSetMultimap.toImmutableSetMultimap(ProductId::of, Function.identity()));
+    }
+
+    /** Writes the dependencies as embedded {@code product-dependencies.json} resources, the given number per file. */
+    public static List<File> writeRecommendedProductDependencies(
+            List<ProductDependency> deps, int perFile, Path directory) throws IOException {
+        ImmutableList.Builder<File> files = ImmutableList.builder();
+        List<List<ProductDependency>> partitions = Lists.partition(deps, perFile);
+        for (int i = 0; i < partitions.size(); i++) {
+            File file = directory.resolve("jar-" + i + "-product-dependencies.json").toFile();
+            ObjectMappers.jsonMapper.writeValue(file, RecommendedProductDependencies.of(partitions.get(i)));
+            files.add(file);
+        }
+        return files.build();
+    }
+
+    private static ProductDependency dependency(int index, Mix mix, Random random) {
+        switch (mix) {
+            case UNIQUE:
+                return dependency(index, "1.0.0", "1.x.x", "1.2.0", false);
+            case DUPLICATE_HEAVY:
+                return dependency(index / 10, "1.0.0", "1.x.x", "1." + random.nextInt(10) + ".0", false);
+            case CONFLICT_HEAVY:
+                // Minimums stay below 1.20.0 and maximums above 1.25.x, so the ranges always overlap
+                int minor = random.nextInt(20);
+                return dependency(
+                        index / 100,
+                        "1." + minor + ".0",
+                        random.nextBoolean() ? "1.x.x" : "1." + (25 + random.nextInt(5)) + ".x",
+                        "1." + (minor + random.nextInt(5)) + ".0",
+                        random.nextInt(4) == 0);
+        }
+        throw new IllegalArgumentException("Unknown mix: " + mix);
+    }
+
+    private static ProductDependency dependency(
+            int product, String minimum, String maximum, String recommended, boolean optional) {
+        return new ProductDependency(
+                "com.palantir.group" + product % 50, "product-" + product, minimum, maximum, recommended, optional);
+    }
+
+    private ProductDependencyWorkloads() {}
+}
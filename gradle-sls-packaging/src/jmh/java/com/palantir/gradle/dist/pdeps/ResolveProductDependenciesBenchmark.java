@@ -0,0 +1,89 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.pdeps;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.palantir.gradle.dist.ProductDependency;
+import com.palantir.gradle.dist.ProductDependencyWorkloads;
+import com.palantir.gradle.dist.ProductDependencyWorkloads.Mix;
+import com.palantir.gradle.dist.ProductId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ResolveProductDependenciesTask#computeDependencies}, which merges everything discovered on the
+ * classpath with the declared product dependencies of a service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResolveProductDependenciesBenchmark {
+    @Param({"10", "1000", "50000"})
+    public int count;
+
+    @Param({"UNIQUE", "DUPLICATE_HEAVY", "CONFLICT_HEAVY"})
+    public Mix mix;
+
+    private ResolveProductDependenciesTask task;
+    private List<ProductDependency> declared;
+    private ImmutableSetMultimap<ProductId, ProductDependency> discovered;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Project project = ProjectBuilder.builder().build();
+        project.setVersion("1.0.0");
+        task = project.getTasks()
+                .register("resolveProductDependencies", ResolveProductDependenciesTask.class)
+                .get();
+        task.getServiceName().set("benchmark-service");
+        task.getServiceGroup().set("com.palantir.benchmark");
+
+        discovered = ProductDependencyWorkloads.byProductId(ProductDependencyWorkloads.discovered(count, mix));
+        // Services declare a handful of the dependencies that are also discovered, and a few are in the same repo
+        List<ProductId> productIds = ImmutableList.copyOf(discovered.keySet());
+        declared = productIds.stream()
+                .limit(5)
+                .map(productId -> new ProductDependency(
+                        productId.getProductGroup(), productId.getProductName(), "1.0.0", "1.x.x", null))
+                .collect(ImmutableList.toImmutableList());
+        task.getInRepoProductIds().addAll(productIds.subList(0, Math.min(productIds.size(), 10)));
+    }
+
+    @Benchmark
+    public Map<ProductId, ProductDependency> computeDependencies() {
+        return task.computeDependencies(declared, discovered);
+    }
+}
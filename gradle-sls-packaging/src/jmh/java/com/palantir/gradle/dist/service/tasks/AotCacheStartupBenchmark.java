@@ -0,0 +1,218 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.tasks;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.gradle.api.JavaVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the startup of a small application with and without an AOT cache created the same way as
+ * {@link CreateAotCache} does for a dist. The application prints a line as soon as its main method runs, then sets up
+ * Jackson, as most services do early on, and prints another, so both the time to main and the time until it is ready
+ * are measured.
+ *
+ * <p>This has to run on Java 24 or later, as it uses the JDK it runs on to create and use the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class AotCacheStartupBenchmark {
+    private static final String MAIN_CLASS = "StartupApp";
+    private static final String MAIN_SOURCE = "public class StartupApp {\n"
+            + "    public static void main(String[] args) throws Exception {\n"
+            + "        System.out.println(\"main\");\n"
+            + "        System.out.flush();\n"
+            + "        new com.fasterxml.jackson.databind.ObjectMapper().readTree(\"{\\\"ready\\\": [1, 2, 3]}\");\n"
+            + "        System.out.println(\"ready\");\n"
+            + "    }\n"
+            + "}\n";
+
+    @Param({"true", "false"})
+    public boolean aotCache;
+
+    private Path workDir;
+    private String java;
+    private String classpath;
+    private Path cache;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, InterruptedException {
+        if (!CreateAotCache.isSupported(JavaVersion.current())) {
+            throw new IllegalStateException("AOT caches need Java 24 or later, but this runs on Java "
+                    + System.getProperty("java.specification.version"));
+        }
+        workDir = Files.createTempDirectory("aot-cache-benchmark");
+        java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        classpath = Stream.concat(Stream.of(appJar()), jacksonJars().stream())
+                .map(Path::toString)
+                .collect(Collectors.joining(File.pathSeparator));
+
+        Path configuration = workDir.resolve("app.aotconf");
+        cache = workDir.resolve("app.aot");
+        run(ImmutableList.<String>builder()
+                .add(java)
+                .addAll(CreateAotCache.recordOpts(configuration))
+                .add("-cp", classpath, MAIN_CLASS)
+                .build());
+        run(ImmutableList.<String>builder()
+                .add(java)
+                .addAll(CreateAotCache.createOpts(configuration, cache))
+                .add("-cp", classpath)
+                .build());
+        if (!Files.isRegularFile(cache)) {
+            throw new IllegalStateException("The JDK did not create an AOT cache in " + workDir);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws InterruptedException {
+        if (process != null) {
+            process.destroyForcibly();
+            process.waitFor();
+            process = null;
+        }
+    }
+
+    @Benchmark
+    public String timeToMain() throws IOException {
+        return startAndAwait("main");
+    }
+
+    @Benchmark
+    public String timeToReady() throws IOException {
+        return startAndAwait("ready");
+    }
+
+    private String startAndAwait(String expected) throws IOException {
+        ImmutableList.Builder<String> command = ImmutableList.<String>builder().add(java);
+        if (aotCache) {
+            command.add("-XX:AOTCache=" + cache);
+        }
+        process = new ProcessBuilder(command.add("-cp", classpath, MAIN_CLASS).build())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        BufferedReader output =
+                new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        for (String line = output.readLine(); line != null; line = output.readLine()) {
+            if (line.equals(expected)) {
+                return line;
+            }
+        }
+        throw new IllegalStateException("The application exited before printing " + expected);
+    }
+
+    /** AOT caches only hold classes from jars, so the application is compiled and packaged here. */
+    private Path appJar() throws IOException {
+        Path sourceFile = workDir.resolve("src/" + MAIN_CLASS + ".java");
+        Path classesDir = workDir.resolve("classes");
+        Files.createDirectories(sourceFile.getParent());
+        Files.createDirectories(classesDir);
+        Files.writeString(sourceFile, MAIN_SOURCE);
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        String compileClasspath =
+                jacksonJars().stream().map(Path::toString).collect(Collectors.joining(File.pathSeparator));
+        int result = compiler.run(
+                null, null, null, "-cp", compileClasspath, "-d", classesDir.toString(), sourceFile.toString());
+        if (result != 0) {
+            throw new IllegalStateException("Failed to compile the application");
+        }
+
+        Path jar = workDir.resolve("app.jar");
+        try (OutputStream out = Files.newOutputStream(jar);
+                JarOutputStream jarOut = new JarOutputStream(out)) {
+            jarOut.putNextEntry(new JarEntry(MAIN_CLASS + ".class"));
+            jarOut.write(Files.readAllBytes(classesDir.resolve(MAIN_CLASS + ".class")));
+            jarOut.closeEntry();
+        }
+        return jar;
+    }
+
+    private static List<Path> jacksonJars() {
+        return Stream.of(ObjectMapper.class, JsonFactory.class, JsonProperty.class)
+                .map(clazz -> {
+                    try {
+                        return Paths.get(clazz.getProtectionDomain()
+                                .getCodeSource()
+                                .getLocation()
+                                .toURI());
+                    } catch (URISyntaxException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+
+    private void run(List<String> command) throws IOException, InterruptedException {
+        Process training = new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(workDir.resolve("training.log").toFile()))
+                .start();
+        if (training.waitFor() != 0) {
+            throw new IllegalStateException("Failed to run " + command + ", see " + workDir.resolve("training.log"));
+        }
+    }
+}
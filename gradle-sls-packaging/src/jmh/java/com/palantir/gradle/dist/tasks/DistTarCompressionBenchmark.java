@@ -0,0 +1,89 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.tasks;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the gzip stream used by the stock Gradle {@code Tar} task against {@link ParallelGzipOutputStream}, which is
+ * what {@link SlsTarTask} uses for {@code distTar}. The payload is the jars on the benchmark classpath, as jars make up
+ * the bulk of a typical service distribution.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DistTarCompressionBenchmark {
+    private static final int PAYLOAD_SIZE = 64 * 1024 * 1024;
+
+    @Param({"1", "4", "8"})
+    public int threads;
+
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(PAYLOAD_SIZE);
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            File file = new File(entry);
+            if (file.isFile() && bytes.size() < PAYLOAD_SIZE) {
+                bytes.write(Files.readAllBytes(file.toPath()));
+            }
+        }
+        payload = bytes.toByteArray();
+    }
+
+    @Benchmark
+    public long stockGzip() throws IOException {
+        CountingOutputStream out = new CountingOutputStream(ByteStreams.nullOutputStream());
+        try (OutputStream gzip = new GZIPOutputStream(out, 64 * 1024)) {
+            gzip.write(payload);
+        }
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long parallelGzip() throws IOException {
+        CountingOutputStream out = new CountingOutputStream(ByteStreams.nullOutputStream());
+        try (OutputStream gzip = new ParallelGzipOutputStream(out, threads)) {
+            gzip.write(payload);
+        }
+        return out.getCount();
+    }
+}
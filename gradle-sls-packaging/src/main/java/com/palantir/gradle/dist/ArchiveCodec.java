@@ -0,0 +1,58 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist;
+
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/** The format used to compress the tar archives of a distribution. */
+public enum ArchiveCodec {
+    GZIP("gzip", "tgz"),
+    ZSTD("zstd", "tar.zst"),
+    TAR("tar", "tar");
+
+    private final String codecName;
+    private final String fileExtension;
+
+    ArchiveCodec(String codecName, String fileExtension) {
+        this.codecName = codecName;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getCodecName() {
+        return codecName;
+    }
+
+    /** The extension of archives written with this codec, to be appended to the {@code sls} or config suffix. */
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static ArchiveCodec fromName(String name) {
+        return Arrays.stream(values())
+                .filter(codec -> codec.codecName.equals(name.toLowerCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new SafeIllegalArgumentException(
+                        "Unknown archive codec",
+                        SafeArg.of("codec", name),
+                        SafeArg.of("codecs", Arrays.stream(values())
+                                .map(ArchiveCodec::getCodecName)
+                                .toArray())));
+    }
+}
@@ -55,6 +55,9 @@ public class BaseDistributionExtension {
     private static final ImmutableMap<String, Object> DEFAULT_MANIFEST_EXTENSIONS =
             ImmutableMap.of("require-individual-addressability", true);
 
+    private static final int DEFAULT_ZSTD_LEVEL = 3;
+    private static final int MAX_ZSTD_LEVEL = 22;
+
     private final Project project;
     private final Property<String> serviceGroup;
     private final Property<String> serviceName;
@@ -66,6 +69,10 @@ public class BaseDistributionExtension {
     private final ProviderFactory providerFactory;
     private final MapProperty<String, Object> manifestExtensions;
     private final RegularFileProperty configurationYml;
+    private final Property<Integer> compressionThreads;
+    private final Property<ArchiveCodec> archiveCodec;
+    private final Property<Integer> zstdLevel;
+    private final Property<Boolean> reproducible;
     private final String projectName;
     private Configuration productDependenciesConfig;
 
@@ -89,6 +96,12 @@ public class BaseDistributionExtension {
 
         configurationYml = project.getObjects().fileProperty().fileValue(project.file("deployment/configuration.yml"));
 
+        compressionThreads =
+                project.getObjects().property(Integer.class).value(Runtime.getRuntime().availableProcessors());
+        archiveCodec = project.getObjects().property(ArchiveCodec.class).value(ArchiveCodec.GZIP);
+        zstdLevel = project.getObjects().property(Integer.class).value(DEFAULT_ZSTD_LEVEL);
+        reproducible = project.getObjects().property(Boolean.class).value(false);
+
         projectName = project.getName();
     }
 
@@ -281,6 +294,73 @@ public class BaseDistributionExtension {
         return configurationYml;
     }
 
+    /** The number of threads used to gzip the distribution archive. Defaults to the number of available processors. */
+    public final Provider<Integer> getCompressionThreads() {
+        return compressionThreads;
+    }
+
+    public final void setCompressionThreads(int compressionThreads) {
+        Preconditions.checkArgument(
+                compressionThreads >= 1, "compressionThreads must be at least 1, but was %s", compressionThreads);
+        this.compressionThreads.set(compressionThreads);
+    }
+
+    public final void compressionThreads(int newCompressionThreads) {
+        setCompressionThreads(newCompressionThreads);
+    }
+
+    /** The codec used to compress the distribution and config archives. Defaults to {@link ArchiveCodec#GZIP}. */
+    public final Provider<ArchiveCodec> getArchiveCodec() {
+        return archiveCodec;
+    }
+
+    public final void setArchiveCodec(ArchiveCodec archiveCodec) {
+        this.archiveCodec.set(archiveCodec);
+    }
+
+    public final void archiveCodec(ArchiveCodec newArchiveCodec) {
+        setArchiveCodec(newArchiveCodec);
+    }
+
+    /** Sets the archive codec by name, one of {@code gzip}, {@code zstd} or {@code tar}. */
+    public final void archiveCodec(String codecName) {
+        setArchiveCodec(ArchiveCodec.fromName(codecName));
+    }
+
+    /** The zstd compression level, only used when the archive codec is {@link ArchiveCodec#ZSTD}. Defaults to 3. */
+    public final Provider<Integer> getZstdLevel() {
+        return zstdLevel;
+    }
+
+    public final void setZstdLevel(int zstdLevel) {
+        Preconditions.checkArgument(
+                zstdLevel >= 1 && zstdLevel <= MAX_ZSTD_LEVEL,
+                "zstdLevel must be between 1 and %s, but was %s",
+                MAX_ZSTD_LEVEL,
+                zstdLevel);
+        this.zstdLevel.set(zstdLevel);
+    }
+
+    public final void zstdLevel(int newZstdLevel) {
+        setZstdLevel(newZstdLevel);
+    }
+
+    /**
+     * Whether the distribution and config archives are written reproducibly, with a stable entry order, fixed
+     * timestamps and a fixed owner, so the same inputs always produce the same bytes. Defaults to false.
+     */
+    public final Provider<Boolean> getReproducible() {
+        return reproducible;
+    }
+
+    public final void setReproducible(boolean reproducible) {
+        this.reproducible.set(reproducible);
+    }
+
+    public final void reproducible(boolean newReproducible) {
+        setReproducible(newReproducible);
+    }
+
     public final Configuration getProductDependenciesConfig() {
         return productDependenciesConfig;
     }
@@ -0,0 +1,94 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist;
+
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Build-scoped index of the products published by projects in this build, keyed to the path of the publishing
+ * project. Every dist project needs it for its product dependencies and manifest, so it is built once per build
+ * rather than by each of them walking all the other projects.
+ *
+ * <p>Service names and groups can change until the end of configuration, so the index is only kept once all projects
+ * have been evaluated, and is rebuilt on every call before that. Only project paths are held, and tasks receive the
+ * product ids as plain values, so nothing here ends up in the configuration cache.
+ */
+public abstract class InRepoProductIdsService implements BuildService<BuildServiceParameters.None> {
+    private static final String NAME = "slsInRepoProductIds";
+
+    private volatile boolean projectsEvaluated;
+    private volatile Map<ProductId, String> index;
+
+    static Provider<InRepoProductIdsService> register(Project project) {
+        return project.getGradle()
+                .getSharedServices()
+                .registerIfAbsent(NAME, InRepoProductIdsService.class, _spec -> {
+                    // Only runs for the first registration in the build, so the hook is added once
+                    project.getGradle().projectsEvaluated(gradle -> {
+                        InRepoProductIdsService service = (InRepoProductIdsService) gradle.getSharedServices()
+                                .getRegistrations()
+                                .getByName(NAME)
+                                .getService()
+                                .get();
+                        service.markProjectsEvaluated();
+                    });
+                });
+    }
+
+    private void markProjectsEvaluated() {
+        projectsEvaluated = true;
+    }
+
+    /** Returns the path of the project publishing each product in this build. */
+    public final Map<ProductId, String> getIndex(Project rootProject) {
+        Preconditions.checkArgument(
+                rootProject == rootProject.getRootProject(),
+                "Must call this method with the root project",
+                SafeArg.of("project", rootProject.getPath()));
+        Map<ProductId, String> current = index;
+        if (current != null) {
+            return current;
+        }
+        Map<ProductId, String> built = buildIndex(rootProject);
+        if (projectsEvaluated) {
+            index = built;
+        }
+        return built;
+    }
+
+    private static Map<ProductId, String> buildIndex(Project rootProject) {
+        // get products we publish via BaseDistributionExtension from all other projects
+        return rootProject.getAllprojects().stream()
+                .filter(p -> p.getExtensions().findByType(BaseDistributionExtension.class) != null)
+                .collect(Collectors.toUnmodifiableMap(
+                        p -> {
+                            BaseDistributionExtension extension =
+                                    p.getExtensions().getByType(BaseDistributionExtension.class);
+                            return new ProductId(
+                                    extension.getDistributionServiceGroup().get(),
+                                    extension.getDistributionServiceName().get());
+                        },
+                        Project::getPath));
+    }
+}
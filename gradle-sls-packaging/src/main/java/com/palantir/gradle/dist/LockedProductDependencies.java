@@ -0,0 +1,89 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist;
+
+import com.google.common.hash.HashCode;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.gradle.api.Project;
+
+/**
+ * The product dependencies in a project's lock file, indexed by product. Build scripts can look up versions many
+ * times per project, so the lock file is only parsed again once its contents, or the project version, have changed.
+ * The contents are compared by hash rather than by size and modification time, as a lock file can be rewritten with
+ * the same size within the resolution of the file system's timestamps.
+ */
+final class LockedProductDependencies {
+    private final Project project;
+    private Snapshot snapshot;
+
+    LockedProductDependencies(Project project) {
+        this.project = project;
+    }
+
+    /** Returns the dependencies in the lock file by product, or empty if the lock file doesn't exist. */
+    synchronized Optional<Map<ProductId, ProductDependency>> get() {
+        File lockFile = project.file(ProductDependencyLockFile.LOCK_FILE);
+        if (!lockFile.exists()) {
+            snapshot = null;
+            return Optional.empty();
+        }
+        String projectVersion = project.getVersion().toString();
+        byte[] contents = read(lockFile);
+        HashCode hash = ProductDependencyLockFile.hash(contents);
+        if (snapshot == null || !snapshot.isFor(projectVersion, hash)) {
+            Map<ProductId, ProductDependency> dependencies = new LinkedHashMap<>();
+            List<ProductDependency> locked = ProductDependencyLockFile.fromContents(contents, hash, projectVersion);
+            for (ProductDependency dependency : locked) {
+                dependencies.putIfAbsent(ProductId.of(dependency), dependency);
+            }
+            snapshot = new Snapshot(projectVersion, hash, Collections.unmodifiableMap(dependencies));
+        }
+        return Optional.of(snapshot.dependencies);
+    }
+
+    private static byte[] read(File lockFile) {
+        try {
+            return Files.readAllBytes(lockFile.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading lock file: " + lockFile, e);
+        }
+    }
+
+    private static final class Snapshot {
+        private final String projectVersion;
+        private final HashCode hash;
+        private final Map<ProductId, ProductDependency> dependencies;
+
+        Snapshot(String projectVersion, HashCode hash, Map<ProductId, ProductDependency> dependencies) {
+            this.projectVersion = projectVersion;
+            this.hash = hash;
+            this.dependencies = dependencies;
+        }
+
+        boolean isFor(String otherProjectVersion, HashCode otherHash) {
+            return projectVersion.equals(otherProjectVersion) && hash.equals(otherHash);
+        }
+    }
+}
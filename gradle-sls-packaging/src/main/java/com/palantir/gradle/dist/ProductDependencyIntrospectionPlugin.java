@@ -19,6 +19,7 @@ package com.palantir.gradle.dist;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.SafeArg;
 import groovy.lang.Closure;
@@ -28,7 +29,7 @@ import java.nio.file.Files;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.function.Function;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.gradle.api.GradleException;
 import org.gradle.api.Plugin;
@@ -42,6 +43,7 @@ public final class ProductDependencyIntrospectionPlugin implements Plugin<Projec
 
     @Override
     public void apply(Project project) {
+        Provider<InRepoProductIdsService> inRepoProductIds = InRepoProductIdsService.register(project);
         createGetMinimumProductVersion(project);
 
         project.getConfigurations().create(PRODUCT_DEPENDENCIES_CONFIGURATION, conf -> {
@@ -52,13 +54,14 @@ public final class ProductDependencyIntrospectionPlugin implements Plugin<Projec
             Provider<List<ProductDependency>> allProductDependencies =
                     project.provider(() -> getAllProductDependencies(project).orElseGet(ImmutableList::of));
             ListProperty<Dependency> dependencies = project.getObjects().listProperty(Dependency.class);
-            dependencies.set(allProductDependencies.map(pdeps ->
-                    createAllProductDependencies(project, pdeps, getInRepoProductIds(project.getRootProject()))));
+            dependencies.set(allProductDependencies.map(pdeps -> createAllProductDependencies(
+                    project, pdeps, inRepoProductIds.get().getIndex(project.getRootProject()))));
             conf.getDependencies().addAllLater(GradleWorkarounds.fixListProperty(dependencies));
         });
     }
 
     private static void createGetMinimumProductVersion(Project project) {
+        LockedProductDependencies lockedDependencies = new LockedProductDependencies(project);
         project.getExtensions()
                 .getExtraProperties()
                 .set("getMinimumProductVersion", new Closure<String>(project, project) {
@@ -69,28 +72,43 @@ public final class ProductDependencyIntrospectionPlugin implements Plugin<Projec
                                 strings.size() == 2,
                                 "Expected 'group:name'",
                                 SafeArg.of("moduleVersion", moduleVersion.toString()));
-                        return getMinimumProductVersion(project, strings.get(0), strings.get(1));
+                        return getMinimumProductVersion(lockedDependencies, strings.get(0), strings.get(1));
+                    }
+                });
+        project.getExtensions()
+                .getExtraProperties()
+                .set("getMinimumProductVersions", new Closure<Map<String, String>>(project, project) {
+                    @SuppressWarnings("UnusedMethod") // groovy dynamic closure method
+                    public Map<String, String> doCall() {
+                        return getMinimumProductVersions(lockedDependencies);
                     }
                 });
     }
 
-    private static String getMinimumProductVersion(Project project, String group, String name) {
-        Optional<List<ProductDependency>> dependenciesOpt = getAllProductDependencies(project);
-        Preconditions.checkState(
-                dependenciesOpt.isPresent(),
-                ProductDependencyLockFile.LOCK_FILE + " does not exist. Run ./gradlew --write-locks to generate it.");
-
-        List<ProductDependency> dependencies = dependenciesOpt.get();
+    private static String getMinimumProductVersion(
+            LockedProductDependencies lockedDependencies, String group, String name) {
+        ProductDependency dependency = getLockedDependencies(lockedDependencies).get(new ProductId(group, name));
+        if (dependency == null) {
+            throw new GradleException(String.format("Unable to find product dependency for '%s:%s'", group, name));
+        }
+        return dependency.getMinimumVersion();
+    }
 
-        Optional<ProductDependency> dependency = dependencies.stream()
-                .filter(dep -> dep.getProductGroup().equals(group)
-                        && dep.getProductName().equals(name))
-                .findAny();
+    /** Returns the minimum version of every product dependency in the lock file, keyed by {@code group:name}. */
+    private static Map<String, String> getMinimumProductVersions(LockedProductDependencies lockedDependencies) {
+        return getLockedDependencies(lockedDependencies).entrySet().stream()
+                .collect(ImmutableMap.toImmutableMap(
+                        entry -> entry.getKey().toString(),
+                        entry -> entry.getValue().getMinimumVersion()));
+    }
 
-        return dependency
-                .orElseThrow(() -> new GradleException(
-                        String.format("Unable to find product dependency for '%s:%s'", group, name)))
-                .getMinimumVersion();
+    private static Map<ProductId, ProductDependency> getLockedDependencies(
+            LockedProductDependencies lockedDependencies) {
+        Optional<Map<ProductId, ProductDependency>> dependencies = lockedDependencies.get();
+        Preconditions.checkState(
+                dependencies.isPresent(),
+                ProductDependencyLockFile.LOCK_FILE + " does not exist. Run ./gradlew --write-locks to generate it.");
+        return dependencies.get();
     }
 
     /**
@@ -103,20 +121,20 @@ public final class ProductDependencyIntrospectionPlugin implements Plugin<Projec
         }
 
         try {
-            return Optional.of(ProductDependencyLockFile.fromString(
-                    Files.readString(lockFile.toPath()), project.getVersion().toString()));
+            return Optional.of(ProductDependencyLockFile.fromFile(
+                    lockFile.toPath(), project.getVersion().toString()));
         } catch (IOException e) {
             throw new RuntimeException("Error reading lock file: " + lockFile, e);
         }
     }
 
     static List<Dependency> createAllProductDependencies(
-            Project project, List<ProductDependency> dependencies, Map<ProductId, Project> inRepoProductIds) {
+            Project project, List<ProductDependency> dependencies, Map<ProductId, String> inRepoProductIds) {
         return dependencies.stream()
                 .map(dependency -> {
                     ProductId productId = ProductId.of(dependency);
                     if (inRepoProductIds.containsKey(productId)) {
-                        String projectPath = inRepoProductIds.get(productId).getPath();
+                        String projectPath = inRepoProductIds.get(productId);
                         return project.getDependencies()
                                 .project(ImmutableMap.of(
                                         "path", projectPath,
@@ -132,21 +150,16 @@ public final class ProductDependencyIntrospectionPlugin implements Plugin<Projec
     }
 
     public static Map<ProductId, Project> getInRepoProductIds(Project rootProject) {
-        Preconditions.checkArgument(
-                rootProject == rootProject.getRootProject(),
-                "Must call this method with the root project",
-                SafeArg.of("project", rootProject.getPath()));
-        // get products we publish via BaseDistributionExtension from all other projects
-        return rootProject.getAllprojects().stream()
-                .filter(p -> p.getExtensions().findByType(BaseDistributionExtension.class) != null)
-                .collect(Collectors.toMap(
-                        p -> {
-                            BaseDistributionExtension extension =
-                                    p.getExtensions().getByType(BaseDistributionExtension.class);
-                            return new ProductId(
-                                    extension.getDistributionServiceGroup().get(),
-                                    extension.getDistributionServiceName().get());
-                        },
-                        Function.identity()));
+        return ImmutableMap.copyOf(Maps.transformValues(
+                InRepoProductIdsService.register(rootProject).get().getIndex(rootProject), rootProject::project));
+    }
+
+    /**
+     * Returns the products published by projects in this build. The index behind it is shared by every project, so
+     * this is cheap to wire into each dist.
+     */
+    public static Provider<Set<ProductId>> inRepoProductIds(Project project) {
+        Provider<InRepoProductIdsService> service = InRepoProductIdsService.register(project);
+        return project.provider(() -> service.get().getIndex(project.getRootProject()).keySet());
     }
 }
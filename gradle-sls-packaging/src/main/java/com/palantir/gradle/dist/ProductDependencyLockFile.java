@@ -16,40 +16,146 @@
 
 package com.palantir.gradle.dist;
 
-import static java.util.stream.Collectors.toList;
-
-import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import javax.annotation.Nullable;
 
 public final class ProductDependencyLockFile {
 
     private static final String HEADER = "# Run ./gradlew writeProductDependenciesLocks to regenerate this file\n";
     public static final String PROJECT_VERSION = "$projectVersion";
-    private static final Pattern LOCK_PATTERN = Pattern.compile(
-            "^(?<group>[^:]+):(?<name>[^ ]+) \\((?<min>[^,]+), (?<max>[^\\)]+)\\)(?<optional> optional)?$");
+    private static final String OPTIONAL_SUFFIX = " optional";
     public static final String LOCK_FILE = "product-dependencies.lock";
 
+    // Every project reads its lock file for the productDependencies configuration and again for
+    // getMinimumProductVersion, so each distinct lock file is only parsed once. The project version is filled in
+    // afterwards, as the same contents can be read by projects with different versions.
+    private static final Cache<HashCode, List<LockedDependency>> PARSED_LOCK_FILES =
+            CacheBuilder.newBuilder().maximumSize(10_000).build();
+
+    /**
+     * Reads lines of the form {@code group:name (min, max)}, optionally followed by {@code optional}. Other lines,
+     * such as the header, are skipped.
+     */
     public static List<ProductDependency> fromString(String contents, String projectVersion) {
-        return Splitter.on("\n").splitToList(contents).stream()
-                .flatMap(line -> {
-                    Matcher matcher = LOCK_PATTERN.matcher(line);
-                    if (matcher.matches()) {
-                        return Stream.of(new ProductDependency(
-                                matcher.group("group"),
-                                matcher.group("name"),
-                                matcher.group("min").equals(PROJECT_VERSION) ? projectVersion : matcher.group("min"),
-                                matcher.group("max"),
-                                null,
-                                matcher.group("optional") != null));
-                    }
-                    return Stream.empty();
-                })
-                .collect(toList());
+        return resolve(parse(contents), projectVersion);
+    }
+
+    /** Reads a lock file, reusing the parsed lines of any lock file read earlier with the same contents. */
+    public static List<ProductDependency> fromFile(Path lockFile, String projectVersion) throws IOException {
+        byte[] contents = Files.readAllBytes(lockFile);
+        return fromContents(contents, hash(contents), projectVersion);
+    }
+
+    /** The hash that lock file contents are cached by. */
+    static HashCode hash(byte[] contents) {
+        return Hashing.sha256().hashBytes(contents);
+    }
+
+    /** Like {@link #fromFile}, for contents that have already been read and hashed with {@link #hash}. */
+    static List<ProductDependency> fromContents(byte[] contents, HashCode hash, String projectVersion) {
+        List<LockedDependency> parsed = PARSED_LOCK_FILES.getIfPresent(hash);
+        if (parsed == null) {
+            parsed = parse(new String(contents, StandardCharsets.UTF_8));
+            PARSED_LOCK_FILES.put(hash, parsed);
+        }
+        return resolve(parsed, projectVersion);
+    }
+
+    private static List<ProductDependency> resolve(List<LockedDependency> parsed, String projectVersion) {
+        // ProductDependency is mutable, so every caller gets its own copies
+        return parsed.stream()
+                .map(dependency -> new ProductDependency(
+                        dependency.group,
+                        dependency.name,
+                        dependency.minimumVersion.equals(PROJECT_VERSION) ? projectVersion : dependency.minimumVersion,
+                        dependency.maximumVersion,
+                        null,
+                        dependency.optional))
+                .collect(Collectors.toList());
+    }
+
+    private static List<LockedDependency> parse(String contents) {
+        ImmutableList.Builder<LockedDependency> dependencies = ImmutableList.builder();
+        int start = 0;
+        while (start <= contents.length()) {
+            int end = contents.indexOf('\n', start);
+            if (end < 0) {
+                end = contents.length();
+            }
+            LockedDependency dependency = parseLine(contents, start, end);
+            if (dependency != null) {
+                dependencies.add(dependency);
+            }
+            start = end + 1;
+        }
+        return dependencies.build();
+    }
+
+    /**
+     * Parses the line between {@code start} and {@code end} without copying it, returning null if it is not a
+     * dependency. Each field runs up to the first occurrence of the character that ends it and must not be empty.
+     */
+    @Nullable
+    private static LockedDependency parseLine(String contents, int start, int end) {
+        int colon = indexOf(contents, ':', start, end);
+        if (colon <= start) {
+            return null;
+        }
+        int nameStart = colon + 1;
+        int space = indexOf(contents, ' ', nameStart, end);
+        if (space <= nameStart || !charAt(contents, space + 1, end, '(')) {
+            return null;
+        }
+        int minimumStart = space + 2;
+        int comma = indexOf(contents, ',', minimumStart, end);
+        if (comma <= minimumStart || !charAt(contents, comma + 1, end, ' ')) {
+            return null;
+        }
+        int maximumStart = comma + 2;
+        int close = indexOf(contents, ')', maximumStart, end);
+        if (close <= maximumStart) {
+            return null;
+        }
+        boolean optional;
+        if (close + 1 == end) {
+            optional = false;
+        } else if (end - (close + 1) == OPTIONAL_SUFFIX.length()
+                && contents.startsWith(OPTIONAL_SUFFIX, close + 1)) {
+            optional = true;
+        } else {
+            return null;
+        }
+        return new LockedDependency(
+                contents.substring(start, colon),
+                contents.substring(nameStart, space),
+                contents.substring(minimumStart, comma),
+                contents.substring(maximumStart, close),
+                optional);
+    }
+
+    /** Like {@link String#indexOf(int, int)}, but only searching up to {@code end}. */
+    private static int indexOf(String contents, char character, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (contents.charAt(i) == character) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean charAt(String contents, int index, int end, char character) {
+        return index < end && contents.charAt(index) == character;
     }
 
     public static String asString(List<ProductDependency> deps, Set<ProductId> servicesDeclaredInProject) {
@@ -80,5 +186,21 @@ public final class ProductDependencyLockFile {
         }
     }
 
+    private static final class LockedDependency {
+        private final String group;
+        private final String name;
+        private final String minimumVersion;
+        private final String maximumVersion;
+        private final boolean optional;
+
+        LockedDependency(String group, String name, String minimumVersion, String maximumVersion, boolean optional) {
+            this.group = group;
+            this.name = name;
+            this.minimumVersion = minimumVersion;
+            this.maximumVersion = maximumVersion;
+            this.optional = optional;
+        }
+    }
+
     private ProductDependencyLockFile() {}
 }
@@ -16,84 +16,43 @@
 
 package com.palantir.gradle.dist;
 
-import com.google.common.collect.Streams;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.logsafe.exceptions.SafeRuntimeException;
 import com.palantir.sls.versions.OrderableSlsVersion;
-import com.palantir.sls.versions.SlsVersion;
 import com.palantir.sls.versions.SlsVersionMatcher;
 import com.palantir.sls.versions.VersionComparator;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Stream;
 
 public final class ProductDependencyMerger {
     private ProductDependencyMerger() {}
 
     public static ProductDependency merge(ProductDependency dep1, ProductDependency dep2) {
-        // Ensure they are valid
-        if (!dep1.getProductGroup().equals(dep2.getProductGroup())) {
-            throw new IllegalArgumentException(String.format(
-                    "Product groups differ: '%s' and '%s'", dep1.getProductGroup(), dep2.getProductGroup()));
-        }
-        if (!dep1.getProductName().equals(dep2.getProductName())) {
-            throw new IllegalArgumentException(
-                    String.format("Product names differ: '%s' and '%s'", dep1.getProductName(), dep2.getProductName()));
-        }
+        return merge(List.of(dep1, dep2));
+    }
 
-        // This could be empty if both of the versions are dirty
-        Optional<OrderableSlsVersion> minimumVersionOrderable = Stream.of(dep1.parseMinimum(), dep2.parseMinimum())
-                .flatMap(Streams::stream)
-                .max(VersionComparator.INSTANCE);
-
-        SlsVersion minimumVersion;
-        // If it's dirty or otherwise non-orderable, try to see if they're the same version and allow that.
-        if (Objects.equals(dep1.getMinimumVersion(), dep2.getMinimumVersion())) {
-            minimumVersion = SlsVersion.valueOf(dep1.getMinimumVersion());
-        } else {
-            minimumVersion = minimumVersionOrderable.orElseThrow(() -> new SafeRuntimeException(
-                    "Could not determine minimum version among two non-orderable minimum versions",
-                    SafeArg.of("dep1", dep1),
-                    SafeArg.of("dep2", dep2)));
+    /**
+     * Merges all the given dependencies on the same product, with the same result as merging them pairwise in
+     * iteration order, but parsing the versions of each dependency only once. A single dependency is returned as is.
+     */
+    public static ProductDependency merge(Collection<ProductDependency> dependencies) {
+        Preconditions.checkArgument(!dependencies.isEmpty(), "Cannot merge an empty set of product dependencies");
+        Iterator<ProductDependency> iterator = dependencies.iterator();
+        ProductDependency first = iterator.next();
+        if (!iterator.hasNext()) {
+            return first;
         }
 
-        SlsVersionMatcher maximumVersion = Stream.of(dep1.parseMaximum(), dep2.parseMaximum())
-                .min(SlsVersionMatcher.MATCHER_COMPARATOR)
-                .orElseThrow(() -> new RuntimeException("Impossible"));
-
-        // Sanity check: min has to be <= max
-        Preconditions.checkArgument(
-                minimumVersionOrderable
-                        .map(mv -> satisfiesMaxVersion(maximumVersion, mv))
-                        .orElse(true),
-                "Could not merge recommended product dependencies as their version ranges do not overlap",
-                SafeArg.of("dep1", dep1),
-                SafeArg.of("dep2", dep2),
-                SafeArg.of("mergedMinimum", minimumVersionOrderable),
-                SafeArg.of("mergedMaximum", maximumVersion));
-
-        // Recommended version. Check that it matches the inferred min and max.
-        Optional<OrderableSlsVersion> recommendedVersion = Stream.of(dep1.parseRecommended(), dep2.parseRecommended())
-                .flatMap(Streams::stream)
-                .filter(version -> minimumVersionOrderable
-                        .map(mv -> VersionComparator.INSTANCE.compare(version, mv) >= 0)
-                        .orElse(true))
-                .filter(version -> satisfiesMaxVersion(maximumVersion, version))
-                .max(VersionComparator.INSTANCE);
-
-        // Optional iff both inputs are optional; otherwise, we want to conservatively propagate the strict requirement.
-        boolean optional = dep1.getOptional() && dep2.getOptional();
-
-        ProductDependency result = new ProductDependency();
-        result.setMinimumVersion(minimumVersion.toString());
-        result.setMaximumVersion(maximumVersion.toString());
-        recommendedVersion.map(Objects::toString).ifPresent(result::setRecommendedVersion);
-        result.setProductGroup(dep1.getProductGroup());
-        result.setProductName(dep1.getProductName());
-        result.setOptional(optional);
-        result.isValid();
-        return result;
+        Merged merged = new Merged(first);
+        while (iterator.hasNext()) {
+            merged.add(iterator.next());
+        }
+        return merged.toProductDependency();
     }
 
     private static boolean satisfiesMaxVersion(SlsVersionMatcher maximumVersion, OrderableSlsVersion version) {
@@ -101,4 +60,125 @@ public final class ProductDependencyMerger {
         // (comparison result is from the point of view of the matcher)
         return maximumVersion.compare(version) >= 0;
     }
+
+    /** The parsed result of merging dependencies so far, which every further dependency is merged into. */
+    private static final class Merged {
+        private final String productGroup;
+        private final String productName;
+        private String minimumVersion;
+        // This could be empty if all the versions so far are dirty
+        private Optional<OrderableSlsVersion> minimum;
+        private String maximumVersion;
+        private SlsVersionMatcher maximum;
+        private Optional<OrderableSlsVersion> recommended;
+        private boolean optional;
+
+        Merged(ProductDependency dep) {
+            this.productGroup = dep.getProductGroup();
+            this.productName = dep.getProductName();
+            this.minimumVersion = dep.getMinimumVersion();
+            this.minimum = dep.parseMinimum();
+            this.maximum = dep.parseMaximum();
+            this.maximumVersion = maximum.toString();
+            this.recommended = dep.parseRecommended();
+            this.optional = dep.getOptional();
+        }
+
+        void add(ProductDependency dep) {
+            // Ensure they are valid
+            if (!productGroup.equals(dep.getProductGroup())) {
+                throw new IllegalArgumentException(
+                        String.format("Product groups differ: '%s' and '%s'", productGroup, dep.getProductGroup()));
+            }
+            if (!productName.equals(dep.getProductName())) {
+                throw new IllegalArgumentException(
+                        String.format("Product names differ: '%s' and '%s'", productName, dep.getProductName()));
+            }
+
+            Optional<OrderableSlsVersion> depMinimum = dep.parseMinimum();
+            Optional<OrderableSlsVersion> mergedMinimum = max(minimum, depMinimum);
+            String mergedMinimumVersion;
+            // If it's dirty or otherwise non-orderable, try to see if they're the same version and allow that.
+            if (Objects.equals(minimumVersion, dep.getMinimumVersion())) {
+                mergedMinimumVersion = minimumVersion;
+            } else {
+                mergedMinimumVersion = mergedMinimum
+                        .orElseThrow(() -> new SafeRuntimeException(
+                                "Could not determine minimum version among two non-orderable minimum versions",
+                                SafeArg.of("dep1", current()),
+                                SafeArg.of("dep2", dep)))
+                        .toString();
+            }
+
+            SlsVersionMatcher depMaximum = dep.parseMaximum();
+            SlsVersionMatcher mergedMaximum =
+                    SlsVersionMatcher.MATCHER_COMPARATOR.compare(maximum, depMaximum) <= 0 ? maximum : depMaximum;
+
+            // Sanity check: min has to be <= max
+            if (mergedMinimum.isPresent() && !satisfiesMaxVersion(mergedMaximum, mergedMinimum.get())) {
+                throw new SafeIllegalArgumentException(
+                        "Could not merge recommended product dependencies as their version ranges do not overlap",
+                        SafeArg.of("dep1", current()),
+                        SafeArg.of("dep2", dep),
+                        SafeArg.of("mergedMinimum", mergedMinimum),
+                        SafeArg.of("mergedMaximum", mergedMaximum));
+            }
+            minimum = mergedMinimum;
+            minimumVersion = mergedMinimumVersion;
+            if (mergedMaximum != maximum) {
+                maximum = mergedMaximum;
+                maximumVersion = mergedMaximum.toString();
+            }
+
+            // Recommended version. Check that it matches the inferred min and max.
+            recommended = max(withinRange(recommended), withinRange(dep.parseRecommended()));
+
+            // Optional iff both inputs are optional; otherwise, we want to conservatively propagate the strict
+            // requirement.
+            optional = optional && dep.getOptional();
+
+            // The remaining checks of ProductDependency#isValid hold by construction
+            Preconditions.checkArgument(
+                    !minimumVersion.equals(maximumVersion),
+                    "minimumVersion and maximumVersion must be different. This prevents a "
+                            + "known antipattern where services declare themselves to require a lockstep upgrade.",
+                    SafeArg.of("productGroup", productGroup),
+                    SafeArg.of("productName", productName));
+        }
+
+        ProductDependency toProductDependency() {
+            ProductDependency result = current();
+            result.isValid();
+            return result;
+        }
+
+        private ProductDependency current() {
+            ProductDependency result = new ProductDependency();
+            result.setMinimumVersion(minimumVersion);
+            result.setMaximumVersion(maximumVersion);
+            recommended.map(Objects::toString).ifPresent(result::setRecommendedVersion);
+            result.setProductGroup(productGroup);
+            result.setProductName(productName);
+            result.setOptional(optional);
+            return result;
+        }
+
+        private Optional<OrderableSlsVersion> withinRange(Optional<OrderableSlsVersion> version) {
+            return version.filter(v -> minimum.map(mv -> VersionComparator.INSTANCE.compare(v, mv) >= 0)
+                            .orElse(true))
+                    .filter(v -> satisfiesMaxVersion(maximum, v));
+        }
+
+        /** The greater of two versions, preferring the first when they are equal. */
+        private static Optional<OrderableSlsVersion> max(
+                Optional<OrderableSlsVersion> first, Optional<OrderableSlsVersion> second) {
+            if (first.isEmpty()) {
+                return second;
+            }
+            if (second.isEmpty() || VersionComparator.INSTANCE.compare(first.get(), second.get()) >= 0) {
+                return first;
+            }
+            return second;
+        }
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,10 +20,8 @@ import org.gradle.api.artifacts.transform.TransformParameters;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
 
-public interface FileAndManifestExtractParameter extends TransformParameters {
+public interface ArchiveExtractParameter extends TransformParameters {
+    /** The number of leading directories to drop from every path in the archive, like tar's --strip-components. */
     @Input
-    Property<String> getPathToExtract();
-
-    @Input
-    Property<String> getKeyToExtract();
+    Property<Integer> getStripComponents();
 }
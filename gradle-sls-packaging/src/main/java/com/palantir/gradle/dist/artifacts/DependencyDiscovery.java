@@ -59,11 +59,15 @@ public final class DependencyDiscovery {
         return consumable;
     }
 
-    public static <T extends TransformAction<P>, P extends TransformParameters> void configureJarTransform(
-            Project project, Class<T> clazz, String targetArtifact, Consumer<P> configureParameters) {
-        project.getDependencies().registerTransform(clazz, details -> {
-            configureParameters.accept(details.getParameters());
-            details.getFrom().attribute(ARTIFACT_FORMAT, ArtifactTypeDefinition.JAR_TYPE);
+    /**
+     * Selects the given files from the metadata {@link ExtractJarMetadata} extracts from jars, which is shared with
+     * every other consumer so that each jar is only opened once.
+     */
+    public static void configureJarMetadataTransform(Project project, String targetArtifact, String... fileNames) {
+        project.getPluginManager().apply(JarMetadataTransformPlugin.class);
+        project.getDependencies().registerTransform(SelectJarMetadata.class, details -> {
+            details.getParameters().getFileNames().addAll(fileNames);
+            details.getFrom().attribute(ARTIFACT_FORMAT, ExtractJarMetadata.JAR_METADATA_TYPE);
             details.getTo().attribute(ARTIFACT_FORMAT, targetArtifact);
 
             details.getFrom()
@@ -94,5 +98,17 @@ public final class DependencyDiscovery {
         });
     }
 
+    /** Extracts archives of the given artifact types with {@link ExtractArchive}. */
+    public static void configureArchiveTransform(
+            Project project, String targetArtifact, int stripComponents, String... archiveTypes) {
+        for (String archiveType : archiveTypes) {
+            project.getDependencies().registerTransform(ExtractArchive.class, details -> {
+                details.getParameters().getStripComponents().set(stripComponents);
+                details.getFrom().attribute(ARTIFACT_FORMAT, archiveType);
+                details.getTo().attribute(ARTIFACT_FORMAT, targetArtifact);
+            });
+        }
+    }
+
     private DependencyDiscovery() {}
 }
@@ -0,0 +1,185 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.artifacts;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.gradle.api.artifacts.transform.CacheableTransform;
+import org.gradle.api.artifacts.transform.InputArtifact;
+import org.gradle.api.artifacts.transform.TransformAction;
+import org.gradle.api.artifacts.transform.TransformOutputs;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+
+/**
+ * Extracts a tar, gzipped tar or zip archive into a directory. Archives of external modules are only extracted once
+ * per machine, as Gradle keeps the result of transforming them in its user home for every project and build to share,
+ * and otherwise once per build cache.
+ */
+@CacheableTransform
+public abstract class ExtractArchive implements TransformAction<ArchiveExtractParameter> {
+    /** The platform directories of go-java-launcher and go-init, such as {@code linux-amd64/go-java-launcher}. */
+    public static final String LAUNCHER_BINARIES_TYPE = "sls-launcher-binaries";
+
+    /** The home directory of a JDK, extracted from an archive holding it in a single top level directory. */
+    public static final String JDK_TYPE = "sls-jdk";
+
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    @InputArtifact
+    public abstract Provider<FileSystemLocation> getInputArtifact();
+
+    @Override
+    public final void transform(TransformOutputs outputs) {
+        File archive = getInputArtifact().get().getAsFile();
+        Path outputDir = outputs.dir(archiveBaseName(archive.getName())).toPath();
+        int stripComponents = getParameters().getStripComponents().get();
+        try {
+            extract(archive, outputDir, stripComponents);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to extract " + archive, e);
+        }
+    }
+
+    static void extract(File archive, Path outputDir, int stripComponents) throws IOException {
+        if (archive.getName().endsWith(".zip")) {
+            extractZip(archive, outputDir, stripComponents);
+        } else {
+            extractTar(archive, outputDir, stripComponents);
+        }
+    }
+
+    private static void extractTar(File archive, Path outputDir, int stripComponents) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(archive.toPath()));
+        if (archive.getName().endsWith(".gz") || archive.getName().endsWith(".tgz")) {
+            in = new GZIPInputStream(in);
+        }
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(in)) {
+            for (TarArchiveEntry entry = tar.getNextEntry(); entry != null; entry = tar.getNextEntry()) {
+                Optional<Path> maybeTarget = target(outputDir, entry.getName(), stripComponents);
+                if (maybeTarget.isEmpty()) {
+                    continue;
+                }
+                Path target = maybeTarget.get();
+                if (entry.isDirectory()) {
+                    Files.createDirectories(target);
+                } else if (entry.isSymbolicLink()) {
+                    Files.createDirectories(target.getParent());
+                    Files.createSymbolicLink(target, symlinkTarget(outputDir, target, entry.getLinkName()));
+                } else if (entry.isLink()) {
+                    // Hard links name an earlier entry of the archive, rather than a path relative to the link
+                    Optional<Path> linkTarget = target(outputDir, entry.getLinkName(), stripComponents);
+                    if (linkTarget.isEmpty()) {
+                        throw new IOException("Link is outside of the archive: " + entry.getName());
+                    }
+                    Files.createDirectories(target.getParent());
+                    Files.createLink(target, linkTarget.get());
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.copy(tar, target);
+                    setExecutable(target, entry.getMode());
+                }
+            }
+        }
+    }
+
+    private static void extractZip(File archive, Path outputDir, int stripComponents) throws IOException {
+        try (ZipFile zip = ZipFile.builder().setFile(archive).get()) {
+            Enumeration<ZipArchiveEntry> entries = zip.getEntries();
+            while (entries.hasMoreElements()) {
+                ZipArchiveEntry entry = entries.nextElement();
+                Optional<Path> maybeTarget = target(outputDir, entry.getName(), stripComponents);
+                if (maybeTarget.isEmpty()) {
+                    continue;
+                }
+                Path target = maybeTarget.get();
+                if (entry.isDirectory()) {
+                    Files.createDirectories(target);
+                } else if (entry.isUnixSymlink()) {
+                    Files.createDirectories(target.getParent());
+                    Files.createSymbolicLink(target, symlinkTarget(outputDir, target, zip.getUnixSymlink(entry)));
+                } else {
+                    Files.createDirectories(target.getParent());
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        Files.copy(in, target);
+                    }
+                    setExecutable(target, entry.getUnixMode());
+                }
+            }
+        }
+    }
+
+    /** Where the entry goes once its leading directories are dropped, if anything of it is left. */
+    private static Optional<Path> target(Path outputDir, String entryName, int stripComponents) throws IOException {
+        Path entryPath = Paths.get(entryName).normalize();
+        if (entryPath.getNameCount() <= stripComponents) {
+            return Optional.empty();
+        }
+        Path target = outputDir
+                .resolve(entryPath.subpath(stripComponents, entryPath.getNameCount()))
+                .normalize();
+        if (!target.startsWith(outputDir)) {
+            throw new IOException("Entry is outside of the archive: " + entryName);
+        }
+        return Optional.of(target);
+    }
+
+    /** The target of a symbolic link, which must resolve to somewhere in the archive from where the link is. */
+    private static Path symlinkTarget(Path outputDir, Path link, String linkName) throws IOException {
+        Path linkTarget = Paths.get(linkName);
+        if (!link.getParent().resolve(linkTarget).normalize().startsWith(outputDir)) {
+            throw new IOException("Link is outside of the archive: " + linkName);
+        }
+        return linkTarget;
+    }
+
+    private static void setExecutable(Path file, int mode) throws IOException {
+        if ((mode & 0100) == 0 || !Files.getFileStore(file).supportsFileAttributeView("posix")) {
+            return;
+        }
+        Set<PosixFilePermission> permissions = EnumSet.copyOf(Files.getPosixFilePermissions(file));
+        permissions.add(PosixFilePermission.OWNER_EXECUTE);
+        permissions.add(PosixFilePermission.GROUP_EXECUTE);
+        permissions.add(PosixFilePermission.OTHERS_EXECUTE);
+        Files.setPosixFilePermissions(file, permissions);
+    }
+
+    private static String archiveBaseName(String fileName) {
+        for (String extension : new String[] {".tar.gz", ".tgz", ".tar", ".zip"}) {
+            if (fileName.endsWith(extension)) {
+                return fileName.substring(0, fileName.length() - extension.length());
+            }
+        }
+        return fileName;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.artifacts;
+
+import com.palantir.gradle.dist.RecommendedProductDependencies;
+import com.palantir.gradle.dist.RecommendedProductDependenciesPlugin;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.gradle.api.artifacts.transform.InputArtifact;
+import org.gradle.api.artifacts.transform.TransformAction;
+import org.gradle.api.artifacts.transform.TransformOutputs;
+import org.gradle.api.artifacts.transform.TransformParameters;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.work.DisableCachingByDefault;
+
+/**
+ * Opens a jar once and pulls out every piece of SLS metadata it contains into a directory, so that each consumer can
+ * select the files it needs with {@link SelectJarMetadata} rather than opening every jar on the classpath again. Jars
+ * without any metadata produce no output.
+ */
+@DisableCachingByDefault(
+        because = "Extracting a few files from a zip is much faster than making network requests to the build cache")
+public abstract class ExtractJarMetadata implements TransformAction<TransformParameters.None> {
+    public static final String JAR_METADATA_TYPE = "sls-jar-metadata";
+
+    public static final String DIAGNOSTICS_FILE = "diagnostics.json";
+    public static final String PRODUCT_DEPENDENCIES_FILE = "product-dependencies.json";
+    public static final String MANIFEST_PRODUCT_DEPENDENCIES_FILE = "manifest-product-dependencies.json";
+
+    private static final String DIAGNOSTICS_PATH = "sls-manifest/diagnostics.json";
+
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    @InputArtifact
+    public abstract Provider<FileSystemLocation> getInputArtifact();
+
+    @Override
+    public final void transform(TransformOutputs outputs) {
+        File jarFile = getInputArtifact().get().getAsFile();
+
+        // ZipFile rather than JarFile as we only need the manifest attributes, not signature verification
+        try (ZipFile zipFile = new ZipFile(jarFile)) {
+            ZipEntry diagnostics = zipFile.getEntry(DIAGNOSTICS_PATH);
+            ZipEntry productDependencies = zipFile.getEntry(RecommendedProductDependenciesPlugin.RESOURCE_PATH);
+            Optional<String> manifestProductDependencies = readManifestProductDependencies(zipFile);
+            if (diagnostics == null && productDependencies == null && manifestProductDependencies.isEmpty()) {
+                return;
+            }
+
+            Path outputDir = outputs.dir(com.google.common.io.Files.getNameWithoutExtension(jarFile.getName()))
+                    .toPath();
+            copyEntry(zipFile, diagnostics, outputDir.resolve(DIAGNOSTICS_FILE));
+            copyEntry(zipFile, productDependencies, outputDir.resolve(PRODUCT_DEPENDENCIES_FILE));
+            if (manifestProductDependencies.isPresent()) {
+                Files.write(
+                        outputDir.resolve(MANIFEST_PRODUCT_DEPENDENCIES_FILE),
+                        manifestProductDependencies.get().getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to extract SLS metadata from jar: " + jarFile, e);
+        }
+    }
+
+    private static Optional<String> readManifestProductDependencies(ZipFile zipFile) throws IOException {
+        ZipEntry manifestEntry = zipFile.getEntry(JarFile.MANIFEST_NAME);
+        if (manifestEntry == null) {
+            return Optional.empty();
+        }
+        try (InputStream is = zipFile.getInputStream(manifestEntry)) {
+            return Optional.ofNullable(new Manifest(is)
+                    .getMainAttributes()
+                    .getValue(RecommendedProductDependencies.SLS_RECOMMENDED_PRODUCT_DEPS_KEY));
+        }
+    }
+
+    private static void copyEntry(ZipFile zipFile, ZipEntry entry, Path target) throws IOException {
+        if (entry == null) {
+            return;
+        }
+        try (InputStream is = zipFile.getInputStream(entry)) {
+            Files.copy(is, target);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.artifacts;
+
+import org.gradle.api.artifacts.transform.TransformParameters;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.tasks.Input;
+
+public interface JarMetadataSelectParameter extends TransformParameters {
+    /** Names of files written by {@link ExtractJarMetadata}, in order of preference. */
+    @Input
+    ListProperty<String> getFileNames();
+}
@@ -0,0 +1,36 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.artifacts;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
+
+/**
+ * Registers {@link ExtractJarMetadata}, which every consumer of SLS metadata in jars chains its own
+ * {@link SelectJarMetadata} onto. Applied as a plugin so that the transform is only registered once, however many
+ * consumers there are, as duplicate registrations would make the chains ambiguous.
+ */
+public final class JarMetadataTransformPlugin implements Plugin<Project> {
+    @Override
+    public void apply(Project project) {
+        project.getDependencies().registerTransform(ExtractJarMetadata.class, details -> {
+            details.getFrom().attribute(DependencyDiscovery.ARTIFACT_FORMAT, ArtifactTypeDefinition.JAR_TYPE);
+            details.getTo().attribute(DependencyDiscovery.ARTIFACT_FORMAT, ExtractJarMetadata.JAR_METADATA_TYPE);
+        });
+    }
+}
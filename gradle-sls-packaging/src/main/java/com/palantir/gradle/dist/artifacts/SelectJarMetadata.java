@@ -0,0 +1,48 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.artifacts;
+
+import java.io.File;
+import org.gradle.api.artifacts.transform.InputArtifact;
+import org.gradle.api.artifacts.transform.TransformAction;
+import org.gradle.api.artifacts.transform.TransformOutputs;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.work.DisableCachingByDefault;
+
+/**
+ * Selects the first of {@link JarMetadataSelectParameter#getFileNames()} that {@link ExtractJarMetadata} found in a
+ * jar. The file is passed through as is, so this never copies anything.
+ */
+@DisableCachingByDefault(because = "Selecting a file is much faster than making network requests to the build cache")
+public abstract class SelectJarMetadata implements TransformAction<JarMetadataSelectParameter> {
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    @InputArtifact
+    public abstract Provider<FileSystemLocation> getInputArtifact();
+
+    @Override
+    public final void transform(TransformOutputs outputs) {
+        File metadataDir = getInputArtifact().get().getAsFile();
+        getParameters().getFileNames().get().stream()
+                .map(fileName -> new File(metadataDir, fileName))
+                .filter(File::isFile)
+                .findFirst()
+                .ifPresent(outputs::file);
+    }
+}
@@ -22,14 +22,13 @@ import com.palantir.gradle.dist.SlsBaseDistPlugin;
 import com.palantir.gradle.dist.service.JavaServiceDistributionPlugin;
 import com.palantir.gradle.dist.tasks.ConfigTarTask;
 import com.palantir.gradle.dist.tasks.CreateManifestTask;
+import com.palantir.gradle.dist.tasks.SlsTarTask;
 import org.gradle.api.InvalidUserCodeException;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.file.DuplicatesStrategy;
 import org.gradle.api.tasks.TaskProvider;
-import org.gradle.api.tasks.bundling.Compression;
-import org.gradle.api.tasks.bundling.Tar;
 
 public final class AssetDistributionPlugin implements Plugin<Project> {
     public static final String GROUP_NAME = "Distribution";
@@ -60,14 +59,18 @@ public final class AssetDistributionPlugin implements Plugin<Project> {
         TaskProvider<CreateManifestTask> manifest =
                 CreateManifestTask.createManifestTask(project, distributionExtension);
 
-        TaskProvider<Tar> distTar = project.getTasks().register("distTar", Tar.class, task -> {
+        TaskProvider<SlsTarTask> distTar = project.getTasks().register("distTar", SlsTarTask.class, task -> {
             task.setGroup(AssetDistributionPlugin.GROUP_NAME);
-            task.setDescription("Creates a compressed, gzipped tar file that contains required static assets.");
-            task.setCompression(Compression.GZIP);
+            task.setDescription("Creates a compressed tar file that contains required static assets.");
+            task.getArchiveCodec().set(distributionExtension.getArchiveCodec());
+            task.getZstdLevel().set(distributionExtension.getZstdLevel());
+            task.getCompressionThreads().set(distributionExtension.getCompressionThreads());
+            task.getReproducible().set(distributionExtension.getReproducible());
             task.getArchiveBaseName().set(distributionExtension.getDistributionServiceName());
             task.getArchiveVersion()
                     .set(project.provider(() -> project.getVersion().toString()));
-            task.getArchiveExtension().set("sls.tgz");
+            task.getArchiveExtension()
+                    .set(distributionExtension.getArchiveCodec().map(codec -> "sls." + codec.getFileExtension()));
             task.getDestinationDirectory()
                     .set(project.getLayout().getBuildDirectory().dir("distributions"));
             task.setDuplicatesStrategy(DuplicatesStrategy.FAIL);
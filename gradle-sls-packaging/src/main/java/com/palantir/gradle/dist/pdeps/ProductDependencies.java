@@ -18,10 +18,9 @@ package com.palantir.gradle.dist.pdeps;
 
 import com.palantir.gradle.dist.BaseDistributionExtension;
 import com.palantir.gradle.dist.ProductDependencyIntrospectionPlugin;
-import com.palantir.gradle.dist.RecommendedProductDependencies;
 import com.palantir.gradle.dist.RecommendedProductDependenciesPlugin;
 import com.palantir.gradle.dist.artifacts.DependencyDiscovery;
-import com.palantir.gradle.dist.artifacts.ExtractSingleFileOrManifest;
+import com.palantir.gradle.dist.artifacts.ExtractJarMetadata;
 import com.palantir.gradle.dist.artifacts.PreferProjectCompatibilityRule;
 import com.palantir.gradle.dist.artifacts.SelectSingleFile;
 import org.gradle.api.Project;
@@ -44,11 +43,12 @@ public final class ProductDependencies {
         // avoid compilation
         PreferProjectCompatibilityRule.configureRule(project);
 
-        DependencyDiscovery.configureJarTransform(
-                project, ExtractSingleFileOrManifest.class, PRODUCT_DEPENDENCIES, params -> {
-                    params.getPathToExtract().set(RecommendedProductDependenciesPlugin.RESOURCE_PATH);
-                    params.getKeyToExtract().set(RecommendedProductDependencies.SLS_RECOMMENDED_PRODUCT_DEPS_KEY);
-                });
+        // The embedded resource takes precedence over the manifest attribute
+        DependencyDiscovery.configureJarMetadataTransform(
+                project,
+                PRODUCT_DEPENDENCIES,
+                ExtractJarMetadata.PRODUCT_DEPENDENCIES_FILE,
+                ExtractJarMetadata.MANIFEST_PRODUCT_DEPENDENCIES_FILE);
 
         DependencyDiscovery.configureResourceTransform(
                 project, SelectSingleFile.class, PRODUCT_DEPENDENCIES, params -> {
@@ -60,10 +60,7 @@ public final class ProductDependencies {
             task.getServiceName().set(ext.getDistributionServiceName());
             task.getServiceGroup().set(ext.getDistributionServiceGroup());
 
-            task.getInRepoProductIds()
-                    .set(project.provider(
-                            () -> ProductDependencyIntrospectionPlugin.getInRepoProductIds(project.getRootProject())
-                                    .keySet()));
+            task.getInRepoProductIds().set(ProductDependencyIntrospectionPlugin.inRepoProductIds(project));
             task.getProductDependencies().set(ext.getAllProductDependencies());
             task.getOptionalProductIds().set(ext.getOptionalProductDependencies());
             task.getIgnoredProductIds().set(ext.getIgnoredProductDependencies());
@@ -72,6 +69,7 @@ public final class ProductDependencies {
                     .getArtifactFiles()));
 
             task.getManifestFile().set(pdepsDir.map(dir -> dir.file("pdeps-manifest.json")));
+            task.getDiscoveredDependenciesState().set(pdepsDir.map(dir -> dir.file("discovered-pdeps.json")));
         });
     }
 
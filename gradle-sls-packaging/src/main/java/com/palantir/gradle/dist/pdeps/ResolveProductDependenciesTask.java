@@ -16,6 +16,7 @@
 
 package com.palantir.gradle.dist.pdeps;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
@@ -25,16 +26,21 @@ import com.palantir.gradle.dist.ObjectMappers;
 import com.palantir.gradle.dist.ProductDependency;
 import com.palantir.gradle.dist.ProductDependencyMerger;
 import com.palantir.gradle.dist.ProductId;
+import com.palantir.gradle.dist.RecommendedProductDependencies;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.Project;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.logging.Logger;
@@ -44,8 +50,12 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.provider.SetProperty;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.LocalState;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.FileChange;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
 
 public abstract class ResolveProductDependenciesTask extends DefaultTask {
     private static final Logger log = Logging.getLogger(ResolveProductDependenciesTask.class);
@@ -68,16 +78,32 @@ public abstract class ResolveProductDependenciesTask extends DefaultTask {
     @Input
     abstract SetProperty<ProductId> getIgnoredProductIds();
 
+    @Input
+    abstract Property<String> getProjectVersion();
+
+    @Incremental
     @InputFiles
     public abstract ConfigurableFileCollection getProductDependenciesFiles();
 
+    /**
+     * The parsed contents of every file in {@link #getProductDependenciesFiles()} from the last execution, so that an
+     * incremental execution only has to parse the files that were added or changed since.
+     */
+    @LocalState
+    abstract RegularFileProperty getDiscoveredDependenciesState();
+
     @OutputFile
     public abstract RegularFileProperty getManifestFile();
 
+    public ResolveProductDependenciesTask() {
+        Project project = getProject();
+        getProjectVersion().convention(project.provider(() -> project.getVersion().toString()));
+    }
+
     @TaskAction
-    public final void resolve() throws IOException {
+    public final void resolve(InputChanges inputChanges) throws IOException {
         Map<ProductId, ProductDependency> allProductDependencies =
-                computeDependencies(getProductDependencies().get(), discoverProductDependencies());
+                computeDependencies(getProductDependencies().get(), discoverProductDependencies(inputChanges));
 
         ObjectMappers.writeProductDependencyManifest(
                 ProductDependencyManifest.of(allProductDependencies.values().stream()
@@ -126,20 +152,19 @@ public abstract class ResolveProductDependenciesTask extends DefaultTask {
                 return;
             }
 
-            // Perform a reduce first so that so that if there are multiple of the recommended dep we
+            // Merge the whole group first so that so that if there are multiple of the recommended dep we
             // only log a single time.
-            dependencies.stream().reduce(ProductDependencyMerger::merge).ifPresent(discoveredDependency -> {
-                allProductDependencies.merge(productId, discoveredDependency, (declaredDependency, _newDependency) -> {
-                    log.error(
-                            "Please remove your declared product dependency on '{}' because it is"
-                                    + " already provided by a jar dependency:\n\n"
-                                    + "\tProvided:     {}\n"
-                                    + "\tYou declared: {}",
-                            productId,
-                            discoveredDependency,
-                            declaredDependency);
-                    return mergeDependencies(productId, declaredDependency, discoveredDependency);
-                });
+            ProductDependency discoveredDependency = ProductDependencyMerger.merge(dependencies);
+            allProductDependencies.merge(productId, discoveredDependency, (declaredDependency, _newDependency) -> {
+                log.error(
+                        "Please remove your declared product dependency on '{}' because it is"
+                                + " already provided by a jar dependency:\n\n"
+                                + "\tProvided:     {}\n"
+                                + "\tYou declared: {}",
+                        productId,
+                        discoveredDependency,
+                        declaredDependency);
+                return mergeDependencies(productId, declaredDependency, discoveredDependency);
             });
         });
 
@@ -152,27 +177,67 @@ public abstract class ResolveProductDependenciesTask extends DefaultTask {
         return allProductDependencies;
     }
 
-    private Multimap<ProductId, ProductDependency> discoverProductDependencies() {
-        return getProductDependenciesFiles().getFiles().stream()
-                .map(ObjectMappers::readRecommendedProductDependencies)
+    private Multimap<ProductId, ProductDependency> discoverProductDependencies(InputChanges inputChanges)
+            throws IOException {
+        File stateFile = getDiscoveredDependenciesState().getAsFile().get();
+        Map<String, RecommendedProductDependencies> previous = new HashMap<>();
+        Set<File> changedFiles = new HashSet<>();
+        // A non-incremental execution reports every file as added, so there is nothing to gain from the old state
+        if (inputChanges.isIncremental() && stateFile.exists()) {
+            previous = ObjectMappers.jsonMapper.readValue(stateFile, new TypeReference<>() {});
+            for (FileChange change : inputChanges.getFileChanges(getProductDependenciesFiles())) {
+                changedFiles.add(change.getFile());
+            }
+        }
+
+        Map<String, RecommendedProductDependencies> parsed =
+                parseProductDependencies(getProductDependenciesFiles().getFiles(), previous, changedFiles);
+
+        Files.createDirectories(stateFile.toPath().getParent());
+        ObjectMappers.jsonMapper.writeValue(stateFile, parsed);
+
+        return parsed.values().stream()
                 .flatMap(pdeps -> pdeps.recommendedProductDependencies().stream())
                 .collect(ImmutableSetMultimap.toImmutableSetMultimap(ProductId::of, Function.identity()));
     }
 
+    /**
+     * Parses the given files in order, reusing the result from the previous execution for any file that has not
+     * changed since. Files which are no longer inputs are dropped.
+     */
+    @VisibleForTesting
+    static Map<String, RecommendedProductDependencies> parseProductDependencies(
+            Set<File> files, Map<String, RecommendedProductDependencies> previous, Set<File> changedFiles) {
+        Map<String, RecommendedProductDependencies> parsed = new LinkedHashMap<>();
+        int reused = 0;
+        for (File file : files) {
+            String path = file.getAbsolutePath();
+            RecommendedProductDependencies pdeps = changedFiles.contains(file) ? null : previous.get(path);
+            if (pdeps == null) {
+                pdeps = ObjectMappers.readRecommendedProductDependencies(file);
+            } else {
+                reused++;
+            }
+            parsed.put(path, pdeps);
+        }
+        log.info(
+                "Parsed {} product dependency files, reused {} from the previous execution",
+                files.size() - reused,
+                reused);
+        return parsed;
+    }
+
     private ProductDependency mergeDependencies(ProductId productId, ProductDependency dep1, ProductDependency dep2) {
         ProductDependency mergedDep = ProductDependencyMerger.merge(dep1, dep2);
+        String projectVersion = getProjectVersion().get();
         if (getInRepoProductIds().get().contains(productId)
-                && (dep1.getMinimumVersion().equals(getProjectVersion())
-                        || dep2.getMinimumVersion().equals(getProjectVersion()))) {
-            mergedDep.setMinimumVersion(getProjectVersion());
+                && (dep1.getMinimumVersion().equals(projectVersion)
+                        || dep2.getMinimumVersion().equals(projectVersion))) {
+            mergedDep.setMinimumVersion(projectVersion);
         }
         return mergedDep;
     }
 
-    private String getProjectVersion() {
-        return getProject().getVersion().toString();
-    }
-
     private boolean isSelfDependency(ProductId productId) {
         return getServiceGroup().get().equals(productId.getProductGroup())
                 && getServiceName().get().equals(productId.getProductName());
@@ -0,0 +1,155 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.palantir.gradle.autoparallelizable.AutoParallelizable;
+import com.palantir.gradle.dist.ObjectMappers;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.immutables.value.Value;
+
+/**
+ * Copies the archive of each {@link DistLayer} into a directory under a name containing the sha256 of its contents,
+ * alongside an {@value #INDEX_FILE_NAME} which lists the layers in the order they should be extracted.
+ */
+@AutoParallelizable
+final class CreateLayeredDist {
+    static final String INDEX_FILE_NAME = "index.json";
+
+    interface Params {
+        /** The directory all layers extract into, matching the root directory of {@code distTar}. */
+        @Input
+        Property<String> getRootDirectory();
+
+        @Input
+        Property<String> getArchiveExtension();
+
+        /** The names of the layers, in the same order as {@link #getLayerArchives()}. */
+        @Input
+        ListProperty<String> getLayerNames();
+
+        @InputFiles
+        @PathSensitive(PathSensitivity.NONE)
+        ConfigurableFileCollection getLayerArchives();
+
+        @OutputDirectory
+        DirectoryProperty getOutputDirectory();
+    }
+
+    static void action(Params params) {
+        List<String> layerNames = params.getLayerNames().get();
+        List<File> layerArchives = new ArrayList<>(params.getLayerArchives().getFiles());
+        if (layerNames.size() != layerArchives.size()) {
+            throw new GradleException(String.format(
+                    "Expected an archive for each of the layers %s, but got %s", layerNames, layerArchives));
+        }
+
+        File outputDir = params.getOutputDirectory().getAsFile().get();
+        File[] staleFiles = outputDir.listFiles();
+        if (staleFiles != null) {
+            for (File staleFile : staleFiles) {
+                staleFile.delete();
+            }
+        }
+
+        List<LayeredDistIndex.Layer> layers = new ArrayList<>();
+        for (int i = 0; i < layerNames.size(); i++) {
+            String layerName = layerNames.get(i);
+            File archive = layerArchives.get(i);
+            if (!archive.exists()) {
+                // The layer tar task is skipped when there is nothing in the layer, e.g. when no JDK is bundled
+                continue;
+            }
+            try {
+                String sha256 = Files.asByteSource(archive).hash(Hashing.sha256()).toString();
+                String fileName = String.format("%s-%s.%s", layerName, sha256, params.getArchiveExtension().get());
+                Files.copy(archive, new File(outputDir, fileName));
+                layers.add(LayeredDistIndex.Layer.builder()
+                        .name(layerName)
+                        .file(fileName)
+                        .sha256(sha256)
+                        .size(archive.length())
+                        .build());
+            } catch (IOException e) {
+                throw new GradleException("Failed to copy layer " + layerName + " from " + archive, e);
+            }
+        }
+
+        LayeredDistIndex index = LayeredDistIndex.builder()
+                .rootDirectory(params.getRootDirectory().get())
+                .layers(layers)
+                .build();
+        File indexFile = new File(outputDir, INDEX_FILE_NAME);
+        try {
+            ObjectMappers.jsonMapper.writerWithDefaultPrettyPrinter().writeValue(indexFile, index);
+        } catch (IOException e) {
+            throw new GradleException("Failed to write " + indexFile, e);
+        }
+    }
+
+    @Value.Immutable
+    @JsonSerialize(as = ImmutableLayeredDistIndex.class)
+    @JsonDeserialize(as = ImmutableLayeredDistIndex.class)
+    interface LayeredDistIndex {
+        String rootDirectory();
+
+        List<Layer> layers();
+
+        static Builder builder() {
+            return new Builder();
+        }
+
+        final class Builder extends ImmutableLayeredDistIndex.Builder {}
+
+        @Value.Immutable
+        @JsonSerialize(as = ImmutableLayer.class)
+        @JsonDeserialize(as = ImmutableLayer.class)
+        interface Layer {
+            String name();
+
+            String file();
+
+            String sha256();
+
+            long size();
+
+            static Builder builder() {
+                return new Builder();
+            }
+
+            final class Builder extends ImmutableLayer.Builder {}
+        }
+    }
+
+    private CreateLayeredDist() {}
+}
@@ -30,17 +30,26 @@ public final class Diagnostics {
             "[{\"type\":\"foo.v1\", \"docs\":\"...\"}, \"{\"type\":\"bar.v1\", " + "\"docs\":\"...\"}]";
 
     public static List<ObjectNode> parse(File file) {
+        try {
+            return ObjectMappers.jsonMapper.readValue(
+                    Files.readString(file.toPath()).trim(), new TypeReference<>() {});
+        } catch (IOException e) {
+            throw parseFailure(file, e);
+        }
+    }
+
+    static GradleException parseFailure(File file, IOException cause) {
         String string = null;
         try {
             string = Files.readString(file.toPath()).trim();
-            return ObjectMappers.jsonMapper.readValue(string, new TypeReference<>() {});
         } catch (IOException e) {
-            throw new GradleException(
-                    String.format(
-                            "Failed to deserialize '%s', expecting something like '%s' but was '%s'",
-                            file.getAbsolutePath(), EXAMPLE, string),
-                    e);
+            cause.addSuppressed(e);
         }
+        return new GradleException(
+                String.format(
+                        "Failed to deserialize '%s', expecting something like '%s' but was '%s'",
+                        file.getAbsolutePath(), EXAMPLE, string),
+                cause);
     }
 
     private Diagnostics() {}
@@ -16,14 +16,15 @@
 
 package com.palantir.gradle.dist.service;
 
-import com.palantir.gradle.dist.artifacts.ExtractFileFromJar;
+import com.palantir.gradle.dist.artifacts.ExtractJarMetadata;
+import com.palantir.gradle.dist.artifacts.JarMetadataTransformPlugin;
+import com.palantir.gradle.dist.artifacts.SelectJarMetadata;
 import com.palantir.gradle.dist.tasks.CreateManifestTask;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.ArtifactView;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.transform.TransformAction;
-import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
 import org.gradle.api.attributes.Attribute;
 import org.gradle.api.attributes.LibraryElements;
 import org.gradle.api.tasks.TaskProvider;
@@ -36,7 +37,6 @@ public final class DiagnosticsManifestPlugin implements Plugin<Project> {
     private static final Attribute<String> artifactType = Attribute.of("artifactType", String.class);
     static final String mergeDiagnosticsJson = "mergeDiagnosticsJson";
 
-    private static final String FILE_TO_EXTRACT = "sls-manifest/diagnostics.json";
     private static final String DIAGNOSTICS = "sls-diagnostics";
 
     /**
@@ -94,10 +94,11 @@ public final class DiagnosticsManifestPlugin implements Plugin<Project> {
     }
 
     private static void configureDiagnosticsTransform(Project project) {
-        project.getDependencies().registerTransform(ExtractFileFromJar.class, details -> {
-            details.getParameters().getPathToExtract().set(FILE_TO_EXTRACT);
+        project.getPluginManager().apply(JarMetadataTransformPlugin.class);
+        project.getDependencies().registerTransform(SelectJarMetadata.class, details -> {
+            details.getParameters().getFileNames().add(ExtractJarMetadata.DIAGNOSTICS_FILE);
 
-            details.getFrom().attribute(artifactType, ArtifactTypeDefinition.JAR_TYPE);
+            details.getFrom().attribute(artifactType, ExtractJarMetadata.JAR_METADATA_TYPE);
             details.getTo().attribute(artifactType, DIAGNOSTICS);
 
             // It's not strictly necessary to define a mapping for the 'org.gradle.libraryelements' attribute,
@@ -0,0 +1,42 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service;
+
+/**
+ * The layers a distribution is split into by the {@code distLayers} task, ordered from least to most frequently
+ * changing. Extracting the layers in this order on top of each other produces the same tree as {@code distTar}.
+ */
+public enum DistLayer {
+    /** The bundled JDKs. */
+    JDK("jdk"),
+    /** Third party jars and java agents under {@code service/lib}. */
+    DEPENDENCIES("dependencies"),
+    /** The jars built by this project and other projects in the same build, and native libraries. */
+    APPLICATION("application"),
+    /** Scripts, launcher and monitoring config, {@code var} and the deployment directory. */
+    CONFIG("config");
+
+    private final String layerName;
+
+    DistLayer(String layerName) {
+        this.layerName = layerName;
+    }
+
+    public String getLayerName() {
+        return layerName;
+    }
+}
@@ -17,11 +17,25 @@
 package com.palantir.gradle.dist.service;
 
 import com.palantir.gradle.dist.DeploymentDirInclusion;
+import com.palantir.gradle.dist.artifacts.DependencyDiscovery;
+import com.palantir.gradle.dist.artifacts.ExtractArchive;
+import com.palantir.gradle.dist.service.jlink.JlinkOptions;
+import com.palantir.gradle.dist.service.tasks.CreateAotCache;
+import com.palantir.gradle.dist.service.tasks.CreateAppCdsArchive;
+import com.palantir.gradle.dist.service.tasks.CreateJlinkImageTask;
+import java.io.File;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import org.gradle.api.JavaVersion;
+import org.gradle.api.NamedDomainObjectProvider;
 import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
 import org.gradle.api.file.DuplicatesStrategy;
+import org.gradle.api.file.RegularFile;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.TaskProvider;
 import org.gradle.api.tasks.bundling.Jar;
@@ -36,79 +50,221 @@ final class DistTarTask {
             Tar distTarTask,
             JavaServiceDistributionExtension distributionExtension,
             TaskProvider<Jar> jarTask) {
+        configure(project, distTarTask, distributionExtension, jarTask, EnumSet.allOf(DistLayer.class));
+    }
+
+    /**
+     * Configures the given task with only the parts of the distribution that belong to the given layers, so that the
+     * layers produced by {@code distLayers} always add up to the contents of {@code distTar}.
+     */
+    static void configure(
+            Project project,
+            Tar distTarTask,
+            JavaServiceDistributionExtension distributionExtension,
+            TaskProvider<Jar> jarTask,
+            Set<DistLayer> layers) {
+        configure(
+                project,
+                distTarTask,
+                distributionExtension,
+                jarTask,
+                layers,
+                distributionExtension.getTargetPlatforms().get());
+    }
+
+    /**
+     * Configures the given task with the parts of the distribution in the given layers, leaving out the launcher
+     * binaries and native libraries of any platform other than the given ones.
+     */
+    static void configure(
+            Project project,
+            Tar distTarTask,
+            JavaServiceDistributionExtension distributionExtension,
+            TaskProvider<Jar> jarTask,
+            Set<DistLayer> layers,
+            Set<TargetPlatform> targetPlatforms) {
         Provider<String> serviceName = distributionExtension.getDistributionServiceName();
         distTarTask.getArchiveBaseName().set(serviceName);
 
         Callable<String> archiveRootDir = () -> serviceName.get() + "-" + project.getVersion();
 
         distTarTask.into(archiveRootDir, root -> {
-            root.from("var", t -> {
-                t.into("var");
-                distributionExtension.getExcludeFromVar().get().forEach(t::exclude);
-            });
+            if (layers.contains(DistLayer.CONFIG)) {
+                root.from("var", t -> {
+                    t.into("var");
+                    distributionExtension.getExcludeFromVar().get().forEach(t::exclude);
+                });
 
-            root.from("service", t -> {
-                t.into("service");
-                t.exclude("bin/*");
-            });
+                root.from("service", t -> {
+                    t.into("service");
+                    t.exclude("bin/*");
+                });
 
-            root.from("service/bin", t -> {
-                t.into("service/bin");
-                t.setFileMode(0755);
-            });
+                root.from("service/bin", t -> {
+                    t.into("service/bin");
+                    t.setFileMode(0755);
+                });
+            }
 
-            // We do this trick of iterating through every java version and making a from with a lazy value to be lazy
-            // enough to handle the case where another plugin has set the value of the jdks property based on the result
-            // of resolving a configuration. Unfortunately, lots of our internal plugins/build.gradle force the value
-            // of the distTar task at configuration time, so this would cause a Configuration to resolved at
-            // configuration time (which is disallowed) with the naive getting the value from the property and looping
-            // over it. Reading the code below, you might be concerned that it would create empty directories for unset
-            // java versions, but Gradle does not appear to do this for empty file collections.
-            Arrays.stream(JavaVersion.values()).forEach(javaVersion -> {
-                root.from(
-                        distributionExtension.getJdks().getting(javaVersion).orElse(project.provider(project::files)),
-                        t -> {
-                            t.into(distributionExtension.jdkPathInDist(javaVersion));
-                        });
-            });
+            if (layers.contains(DistLayer.JDK)) {
+                // We do this trick of iterating through every java version and making a from with a lazy value to be
+                // lazy enough to handle the case where another plugin has set the value of the jdks property based on
+                // the result of resolving a configuration. Unfortunately, lots of our internal plugins/build.gradle
+                // force the value of the distTar task at configuration time, so this would cause a Configuration to
+                // resolved at configuration time (which is disallowed) with the naive getting the value from the
+                // property and looping over it. Reading the code below, you might be concerned that it would create
+                // empty directories for unset java versions, but Gradle does not appear to do this for empty file
+                // collections.
+                Arrays.stream(JavaVersion.values()).forEach(javaVersion -> {
+                    root.from(jdkInDist(project, distributionExtension, javaVersion), t -> {
+                        t.into(distributionExtension.jdkPathInDist(javaVersion));
+                    });
+                });
+            }
 
             root.into("service/lib", t -> {
-                t.from(jarTask);
-                t.from(project.getConfigurations().named("runtimeClasspath"));
+                if (layers.contains(DistLayer.APPLICATION)) {
+                    t.from(jarTask);
+                }
+                t.from(runtimeClasspath(project, layers));
             });
 
-            if (distributionExtension.getEnableManifestClasspath().get()) {
+            if (layers.contains(DistLayer.APPLICATION) && distributionExtension.getEnableManifestClasspath().get()) {
                 root.into("service/lib", t -> {
                     t.from(project.getTasks().named("manifestClasspathJar"));
                 });
             }
 
-            root.into("service/lib/agent", t -> {
-                t.from(project.getConfigurations().named("javaAgent"));
-            });
+            // The launcher only uses the AppCDS archive when there is no AOT cache, so it is left out when there is one
+            if (layers.contains(DistLayer.APPLICATION) && distributionExtension.getUseAotCache().get()) {
+                root.into(CreateAotCache.CACHE_DIST_LOCATION, t -> {
+                    t.from(project.getTasks().named("createAotCache"));
+                });
+            } else if (layers.contains(DistLayer.APPLICATION) && distributionExtension.getEnableAppCds().get()) {
+                root.into(CreateAppCdsArchive.ARCHIVE_DIST_LOCATION, t -> {
+                    t.from(project.getTasks().named("createAppCdsArchive"));
+                });
+            }
 
-            root.into(SCRIPTS_DIST_LOCATION, t -> {
-                t.from(project.getLayout().getBuildDirectory().dir("scripts"));
-                t.setFileMode(0755);
-            });
+            if (layers.contains(DistLayer.DEPENDENCIES)) {
+                root.into("service/lib/agent", t -> {
+                    t.from(project.getConfigurations().named("javaAgent"));
+                });
+            }
 
-            root.into("service/monitoring/bin", t -> {
-                t.from(project.getLayout().getBuildDirectory().dir("monitoring"));
-                t.setFileMode(0755);
-            });
+            if (layers.contains(DistLayer.CONFIG)) {
+                root.into(SCRIPTS_DIST_LOCATION, t -> {
+                    t.from(project.getLayout().getBuildDirectory().dir("scripts"));
+                    t.setFileMode(0755);
+                    for (TargetPlatform platform : TargetPlatform.values()) {
+                        if (!targetPlatforms.contains(platform)) {
+                            t.exclude(platform.getPlatformName() + "/**");
+                        }
+                    }
+                });
 
-            root.into("service/lib/linux-x86-64", t -> {
-                t.from(project.getLayout().getBuildDirectory().dir("libs/linux-x86-64"));
-                t.setFileMode(0755);
-            });
+                root.into("service/monitoring/bin", t -> {
+                    t.from(project.getLayout().getBuildDirectory().dir("monitoring"));
+                    t.setFileMode(0755);
+                });
+            }
+
+            if (layers.contains(DistLayer.APPLICATION)) {
+                for (TargetPlatform platform : TargetPlatform.values()) {
+                    if (targetPlatforms.contains(platform)) {
+                        String nativeLibDirectory = platform.getNativeLibDirectory();
+                        root.into("service/lib/" + nativeLibDirectory, t -> {
+                            t.from(project.getLayout().getBuildDirectory().dir("libs/" + nativeLibDirectory));
+                            t.setFileMode(0755);
+                        });
+                    }
+                }
+            }
 
-            DeploymentDirInclusion.includeFromDeploymentDirs(
-                    project.getLayout(),
-                    distributionExtension,
-                    root,
-                    t -> t.setDuplicatesStrategy(DuplicatesStrategy.INCLUDE));
+            if (layers.contains(DistLayer.CONFIG)) {
+                DeploymentDirInclusion.includeFromDeploymentDirs(
+                        project.getLayout(),
+                        distributionExtension,
+                        root,
+                        t -> t.setDuplicatesStrategy(DuplicatesStrategy.INCLUDE));
+            }
         });
     }
 
+    /**
+     * The JDK shipped for the given Java version, which is the runtime image built by {@code createJlinkImage} rather
+     * than the bundled JDK for the service's own Java version when {@link JlinkOptions} are enabled.
+     */
+    static Provider<Object> jdkInDist(
+            Project project, JavaServiceDistributionExtension distributionExtension, JavaVersion javaVersion) {
+        Provider<Object> bundledJdk = bundledJdk(project, distributionExtension, javaVersion);
+        return distributionExtension.getJlink().getEnabled().flatMap(enabled -> enabled
+                        && javaVersion.equals(distributionExtension.getJavaVersion().get())
+                ? project.getTasks()
+                        .named("createJlinkImage", CreateJlinkImageTask.class)
+                        .flatMap(CreateJlinkImageTask::getImageDirectory)
+                        .map(Object.class::cast)
+                : bundledJdk);
+    }
+
+    /**
+     * The JDK configured in {@link JavaServiceDistributionExtension#getJdks()} for the given Java version. JDKs given
+     * as a configuration, such as a dependency on a JDK archive in a maven repository, or as a single archive file are
+     * extracted by {@link ExtractArchive}, so that each JDK is unpacked once rather than for every project.
+     */
+    static Provider<Object> bundledJdk(
+            Project project, JavaServiceDistributionExtension distributionExtension, JavaVersion javaVersion) {
+        return distributionExtension
+                .getJdks()
+                .getting(javaVersion)
+                .map(jdk -> extractedJdk(project, jdk))
+                .orElse(project.provider(project::files));
+    }
+
+    private static Object extractedJdk(Project project, Object jdk) {
+        Configuration archives;
+        if (jdk instanceof Configuration) {
+            archives = (Configuration) jdk;
+        } else if ((jdk instanceof File || jdk instanceof Path || jdk instanceof RegularFile)
+                && isArchive(project.file(jdk).getName())) {
+            archives = project.getConfigurations()
+                    .detachedConfiguration(project.getDependencies().create(project.files(jdk)));
+        } else {
+            return jdk;
+        }
+        return archives.getIncoming()
+                .artifactView(view ->
+                        view.getAttributes().attribute(DependencyDiscovery.ARTIFACT_FORMAT, ExtractArchive.JDK_TYPE))
+                .getFiles();
+    }
+
+    private static boolean isArchive(String fileName) {
+        return fileName.endsWith(".tar.gz")
+                || fileName.endsWith(".tgz")
+                || fileName.endsWith(".tar")
+                || fileName.endsWith(".zip");
+    }
+
+    /**
+     * Jars from other projects in the build change as often as this project's jar, so they belong to the application
+     * layer rather than with the third party dependencies.
+     */
+    private static Object runtimeClasspath(Project project, Set<DistLayer> layers) {
+        NamedDomainObjectProvider<Configuration> runtimeClasspath =
+                project.getConfigurations().named("runtimeClasspath");
+        boolean application = layers.contains(DistLayer.APPLICATION);
+        boolean dependencies = layers.contains(DistLayer.DEPENDENCIES);
+        if (application && dependencies) {
+            return runtimeClasspath;
+        }
+        if (!application && !dependencies) {
+            return project.files();
+        }
+        return runtimeClasspath.map(conf -> conf.getIncoming()
+                .artifactView(view -> view.componentFilter(
+                        id -> (id instanceof ProjectComponentIdentifier) == application))
+                .getFiles());
+    }
+
     private DistTarTask() {}
 }
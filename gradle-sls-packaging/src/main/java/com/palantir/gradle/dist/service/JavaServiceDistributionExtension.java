@@ -16,14 +16,23 @@
 
 package com.palantir.gradle.dist.service;
 
+import com.google.common.collect.ImmutableList;
 import com.palantir.gradle.dist.BaseDistributionExtension;
 import com.palantir.gradle.dist.ProductType;
+import com.palantir.gradle.dist.service.ergonomics.ContainerErgonomics;
 import com.palantir.gradle.dist.service.gc.GcProfile;
+import com.palantir.gradle.dist.service.gc.GcReport;
+import com.palantir.gradle.dist.service.jlink.JlinkOptions;
+import com.palantir.gradle.dist.service.tasks.CreateAotCache;
 import groovy.lang.Closure;
 import groovy.lang.DelegatesTo;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
 import org.gradle.api.Action;
@@ -34,6 +43,7 @@ import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.SetProperty;
 
 public class JavaServiceDistributionExtension extends BaseDistributionExtension {
 
@@ -43,7 +53,15 @@ public class JavaServiceDistributionExtension extends BaseDistributionExtension
     private final Property<String> javaHome;
     private final Property<Boolean> addJava8GcLogging;
     private final Property<Boolean> enableManifestClasspath;
+    private final Property<Boolean> enableAppCds;
+    private final Property<Boolean> enableAotCache;
+    private final Property<Boolean> enableCrac;
+    private final ListProperty<String> appCdsTrainingArgs;
+    private final Property<Integer> appCdsTrainingSeconds;
+    private final SetProperty<TargetPlatform> targetPlatforms;
     private final Property<GcProfile> gc;
+    private final ContainerErgonomics ergonomics;
+    private final JlinkOptions jlink;
     private final ListProperty<String> args;
     private final ListProperty<String> checkArgs;
     private final ListProperty<String> defaultJvmOpts;
@@ -90,7 +108,16 @@ public class JavaServiceDistributionExtension extends BaseDistributionExtension
                 .property(GcProfile.class)
                 .value(javaVersion.map(JavaServiceDistributionExtension::getDefaultGcProfile));
 
+        ergonomics = objectFactory.newInstance(ContainerErgonomics.class);
+        jlink = objectFactory.newInstance(JlinkOptions.class);
+
         args = objectFactory.listProperty(String.class).empty();
+        enableAppCds = objectFactory.property(Boolean.class).value(false);
+        enableAotCache = objectFactory.property(Boolean.class).value(false);
+        enableCrac = objectFactory.property(Boolean.class).value(false);
+        appCdsTrainingArgs = objectFactory.listProperty(String.class).value(args);
+        appCdsTrainingSeconds = objectFactory.property(Integer.class).value(60);
+        targetPlatforms = objectFactory.setProperty(TargetPlatform.class).value(EnumSet.allOf(TargetPlatform.class));
         checkArgs = objectFactory.listProperty(String.class).empty();
         defaultJvmOpts = objectFactory.listProperty(String.class).empty();
         excludeFromVar = objectFactory.listProperty(String.class);
@@ -108,6 +135,17 @@ public class JavaServiceDistributionExtension extends BaseDistributionExtension
         return javaVersion.flatMap(version -> getGc().map(gcProfile -> gcProfile.gcJvmOpts(version)));
     }
 
+    /** Explains the choices of a {@link GcProfile.Workload} profile, and is absent for the other profiles. */
+    public final Provider<GcReport> getGcReport() {
+        return javaVersion.flatMap(version -> getGc().map(gcProfile -> gcProfile instanceof GcProfile.Workload
+                ? ((GcProfile.Workload) gcProfile).report(version)
+                : null));
+    }
+
+    public final Provider<List<String>> getErgonomicsJvmOptions() {
+        return javaVersion.map(ergonomics::jvmOpts);
+    }
+
     public final void javaVersion(Object version) {
         javaVersion.set(JavaVersion.toVersion(version));
     }
@@ -148,6 +186,97 @@ public class JavaServiceDistributionExtension extends BaseDistributionExtension
         this.enableManifestClasspath.set(newEnableManifestClasspath);
     }
 
+    public final Provider<Boolean> getEnableAppCds() {
+        return enableAppCds;
+    }
+
+    /**
+     * Runs the main class at build time with {@link #getAppCdsTrainingArgs()} to dump an AppCDS archive of the classes
+     * it loads, which is shipped in the dist and used by the launcher to speed up startup. Requires a bundled JDK for
+     * the {@link #getJavaVersion()}, of Java 13 or later.
+     */
+    public final void enableAppCds(boolean newEnableAppCds) {
+        this.enableAppCds.set(newEnableAppCds);
+    }
+
+    public final Provider<Boolean> getEnableAotCache() {
+        return enableAotCache;
+    }
+
+    /**
+     * Runs the main class at build time with {@link #getAppCdsTrainingArgs()} to create an AOT cache of the classes it
+     * loads and links, which is shipped in the dist and used by the launcher to speed up startup. Requires a bundled
+     * JDK for the {@link #getJavaVersion()}. AOT caches need Java 24 or later, and this is ignored for earlier
+     * versions, so it can be combined with {@link #enableAppCds(boolean)} to get whichever the Java version supports.
+     */
+    public final void enableAotCache(boolean newEnableAotCache) {
+        this.enableAotCache.set(newEnableAotCache);
+    }
+
+    public final Provider<Boolean> getEnableCrac() {
+        return enableCrac;
+    }
+
+    /**
+     * Adds a {@code service/bin/crac.sh} script and {@code launcher-crac.yml} launcher config, which let the service be
+     * checkpointed once it is healthy and warmed up, and restored from that checkpoint with Coordinated Restore at
+     * Checkpoint. Requires a bundled JDK for the {@link #getJavaVersion()} built with CRaC support. The regular
+     * launcher configs and {@code init.sh} are unchanged.
+     */
+    public final void enableCrac(boolean newEnableCrac) {
+        this.enableCrac.set(newEnableCrac);
+    }
+
+    /** Whether an AOT cache is created, which requires it to be enabled and supported by the Java version. */
+    final Provider<Boolean> getUseAotCache() {
+        return enableAotCache.zip(javaVersion, (enabled, version) -> enabled && CreateAotCache.isSupported(version));
+    }
+
+    /**
+     * The arguments the main class is run with to train the AppCDS archive or AOT cache. Defaults to
+     * {@link #getArgs()}.
+     */
+    public final Provider<List<String>> getAppCdsTrainingArgs() {
+        return appCdsTrainingArgs;
+    }
+
+    public final void appCdsTrainingArgs(String... newAppCdsTrainingArgs) {
+        this.appCdsTrainingArgs.set(ImmutableList.copyOf(newAppCdsTrainingArgs));
+    }
+
+    public final void setAppCdsTrainingArgs(Iterable<String> appCdsTrainingArgs) {
+        this.appCdsTrainingArgs.set(appCdsTrainingArgs);
+    }
+
+    /**
+     * How long the AppCDS or AOT cache training run may take before the process is asked to shut down, which is when
+     * what it loaded is written out. Defaults to 60 seconds.
+     */
+    public final Provider<Integer> getAppCdsTrainingSeconds() {
+        return appCdsTrainingSeconds;
+    }
+
+    public final void appCdsTrainingSeconds(int newAppCdsTrainingSeconds) {
+        this.appCdsTrainingSeconds.set(newAppCdsTrainingSeconds);
+    }
+
+    /**
+     * The platforms the dist is built to run on. Launcher binaries and native libraries for any other platform are left
+     * out of the dist. Defaults to every {@link TargetPlatform}.
+     */
+    public final Provider<Set<TargetPlatform>> getTargetPlatforms() {
+        return targetPlatforms;
+    }
+
+    public final void targetPlatforms(String... platformNames) {
+        this.targetPlatforms.set(
+                Arrays.stream(platformNames).map(TargetPlatform::fromName).collect(Collectors.toSet()));
+    }
+
+    public final void setTargetPlatforms(Iterable<TargetPlatform> targetPlatforms) {
+        this.targetPlatforms.set(targetPlatforms);
+    }
+
     public final Provider<List<String>> getArgs() {
         return args;
     }
@@ -257,6 +386,30 @@ public class JavaServiceDistributionExtension extends BaseDistributionExtension
         gc(type, null);
     }
 
+    public final ContainerErgonomics getErgonomics() {
+        return ergonomics;
+    }
+
+    /**
+     * Configures heap, metaspace and CPU sizing relative to the limits of the container the service runs in, see
+     * {@link ContainerErgonomics}.
+     */
+    public final void ergonomics(Action<ContainerErgonomics> action) {
+        action.execute(ergonomics);
+    }
+
+    public final JlinkOptions getJlink() {
+        return jlink;
+    }
+
+    /**
+     * Ships a runtime image with only the JDK modules the service uses in place of the bundled JDK for the
+     * {@link #getJavaVersion()}, see {@link JlinkOptions}.
+     */
+    public final void jlink(Action<JlinkOptions> action) {
+        action.execute(jlink);
+    }
+
     private static GcProfile getDefaultGcProfile(JavaVersion javaVersion) {
         // For Java 15 and above, use hybrid as the default garbage collector
         if (javaVersion.compareTo(JavaVersion.toVersion("14")) > 0) {
@@ -20,14 +20,26 @@ import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
 import com.palantir.gradle.dist.ProductDependencyIntrospectionPlugin;
 import com.palantir.gradle.dist.SlsBaseDistPlugin;
+import com.palantir.gradle.dist.artifacts.DependencyDiscovery;
+import com.palantir.gradle.dist.artifacts.ExtractArchive;
 import com.palantir.gradle.dist.asset.AssetDistributionPlugin;
+import com.palantir.gradle.dist.service.tasks.CreateAotCache;
+import com.palantir.gradle.dist.service.tasks.CreateAotCacheTask;
+import com.palantir.gradle.dist.service.tasks.CreateAppCdsArchive;
+import com.palantir.gradle.dist.service.tasks.CreateAppCdsArchiveTask;
 import com.palantir.gradle.dist.service.tasks.CreateCheckScriptTask;
+import com.palantir.gradle.dist.service.tasks.CreateCracScriptTask;
 import com.palantir.gradle.dist.service.tasks.CreateInitScriptTask;
+import com.palantir.gradle.dist.service.tasks.CreateJlinkImageTask;
 import com.palantir.gradle.dist.service.tasks.LaunchConfigTask;
 import com.palantir.gradle.dist.service.tasks.LazyCreateStartScriptTask;
-import com.palantir.gradle.dist.service.util.MainClassResolver;
+import com.palantir.gradle.dist.service.tasks.ProfileStartupTask;
+import com.palantir.gradle.dist.service.tasks.ResolveJdkModulesTask;
+import com.palantir.gradle.dist.service.tasks.ResolveMainClass;
+import com.palantir.gradle.dist.service.tasks.ResolveMainClassTask;
 import com.palantir.gradle.dist.tasks.ConfigTarTask;
 import com.palantir.gradle.dist.tasks.CreateManifestTask;
+import com.palantir.gradle.dist.tasks.SlsTarTask;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
@@ -35,25 +47,27 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
 import org.gradle.api.Action;
 import org.gradle.api.InvalidUserCodeException;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
 import org.gradle.api.file.FileCollection;
-import org.gradle.api.file.RelativePath;
 import org.gradle.api.plugins.JavaPlugin;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.Copy;
 import org.gradle.api.tasks.JavaExec;
+import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.TaskProvider;
-import org.gradle.api.tasks.bundling.Compression;
 import org.gradle.api.tasks.bundling.Jar;
-import org.gradle.api.tasks.bundling.Tar;
 import org.gradle.process.CommandLineArgumentProvider;
 import org.gradle.util.GradleVersion;
 
@@ -100,9 +114,22 @@ public final class JavaServiceDistributionPlugin implements Plugin<Project> {
         // Set default configuration to look for product dependencies to be runtimeClasspath
         distributionExtension.setProductDependenciesConfig(runtimeClasspath);
 
+        TaskProvider<ResolveMainClassTask> resolveMainClass = project.getTasks()
+                .register("resolveMainClass", ResolveMainClassTask.class, task -> {
+                    task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
+                    task.setDescription("Finds the only class with a main method in the compiled main source set.");
+                    task.getClassesDirs()
+                            .from(project.getExtensions()
+                                    .getByType(org.gradle.api.plugins.JavaPluginExtension.class)
+                                    .getSourceSets()
+                                    .named(SourceSet.MAIN_SOURCE_SET_NAME)
+                                    .map(main -> main.getOutput().getClassesDirs()));
+                });
         Provider<String> mainClassName = distributionExtension
                 .getMainClass()
-                .orElse(project.provider(() -> MainClassResolver.resolveMainClass(project)));
+                .orElse(resolveMainClass
+                        .flatMap(ResolveMainClassTask::getMainClassFile)
+                        .map(ResolveMainClass::readMainClass));
 
         // Create configuration to load executable dependencies
         Configuration launcherConfig = project.getConfigurations().create("goJavaLauncherBinary");
@@ -110,16 +137,17 @@ public final class JavaServiceDistributionPlugin implements Plugin<Project> {
         Configuration initConfig = project.getConfigurations().create("goInitBinary");
         project.getDependencies().add(initConfig.getName(), getGoJavaLauncherCoordinate(project, GO_INIT));
 
+        // The binaries are under <name>-<version>/service/bin/<platform> in the tgz
+        DependencyDiscovery.configureArchiveTransform(project, ExtractArchive.LAUNCHER_BINARIES_TYPE, 3, "tgz");
+        // JDK archives hold the JDK home in a single top level directory. A .tar.gz has the artifact type 'gz'
+        DependencyDiscovery.configureArchiveTransform(
+                project, ExtractArchive.JDK_TYPE, 1, "tgz", "gz", "tar", ArtifactTypeDefinition.ZIP_TYPE);
+
         TaskProvider<Copy> copyLauncherBinaries = project.getTasks()
                 .register("copyLauncherBinaries", Copy.class, task -> {
-                    task.from(project.provider(() -> project.tarTree(launcherConfig.getSingleFile())));
-                    task.from(project.provider(() -> project.tarTree(initConfig.getSingleFile())));
+                    task.from(launcherBinaries(launcherConfig));
+                    task.from(launcherBinaries(initConfig));
                     task.into(project.getLayout().getBuildDirectory().dir("scripts"));
-                    task.eachFile(fcd -> {
-                        String[] segments = fcd.getRelativePath().getSegments();
-                        fcd.setRelativePath(new RelativePath(
-                                !fcd.getFile().isDirectory(), Arrays.copyOfRange(segments, 3, segments.length)));
-                    });
                 });
 
         TaskProvider<Jar> manifestClassPathTask = project.getTasks()
@@ -212,7 +240,8 @@ public final class JavaServiceDistributionPlugin implements Plugin<Project> {
         TaskProvider<LaunchConfigTask> launchConfigTask = project.getTasks()
                 .register("createLaunchConfig", LaunchConfigTask.class, task -> {
                     task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
-                    task.setDescription("Generates launcher-static.yml and launcher-check.yml configurations.");
+                    task.setDescription("Generates launcher-static.yml and launcher-check.yml configurations, and "
+                            + "launcher-crac.yml when CRaC is enabled.");
                     task.dependsOn(manifestClassPathTask);
 
                     task.getMainClass().set(mainClassName);
@@ -220,6 +249,8 @@ public final class JavaServiceDistributionPlugin implements Plugin<Project> {
                     task.getArgs().set(distributionExtension.getArgs());
                     task.getCheckArgs().set(distributionExtension.getCheckArgs());
                     task.getGcJvmOptions().set(distributionExtension.getGcJvmOptions());
+                    task.getErgonomicsJvmOptions().set(distributionExtension.getErgonomicsJvmOptions());
+                    task.getGcReport().set(distributionExtension.getGcReport());
                     task.getDefaultJvmOpts().set(distributionExtension.getDefaultJvmOpts());
                     task.getAddJava8GcLogging().set(distributionExtension.getAddJava8GcLogging());
                     task.getJavaHome().set(distributionExtension.getJavaHome());
@@ -233,6 +264,94 @@ public final class JavaServiceDistributionPlugin implements Plugin<Project> {
                     task.getEnv().set(userConfiguredEnvWithJdkEnvVars(distributionExtension));
                 });
 
+        TaskProvider<CreateAppCdsArchiveTask> appCdsArchive = project.getTasks()
+                .register("createAppCdsArchive", CreateAppCdsArchiveTask.class, task -> {
+                    task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
+                    task.setDescription("Runs the main class with the bundled JDK to dump an AppCDS archive of the "
+                            + "classes it loads, which speeds up startup of the service.");
+                    task.getMainClass().set(mainClassName);
+                    task.getTrainingArgs().set(distributionExtension.getAppCdsTrainingArgs());
+                    // Train with the same JVM options and environment the service starts with
+                    task.getStaticLauncher().set(launchConfigTask.flatMap(LaunchConfigTask::getStaticLauncher));
+                    task.getTrainingSeconds().set(distributionExtension.getAppCdsTrainingSeconds());
+                    task.getJavaVersion().set(distributionExtension.getJavaVersion());
+                    task.getReproducible().set(distributionExtension.getReproducible());
+                    // Train with the JDK that is shipped, as the archive only works with the exact same runtime
+                    task.getJdk()
+                            .from(distributionExtension
+                                    .getJavaVersion()
+                                    .flatMap(javaVersion ->
+                                            DistTarTask.jdkInDist(project, distributionExtension, javaVersion)));
+                    task.getArchiveFile()
+                            .set(project.getLayout()
+                                    .getBuildDirectory()
+                                    .file(distributionExtension
+                                            .getDistributionServiceName()
+                                            .map(name -> "appcds/" + name + ".jsa")));
+                });
+        launchConfigTask.configure(task -> task.getSharedArchiveFile()
+                .set(distributionExtension.getEnableAppCds().flatMap(enabled -> enabled
+                        ? distributionExtension
+                                .getDistributionServiceName()
+                                .map(name -> CreateAppCdsArchive.ARCHIVE_DIST_LOCATION + "/" + name + ".jsa")
+                        : project.provider(() -> null))));
+
+        TaskProvider<CreateAotCacheTask> aotCache = project.getTasks()
+                .register("createAotCache", CreateAotCacheTask.class, task -> {
+                    task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
+                    task.setDescription("Runs the main class with the bundled JDK to record the classes it loads and "
+                            + "links into an AOT cache, which speeds up startup of the service on Java 24+.");
+                    task.getMainClass().set(mainClassName);
+                    task.getTrainingArgs().set(distributionExtension.getAppCdsTrainingArgs());
+                    // Train with the same JVM options and environment the service starts with
+                    task.getStaticLauncher().set(launchConfigTask.flatMap(LaunchConfigTask::getStaticLauncher));
+                    task.getTrainingSeconds().set(distributionExtension.getAppCdsTrainingSeconds());
+                    task.getJavaVersion().set(distributionExtension.getJavaVersion());
+                    task.getReproducible().set(distributionExtension.getReproducible());
+                    // Train with the JDK that is shipped, as the archive only works with the exact same runtime
+                    task.getJdk()
+                            .from(distributionExtension
+                                    .getJavaVersion()
+                                    .flatMap(javaVersion ->
+                                            DistTarTask.jdkInDist(project, distributionExtension, javaVersion)));
+                    task.getCacheFile()
+                            .set(project.getLayout()
+                                    .getBuildDirectory()
+                                    .file(distributionExtension
+                                            .getDistributionServiceName()
+                                            .map(name -> "aot/" + name + ".aot")));
+                });
+        launchConfigTask.configure(task -> task.getAotCacheFile()
+                .set(distributionExtension.getUseAotCache().flatMap(enabled -> enabled
+                        ? distributionExtension
+                                .getDistributionServiceName()
+                                .map(name -> CreateAotCache.CACHE_DIST_LOCATION + "/" + name + ".aot")
+                        : project.provider(() -> null))));
+
+        TaskProvider<ResolveJdkModulesTask> resolveJdkModules = project.getTasks()
+                .register("resolveJdkModules", ResolveJdkModulesTask.class, task -> {
+                    task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
+                    task.setDescription("Runs jdeps over the jar and runtime classpath to find the JDK modules the "
+                            + "service needs in its runtime image.");
+                    task.getClasspath().from(jarTask);
+                    task.getClasspath().from(project.getConfigurations().named("runtimeClasspath"));
+                    task.getJavaAgents().from(javaAgentConfiguration);
+                    task.getJdk().from(bundledJdk(project, distributionExtension));
+                    task.getJavaVersion().set(distributionExtension.getJavaVersion());
+                    task.getAddModules().set(distributionExtension.getJlink().getAddModules());
+                });
+
+        project.getTasks().register("createJlinkImage", CreateJlinkImageTask.class, task -> {
+            task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
+            task.setDescription("Builds a runtime image with only the JDK modules the service needs, which is shipped "
+                    + "in place of the bundled JDK when jlink is enabled.");
+            task.getModulesFile().set(resolveJdkModules.flatMap(ResolveJdkModulesTask::getModulesFile));
+            task.getJdk().from(bundledJdk(project, distributionExtension));
+            task.getJavaVersion().set(distributionExtension.getJavaVersion());
+            task.getCompress().set(distributionExtension.getJlink().getCompress());
+            task.getStripDebug().set(distributionExtension.getJlink().getStripDebug());
+        });
+
         TaskProvider<CreateInitScriptTask> initScript = project.getTasks()
                 .register("createInitScript", CreateInitScriptTask.class, task -> {
                     task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
@@ -240,6 +359,23 @@ public final class JavaServiceDistributionPlugin implements Plugin<Project> {
                     task.getServiceName().set(distributionExtension.getDistributionServiceName());
                 });
 
+        TaskProvider<CreateCracScriptTask> cracScript = project.getTasks()
+                .register("createCracScript", CreateCracScriptTask.class, task -> {
+                    task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
+                    task.setDescription("Generates the service/bin/crac.sh script, which checkpoints the service once "
+                            + "it is warmed up and restores it from that checkpoint.");
+                    task.getEnableCrac().set(distributionExtension.getEnableCrac());
+                    task.getServiceName().set(distributionExtension.getDistributionServiceName());
+                    task.getJavaHome().set(distributionExtension.getJavaHome());
+                    // Check the JDK that is shipped, which is a runtime image without CRIU when jlink is enabled
+                    task.getJdk()
+                            .from(distributionExtension
+                                    .getJavaVersion()
+                                    .flatMap(javaVersion ->
+                                            DistTarTask.jdkInDist(project, distributionExtension, javaVersion)));
+                });
+        launchConfigTask.configure(task -> task.getEnableCrac().set(distributionExtension.getEnableCrac()));
+
         TaskProvider<CreateCheckScriptTask> checkScript = project.getTasks()
                 .register("createCheckScript", CreateCheckScriptTask.class, task -> {
                     task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
@@ -295,21 +431,28 @@ public final class JavaServiceDistributionPlugin implements Plugin<Project> {
             task.setArgs(distributionExtension.getArgs().get());
         }));
 
-        TaskProvider<Tar> distTar = project.getTasks().register("distTar", Tar.class, task -> {
+        List<Object> distContentDependencies = ImmutableList.of(
+                startScripts,
+                initScript,
+                checkScript,
+                cracScript,
+                copyLauncherBinaries,
+                launchConfigTask,
+                manifest,
+                manifestClassPathTask,
+                javaAgentConfiguration);
+
+        TaskProvider<SlsTarTask> distTar = project.getTasks().register("distTar", SlsTarTask.class, task -> {
             task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
-            task.setDescription("Creates a compressed, gzipped tar file that contains required runtime resources.");
-            // Set compression in constructor so that task output has the right name from the start.
-            task.setCompression(Compression.GZIP);
-            task.getArchiveExtension().set("sls.tgz");
-            task.dependsOn(
-                    startScripts,
-                    initScript,
-                    checkScript,
-                    copyLauncherBinaries,
-                    launchConfigTask,
-                    manifest,
-                    manifestClassPathTask,
-                    javaAgentConfiguration);
+            task.setDescription("Creates a compressed tar file that contains required runtime resources.");
+            // Set the extension lazily from the codec so that task output has the right name from the start.
+            task.getArchiveExtension()
+                    .set(distributionExtension.getArchiveCodec().map(codec -> "sls." + codec.getFileExtension()));
+            task.getArchiveCodec().set(distributionExtension.getArchiveCodec());
+            task.getZstdLevel().set(distributionExtension.getZstdLevel());
+            task.getCompressionThreads().set(distributionExtension.getCompressionThreads());
+            task.getReproducible().set(distributionExtension.getReproducible());
+            task.dependsOn(distContentDependencies);
         });
 
         project.afterEvaluate(_p -> launchConfigTask.configure(task -> {
@@ -324,13 +467,125 @@ public final class JavaServiceDistributionPlugin implements Plugin<Project> {
                                     : fullClasspath);
         }));
 
+        project.afterEvaluate(_p -> appCdsArchive.configure(task -> {
+            task.getClasspath().from(launchConfigTask.get().getClasspath());
+            task.getFullClasspath().from(launchConfigTask.get().getFullClasspath());
+        }));
+
+        project.afterEvaluate(_p -> aotCache.configure(task -> {
+            task.getClasspath().from(launchConfigTask.get().getClasspath());
+            task.getFullClasspath().from(launchConfigTask.get().getFullClasspath());
+        }));
+
         project.afterEvaluate(_proj -> distTar.configure(task -> {
             DistTarTask.configure(project, task, distributionExtension, jarTask);
         }));
 
+        TaskProvider<CreateLayeredDistTask> distLayers = project.getTasks()
+                .register("distLayers", CreateLayeredDistTask.class, task -> {
+                    task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
+                    task.setDescription("Splits the contents of distTar into content-addressed layer archives "
+                            + "with an index, so deploy tooling only has to fetch the layers that changed.");
+                    task.getRootDirectory().set(project.provider(() -> String.format(
+                            "%s-%s", distributionExtension.getDistributionServiceName().get(), project.getVersion())));
+                    task.getArchiveExtension().set(distTar.flatMap(SlsTarTask::getArchiveExtension));
+                    task.getOutputDirectory()
+                            .set(project.getLayout().getBuildDirectory().dir("distributions/layers"));
+                });
+
+        for (DistLayer layer : DistLayer.values()) {
+            TaskProvider<SlsTarTask> layerTar = project.getTasks()
+                    .register("distLayer" + StringUtils.capitalize(layer.getLayerName()), SlsTarTask.class, task -> {
+                        task.setDescription("Creates the " + layer.getLayerName() + " layer of the distribution.");
+                        task.getArchiveClassifier().set(layer.getLayerName());
+                        task.getArchiveExtension().set(distTar.flatMap(SlsTarTask::getArchiveExtension));
+                        task.getArchiveCodec().set(distributionExtension.getArchiveCodec());
+                        task.getZstdLevel().set(distributionExtension.getZstdLevel());
+                        task.getCompressionThreads().set(distributionExtension.getCompressionThreads());
+                        task.getDestinationDirectory()
+                                .set(project.getLayout().getBuildDirectory().dir("dist-layers"));
+                        // Layers are named after their hash, so their bytes must only depend on the files in them
+                        task.getReproducible().set(true);
+                        task.dependsOn(distContentDependencies);
+                    });
+            project.afterEvaluate(_proj -> layerTar.configure(task -> {
+                DistTarTask.configure(project, task, distributionExtension, jarTask, EnumSet.of(layer));
+            }));
+            distLayers.configure(task -> {
+                task.getLayerNames().add(layer.getLayerName());
+                task.getLayerArchives().from(layerTar.flatMap(SlsTarTask::getArchiveFile));
+            });
+        }
+
+        TaskProvider<Task> distTarPerPlatform = project.getTasks().register("distTarPerPlatform", task -> {
+            task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
+            task.setDescription("Creates a dist for each of the target platforms, holding only the launcher binaries "
+                    + "and native libraries of that platform.");
+        });
+        for (TargetPlatform platform : TargetPlatform.values()) {
+            String platformTaskSuffix = Arrays.stream(platform.getPlatformName().split("-"))
+                    .map(StringUtils::capitalize)
+                    .collect(Collectors.joining());
+            TaskProvider<SlsTarTask> platformTar = project.getTasks()
+                    .register("distTar" + platformTaskSuffix, SlsTarTask.class, task -> {
+                        task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
+                        task.setDescription(
+                                "Creates a compressed tar file of the distribution for " + platform.getPlatformName());
+                        task.getArchiveClassifier().set(platform.getPlatformName());
+                        task.getArchiveExtension().set(distTar.flatMap(SlsTarTask::getArchiveExtension));
+                        task.getArchiveCodec().set(distributionExtension.getArchiveCodec());
+                        task.getZstdLevel().set(distributionExtension.getZstdLevel());
+                        task.getCompressionThreads().set(distributionExtension.getCompressionThreads());
+                        task.getReproducible().set(distributionExtension.getReproducible());
+                        task.dependsOn(distContentDependencies);
+                    });
+            project.afterEvaluate(_proj -> platformTar.configure(task -> {
+                DistTarTask.configure(
+                        project,
+                        task,
+                        distributionExtension,
+                        jarTask,
+                        EnumSet.allOf(DistLayer.class),
+                        EnumSet.of(platform));
+            }));
+            distTarPerPlatform.configure(task -> task.dependsOn(distributionExtension
+                    .getTargetPlatforms()
+                    .map(platforms -> platforms.contains(platform)
+                            ? Collections.singletonList(platformTar)
+                            : Collections.emptyList())));
+        }
+
+        project.getTasks().register("profileStartup", ProfileStartupTask.class, task -> {
+            task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
+            task.setDescription("Unpacks and starts the dist through its launcher, and reports the time to main, the "
+                    + "time until check.sh passes, the classes loaded and the resident set size once healthy.");
+            task.getDistribution().set(distTar.flatMap(SlsTarTask::getArchiveFile));
+            task.getJavaVersion().set(distributionExtension.getJavaVersion());
+        });
+
         project.getArtifacts().add(SlsBaseDistPlugin.SLS_CONFIGURATION_NAME, distTar);
     }
 
+    /** The bundled JDK for the service's Java version, if there is one. */
+    private static Provider<Object> bundledJdk(
+            Project project, JavaServiceDistributionExtension distributionExtension) {
+        return distributionExtension
+                .getJavaVersion()
+                .flatMap(javaVersion -> DistTarTask.bundledJdk(project, distributionExtension, javaVersion));
+    }
+
+    /**
+     * Extracted by {@link ExtractArchive} rather than with {@code tarTree} in the copy task, so that the tgz is only
+     * extracted once per machine instead of once per project.
+     */
+    private static FileCollection launcherBinaries(Configuration configuration) {
+        return configuration
+                .getIncoming()
+                .artifactView(view -> view.getAttributes()
+                        .attribute(DependencyDiscovery.ARTIFACT_FORMAT, ExtractArchive.LAUNCHER_BINARIES_TYPE))
+                .getFiles();
+    }
+
     private static Provider<Map<String, String>> userConfiguredEnvWithJdkEnvVars(
             JavaServiceDistributionExtension distributionExtension) {
 
@@ -16,13 +16,25 @@
 
 package com.palantir.gradle.dist.service;
 
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.palantir.gradle.autoparallelizable.AutoParallelizable;
 import com.palantir.gradle.dist.ObjectMappers;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.gradle.api.GradleException;
 import org.gradle.api.file.ConfigurableFileCollection;
@@ -32,6 +44,13 @@ import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 
+/**
+ * Merges the diagnostics declared by every jar into one list, without duplicates and sorted by type.
+ *
+ * <p>Files are read in parallel, one token at a time, and each entry is only kept as its compact JSON along with a
+ * hash of its canonical form, so no file is ever held as a tree. Two entries have the same hash when they are equal as
+ * JSON, whatever the order of their fields, which is the same as comparing them as {@code ObjectNode}s.
+ */
 @AutoParallelizable
 final class MergeDiagnosticsJson {
     interface Params {
@@ -44,19 +63,144 @@ final class MergeDiagnosticsJson {
     }
 
     static void action(Params params) {
-        List<ObjectNode> aggregated = params.getClasspath().getFiles().stream()
-                .flatMap(file -> Diagnostics.parse(file).stream())
-                .distinct()
-                .sorted(Comparator.comparing(node -> node.get("type").asText()))
+        List<List<Entry>> parsed = params.getClasspath().getFiles().parallelStream()
+                .map(MergeDiagnosticsJson::parse)
+                .collect(Collectors.toList());
+
+        // Keep the first of any duplicates, in classpath order, so that the output does not depend on threading
+        Map<HashCode, Entry> distinct = new LinkedHashMap<>();
+        parsed.forEach(entries -> entries.forEach(entry -> distinct.putIfAbsent(entry.hash, entry)));
+        List<Entry> sorted = distinct.values().stream()
+                .sorted(Comparator.comparing(entry -> entry.type))
                 .collect(Collectors.toList());
 
         File out = params.getOutputJsonFile().getAsFile().get();
-        try {
-            ObjectMappers.jsonMapper.writeValue(out, aggregated);
+        try (JsonGenerator generator = ObjectMappers.jsonMapper.writer().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            for (Entry entry : sorted) {
+                try (JsonParser parser = ObjectMappers.jsonMapper.createParser(entry.json)) {
+                    parser.nextToken();
+                    generator.copyCurrentStructure(parser);
+                }
+            }
+            generator.writeEndArray();
         } catch (IOException e) {
             throw new GradleException("Failed to write " + out, e);
         }
     }
 
+    private static List<Entry> parse(File file) {
+        try (JsonParser parser = ObjectMappers.jsonMapper.createParser(file)) {
+            ImmutableList.Builder<Entry> entries = ImmutableList.builder();
+            expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                expect(parser, token, JsonToken.START_OBJECT);
+                entries.add(Entry.read(parser));
+            }
+            return entries.build();
+        } catch (IOException e) {
+            throw Diagnostics.parseFailure(file, e);
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException(String.format(
+                    "Expected %s but found %s at %s", expected, actual, parser.currentLocation()));
+        }
+    }
+
+    private static final class Entry {
+        private final String type;
+        private final HashCode hash;
+        private final byte[] json;
+
+        private Entry(String type, HashCode hash, byte[] json) {
+            this.type = type;
+            this.hash = hash;
+            this.json = json;
+        }
+
+        /** Reads the object the parser is at, leaving the parser at its end. */
+        static Entry read(JsonParser parser) throws IOException {
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            String type = null;
+            List<HashCode> fields = new ArrayList<>();
+            try (JsonGenerator generator = ObjectMappers.jsonMapper.getFactory().createGenerator(json)) {
+                generator.writeStartObject();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    generator.writeFieldName(name);
+                    JsonToken value = parser.nextToken();
+                    if (name.equals("type") && value.isScalarValue()) {
+                        type = parser.getText();
+                    }
+                    fields.add(Hashing.combineOrdered(List.of(hashString(name), hashValue(parser, generator))));
+                }
+                generator.writeEndObject();
+            }
+            if (type == null) {
+                throw new IOException(String.format("Missing type at %s", parser.currentLocation()));
+            }
+            return new Entry(type, hashObject(fields), json.toByteArray());
+        }
+
+        /** Hashes the value the parser is at while copying it to the generator, leaving the parser at its end. */
+        private static HashCode hashValue(JsonParser parser, JsonGenerator generator) throws IOException {
+            JsonToken token = parser.currentToken();
+            switch (token) {
+                case START_OBJECT:
+                    generator.writeStartObject();
+                    List<HashCode> fields = new ArrayList<>();
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = parser.currentName();
+                        generator.writeFieldName(name);
+                        parser.nextToken();
+                        fields.add(Hashing.combineOrdered(List.of(hashString(name), hashValue(parser, generator))));
+                    }
+                    generator.writeEndObject();
+                    return hashObject(fields);
+                case START_ARRAY:
+                    generator.writeStartArray();
+                    Hasher elements = Hashing.sha256().newHasher().putByte((byte) '[');
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        elements.putBytes(hashValue(parser, generator).asBytes());
+                    }
+                    generator.writeEndArray();
+                    return elements.hash();
+                default:
+                    generator.copyCurrentEvent(parser);
+                    return hashScalar(parser, token);
+            }
+        }
+
+        private static HashCode hashScalar(JsonParser parser, JsonToken token) throws IOException {
+            Hasher hasher = Hashing.sha256().newHasher().putInt(token.ordinal());
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                // Integers that fit in an int and those that need a long are different nodes
+                hasher.putInt(parser.getNumberType().ordinal());
+                hasher.putString(parser.getBigIntegerValue().toString(), StandardCharsets.UTF_8);
+            } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                hasher.putDouble(parser.getDoubleValue());
+            } else if (token == JsonToken.VALUE_STRING) {
+                hasher.putString(parser.getText(), StandardCharsets.UTF_8);
+            }
+            return hasher.hash();
+        }
+
+        /** Object fields are hashed in any order, as objects with the same fields in a different order are equal. */
+        private static HashCode hashObject(List<HashCode> fields) {
+            Hasher hasher = Hashing.sha256().newHasher().putByte((byte) '{');
+            if (!fields.isEmpty()) {
+                hasher.putBytes(Hashing.combineUnordered(fields).asBytes());
+            }
+            return hasher.hash();
+        }
+
+        private static HashCode hashString(String string) {
+            return Hashing.sha256().hashString(string, StandardCharsets.UTF_8);
+        }
+    }
+
     private MergeDiagnosticsJson() {}
 }
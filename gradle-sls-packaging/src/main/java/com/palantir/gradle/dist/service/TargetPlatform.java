@@ -0,0 +1,62 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service;
+
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/** A platform a distribution can be run on, as selected by {@code init.sh} from {@code uname -sm}. */
+public enum TargetPlatform {
+    LINUX_AMD64("linux-amd64", "linux-x86-64"),
+    LINUX_ARM64("linux-arm64", "linux-aarch64"),
+    DARWIN_AMD64("darwin-amd64", "darwin-x86-64");
+
+    private final String platformName;
+    private final String nativeLibDirectory;
+
+    TargetPlatform(String platformName, String nativeLibDirectory) {
+        this.platformName = platformName;
+        this.nativeLibDirectory = nativeLibDirectory;
+    }
+
+    /** The name go-java-launcher and go-init use for the directory holding their binaries for this platform. */
+    public String getPlatformName() {
+        return platformName;
+    }
+
+    /**
+     * The directory native libraries for this platform are read from under {@code build/libs} and shipped in under
+     * {@code service/lib}, named the way JNA names its resource prefixes.
+     */
+    public String getNativeLibDirectory() {
+        return nativeLibDirectory;
+    }
+
+    public static TargetPlatform fromName(String name) {
+        return Arrays.stream(values())
+                .filter(platform -> platform.platformName.equals(name.toLowerCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new SafeIllegalArgumentException(
+                        "Unknown target platform",
+                        SafeArg.of("platform", name),
+                        SafeArg.of("platforms", Arrays.stream(values())
+                                .map(TargetPlatform::getPlatformName)
+                                .toArray())));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.ergonomics;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.util.List;
+import java.util.regex.Pattern;
+import org.gradle.api.JavaVersion;
+import org.gradle.api.provider.Property;
+
+/**
+ * Sizes the JVM relative to the memory and CPU limits of the container it runs in, rather than to fixed values, so
+ * that the same dist behaves sensibly whatever size of pod it is scheduled on.
+ *
+ * <p>Nothing is rendered unless at least one value is set, in which case the JVM's own container support is left to
+ * work out the limits at startup.
+ */
+public abstract class ContainerErgonomics {
+    // The JVM only gives the heap 25% of the container limit by default, far less than a service needs
+    private static final int DEFAULT_HEAP_PERCENTAGE = 75;
+    private static final Pattern MEMORY_SIZE = Pattern.compile("[0-9]+[kKmMgG]?");
+
+    /** Maximum heap size, as a percentage of the container memory limit. */
+    public abstract Property<Integer> getHeapPercentage();
+
+    /**
+     * Share of the container memory limit set aside for direct buffers and other off-heap allocations. The JVM can
+     * only cap direct memory at an absolute size, so rather than rendering a flag this lowers the default
+     * {@link #getHeapPercentage()} by the same amount.
+     */
+    public abstract Property<Integer> getDirectMemoryPercentage();
+
+    /** Cap on the size of metaspace, such as {@code 256m}. */
+    public abstract Property<String> getMaxMetaspaceSize();
+
+    /** Overrides the number of CPUs the JVM sizes its thread pools for, which otherwise comes from the CPU quota. */
+    public abstract Property<Integer> getActiveProcessorCount();
+
+    public final void heapPercentage(int value) {
+        getHeapPercentage().set(value);
+    }
+
+    public final void directMemoryPercentage(int value) {
+        getDirectMemoryPercentage().set(value);
+    }
+
+    public final void maxMetaspaceSize(String value) {
+        getMaxMetaspaceSize().set(value);
+    }
+
+    public final void activeProcessorCount(int value) {
+        getActiveProcessorCount().set(value);
+    }
+
+    public final List<String> jvmOpts(JavaVersion javaVersion) {
+        ImmutableList.Builder<String> opts = ImmutableList.builder();
+        if (getHeapPercentage().isPresent() || getDirectMemoryPercentage().isPresent()) {
+            opts.addAll(heapOpts(javaVersion, heapPercentage()));
+        }
+        if (getMaxMetaspaceSize().isPresent()) {
+            String size = getMaxMetaspaceSize().get();
+            Preconditions.checkArgument(
+                    MEMORY_SIZE.matcher(size).matches(),
+                    "maxMetaspaceSize must be a number of bytes with an optional k, m or g suffix",
+                    SafeArg.of("maxMetaspaceSize", size));
+            opts.add("-XX:MaxMetaspaceSize=" + size);
+        }
+        if (getActiveProcessorCount().isPresent()) {
+            int count = getActiveProcessorCount().get();
+            Preconditions.checkArgument(
+                    count >= 1, "activeProcessorCount must be positive", SafeArg.of("activeProcessorCount", count));
+            // Supported since 8u191 and 10, and ignored by older releases as IgnoreUnrecognizedVMOptions is always on
+            opts.add("-XX:ActiveProcessorCount=" + count);
+        }
+        return opts.build();
+    }
+
+    private int heapPercentage() {
+        int direct = getDirectMemoryPercentage().getOrElse(0);
+        Preconditions.checkArgument(
+                direct >= 0 && direct < 100,
+                "directMemoryPercentage must be between 0 and 99",
+                SafeArg.of("directMemoryPercentage", direct));
+        int heap = getHeapPercentage().getOrElse(DEFAULT_HEAP_PERCENTAGE - direct);
+        Preconditions.checkArgument(
+                heap >= 1 && heap + direct <= 100,
+                "heapPercentage must be positive and leave room for directMemoryPercentage within the container limit",
+                SafeArg.of("heapPercentage", heap),
+                SafeArg.of("directMemoryPercentage", direct));
+        return heap;
+    }
+
+    private static List<String> heapOpts(JavaVersion javaVersion, int heapPercentage) {
+        // Only the maximum is set, so the heap still grows from the JVM's default initial size rather than committing
+        // the whole share of the container at startup
+        if (javaVersion.compareTo(JavaVersion.VERSION_1_10) >= 0) {
+            return ImmutableList.of("-XX:+UseContainerSupport", "-XX:MaxRAMPercentage=" + heapPercentage);
+        }
+        // Java 8 only reads the cgroup limit with this experimental flag, and only takes a whole fraction of it. The
+        // percentage flags are missing before 8u191, so the fraction is rounded up to keep the heap within its share.
+        return ImmutableList.of(
+                "-XX:+UnlockExperimentalVMOptions",
+                "-XX:+UseCGroupMemoryLimitForHeap",
+                "-XX:MaxRAMFraction=" + (int) Math.ceil(100.0 / heapPercentage));
+    }
+}
@@ -19,9 +19,15 @@ package com.palantir.gradle.dist.service.gc;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import org.gradle.api.JavaVersion;
 
 public interface GcProfile extends Serializable {
@@ -32,6 +38,7 @@ public interface GcProfile extends Serializable {
             "throughput", GcProfile.Throughput.class,
             "response-time", GcProfile.ResponseTime.class,
             "hybrid", GcProfile.Hybrid.class,
+            "workload", GcProfile.Workload.class,
             "dangerous-no-profile", GcProfile.NoProfile.class);
 
     List<String> gcJvmOpts(JavaVersion javaVersion);
@@ -120,6 +127,253 @@ public interface GcProfile extends Serializable {
         }
     }
 
+    /**
+     * Chooses the collector and its sizing from a description of the workload rather than a fixed set of flags. The
+     * {@link #report(JavaVersion)} explains each decision, and is written next to {@code launcher-static.yml}.
+     *
+     * <ul>
+     *   <li>Pause targets of a second or more favour throughput, so use the parallel collector.
+     *   <li>Pause targets below 10ms need a concurrent collector: generational ZGC from Java 21, otherwise ZGC for
+     *       very large live sets and Shenandoah for the rest.
+     *   <li>Anything in between uses G1 with the pause target.
+     * </ul>
+     *
+     * <p>The live set and allocation rate size the heap regions and ZGC's soft heap limit, and the core count sizes
+     * the GC thread pools, for containers where the JVM cannot see a CPU quota.
+     */
+    // Match the MaxGCPauseMillis case
+    @SuppressWarnings("AbbreviationAsWordInName")
+    class Workload implements GcProfile {
+        private static final int LOW_PAUSE_MILLIS = 10;
+        private static final int THROUGHPUT_PAUSE_MILLIS = 1000;
+        private static final int LARGE_LIVE_SET_MEGABYTES = 16 * 1024;
+        private static final int G1_TARGET_REGION_COUNT = 2048;
+
+        private int targetPauseMillis = 200;
+        private AllocationRate allocationRate = AllocationRate.MEDIUM;
+        private int liveSetMegabytes = 0;
+        private int cores = 0;
+
+        private enum Collector {
+            PARALLEL,
+            G1,
+            ZGC,
+            SHENANDOAH
+        }
+
+        public enum AllocationRate {
+            LOW(2),
+            MEDIUM(3),
+            HIGH(4);
+
+            // How many times the live set the heap should be able to hold, so that the collector keeps up with
+            // allocation without running back to back cycles
+            private final int heapHeadroom;
+
+            AllocationRate(int heapHeadroom) {
+                this.heapHeadroom = heapHeadroom;
+            }
+        }
+
+        @Override
+        public final List<String> gcJvmOpts(JavaVersion javaVersion) {
+            return report(javaVersion).jvmOpts();
+        }
+
+        public final GcReport report(JavaVersion javaVersion) {
+            Preconditions.checkArgument(
+                    targetPauseMillis >= 1,
+                    "targetPauseMillis must be positive",
+                    SafeArg.of("targetPauseMillis", targetPauseMillis));
+            List<String> opts = new ArrayList<>();
+            List<String> reasons = new ArrayList<>();
+            Collector collector = chooseCollector(javaVersion, reasons);
+            switch (collector) {
+                case PARALLEL:
+                    opts.add("-XX:+UseParallelGC");
+                    addThreadOpts(opts, reasons, false);
+                    break;
+                case G1:
+                    opts.add("-XX:+UseG1GC");
+                    opts.add("-XX:+UseNUMA");
+                    opts.add("-XX:MaxGCPauseMillis=" + targetPauseMillis);
+                    addG1RegionSize(javaVersion, opts, reasons);
+                    addThreadOpts(opts, reasons, true);
+                    break;
+                case ZGC:
+                    opts.add("-XX:+UseZGC");
+                    // Generational ZGC is the default from Java 23, and the only mode from Java 24
+                    if (javaVersion.compareTo(JavaVersion.toVersion("21")) >= 0
+                            && javaVersion.compareTo(JavaVersion.toVersion("23")) < 0) {
+                        opts.add("-XX:+ZGenerational");
+                    }
+                    opts.add("-XX:+ExplicitGCInvokesConcurrent");
+                    addSoftMaxHeapSize(opts, reasons);
+                    addThreadOpts(opts, reasons, true);
+                    break;
+                case SHENANDOAH:
+                    opts.add("-XX:+UnlockExperimentalVMOptions");
+                    opts.add("-XX:+UseShenandoahGC");
+                    opts.add("-XX:+ExplicitGCInvokesConcurrent");
+                    opts.add("-XX:+ClassUnloadingWithConcurrentMark");
+                    addShenandoahHeuristics(opts, reasons);
+                    addThreadOpts(opts, reasons, true);
+                    break;
+            }
+            return GcReport.builder()
+                    .collector(collector.name().toLowerCase(Locale.ROOT))
+                    .javaVersion(javaVersion.getMajorVersion())
+                    .jvmOpts(opts)
+                    .reasons(reasons)
+                    .build();
+        }
+
+        private Collector chooseCollector(JavaVersion javaVersion, List<String> reasons) {
+            if (targetPauseMillis >= THROUGHPUT_PAUSE_MILLIS) {
+                reasons.add(String.format(
+                        "A pause target of %sms tolerates stop-the-world collections, so the parallel collector gives"
+                                + " the most throughput",
+                        targetPauseMillis));
+                return Collector.PARALLEL;
+            }
+            if (targetPauseMillis >= LOW_PAUSE_MILLIS) {
+                reasons.add(String.format(
+                        "A pause target of %sms is within reach of G1, which balances pauses against throughput",
+                        targetPauseMillis));
+                return Collector.G1;
+            }
+            if (javaVersion.compareTo(JavaVersion.toVersion("21")) >= 0) {
+                reasons.add(String.format(
+                        "A pause target of %sms needs a concurrent collector, and generational ZGC is available from"
+                                + " Java 21",
+                        targetPauseMillis));
+                return Collector.ZGC;
+            }
+            if (javaVersion.compareTo(JavaVersion.toVersion("15")) >= 0
+                    && liveSetMegabytes >= LARGE_LIVE_SET_MEGABYTES) {
+                reasons.add(String.format(
+                        "A pause target of %sms needs a concurrent collector, and ZGC scales best to a live set of"
+                                + " %sMB",
+                        targetPauseMillis, liveSetMegabytes));
+                return Collector.ZGC;
+            }
+            if (javaVersion.compareTo(JavaVersion.toVersion("12")) >= 0) {
+                reasons.add(String.format(
+                        "A pause target of %sms needs a concurrent collector, and Shenandoah is available from"
+                                + " Java 12",
+                        targetPauseMillis));
+                return Collector.SHENANDOAH;
+            }
+            reasons.add(String.format(
+                    "A pause target of %sms needs a concurrent collector, but none is available before Java 12, so G1"
+                            + " is used with the pause target instead",
+                    targetPauseMillis));
+            return Collector.G1;
+        }
+
+        private void addG1RegionSize(JavaVersion javaVersion, List<String> opts, List<String> reasons) {
+            if (liveSetMegabytes == 0) {
+                reasons.add("No live set size was declared, so G1 sizes its regions from the heap at startup");
+                return;
+            }
+            // Regions of up to 512MB are allowed since Java 18, see https://bugs.openjdk.org/browse/JDK-8275056
+            int maxRegionMegabytes = javaVersion.compareTo(JavaVersion.toVersion("18")) >= 0 ? 512 : 32;
+            long heapMegabytes = expectedHeapMegabytes();
+            int regionMegabytes = 1;
+            while (regionMegabytes < maxRegionMegabytes && heapMegabytes / regionMegabytes > G1_TARGET_REGION_COUNT) {
+                regionMegabytes *= 2;
+            }
+            opts.add("-XX:G1HeapRegionSize=" + regionMegabytes + "m");
+            reasons.add(String.format(
+                    "A %sMB live set with a %s allocation rate needs a heap of about %sMB, which %sMB regions split"
+                            + " into close to %s regions",
+                    liveSetMegabytes, rateName(), heapMegabytes, regionMegabytes, G1_TARGET_REGION_COUNT));
+        }
+
+        private void addSoftMaxHeapSize(List<String> opts, List<String> reasons) {
+            if (liveSetMegabytes == 0) {
+                reasons.add("No live set size was declared, so ZGC may grow up to the maximum heap size");
+                return;
+            }
+            long heapMegabytes = expectedHeapMegabytes();
+            opts.add("-XX:SoftMaxHeapSize=" + heapMegabytes + "m");
+            reasons.add(String.format(
+                    "ZGC tries to keep the heap below %sMB, enough for a %sMB live set with a %s allocation rate, and"
+                            + " only grows past it to avoid allocation stalls",
+                    heapMegabytes, liveSetMegabytes, rateName()));
+        }
+
+        private void addShenandoahHeuristics(List<String> opts, List<String> reasons) {
+            if (allocationRate == AllocationRate.LOW) {
+                opts.add("-XX:ShenandoahGCHeuristics=compact");
+                reasons.add("A low allocation rate leaves time to collect continuously, so the compact heuristics"
+                        + " keep the footprint small");
+                return;
+            }
+            opts.add("-XX:ShenandoahGCHeuristics=adaptive");
+            reasons.add(String.format(
+                    "A %s allocation rate needs cycles to start based on the observed allocation rate, so the"
+                            + " adaptive heuristics are used",
+                    rateName()));
+        }
+
+        private void addThreadOpts(List<String> opts, List<String> reasons, boolean concurrent) {
+            if (cores == 0) {
+                reasons.add("No core count was declared, so GC threads are sized from the processors the JVM sees");
+                return;
+            }
+            // The same formula the JVM uses: one thread per core up to 8, then 5 for every 8 more
+            int parallelThreads = cores <= 8 ? cores : 8 + (cores - 8) * 5 / 8;
+            opts.add("-XX:ParallelGCThreads=" + parallelThreads);
+            if (!concurrent) {
+                reasons.add(String.format("%s cores run %s parallel GC threads", cores, parallelThreads));
+                return;
+            }
+            // Concurrent threads compete with the application, so take a larger share only when allocation is high
+            int concThreads = Math.max(1, allocationRate == AllocationRate.HIGH ? cores / 2 : cores / 4);
+            opts.add("-XX:ConcGCThreads=" + concThreads);
+            reasons.add(String.format(
+                    "%s cores run %s parallel and %s concurrent GC threads, for a %s allocation rate",
+                    cores, parallelThreads, concThreads, rateName()));
+        }
+
+        private long expectedHeapMegabytes() {
+            return (long) liveSetMegabytes * allocationRate.heapHeadroom;
+        }
+
+        private String rateName() {
+            return allocationRate.name().toLowerCase(Locale.ROOT);
+        }
+
+        /** The longest pause the workload can tolerate. Defaults to 200ms. */
+        public final void targetPauseMillis(int value) {
+            this.targetPauseMillis = value;
+        }
+
+        /** How quickly the workload allocates: {@code low}, {@code medium} (the default) or {@code high}. */
+        public final void allocationRate(String value) {
+            this.allocationRate = Arrays.stream(AllocationRate.values())
+                    .filter(rate -> rate.name().equalsIgnoreCase(value))
+                    .findFirst()
+                    .orElseThrow(() -> new SafeIllegalArgumentException(
+                            "Unknown allocation rate, expected one of low, medium or high",
+                            SafeArg.of("allocationRate", value)));
+        }
+
+        /** The size of the data that stays reachable, such as caches and in-memory indexes. */
+        public final void liveSetMegabytes(int value) {
+            Preconditions.checkArgument(
+                    value >= 0, "liveSetMegabytes must not be negative", SafeArg.of("liveSetMegabytes", value));
+            this.liveSetMegabytes = value;
+        }
+
+        /** The number of cores the service is given. */
+        public final void cores(int value) {
+            Preconditions.checkArgument(value >= 0, "cores must not be negative", SafeArg.of("cores", value));
+            this.cores = value;
+        }
+    }
+
     /**
      * This GC profile does not apply any JVM flags which allows services to override GC settings without needing to
      * unset preconfigured flags.
@@ -0,0 +1,43 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.gc;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.io.Serializable;
+import java.util.List;
+import org.immutables.value.Value;
+
+/** Explains which collector and flags a {@link GcProfile.Workload} chose, and why. */
+@Value.Immutable
+@JsonSerialize(as = ImmutableGcReport.class)
+@JsonDeserialize(as = ImmutableGcReport.class)
+public interface GcReport extends Serializable {
+    String collector();
+
+    String javaVersion();
+
+    List<String> jvmOpts();
+
+    List<String> reasons();
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    final class Builder extends ImmutableGcReport.Builder {}
+}
@@ -0,0 +1,64 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.jlink;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+
+/**
+ * Ships a runtime image built with {@code jlink} in place of the bundled JDK for the service's Java version, holding
+ * only the modules that {@code jdeps} finds the service jar and its runtime classpath use.
+ *
+ * <p>{@code jdeps} only sees static references, so modules which are only reached through reflection or service
+ * loading, such as {@code jdk.crypto.ec} for elliptic curve TLS or {@code jdk.jcmd} for {@code jcmd} and
+ * {@code jstack}, have to be added with {@link #getAddModules()}.
+ */
+public abstract class JlinkOptions {
+    public abstract Property<Boolean> getEnabled();
+
+    /** Compresses the modules in the image, which makes it smaller at the cost of some startup time. */
+    public abstract Property<Boolean> getCompress();
+
+    /** Strips debug information, such as line numbers in stack traces of JDK classes, from the image. */
+    public abstract Property<Boolean> getStripDebug();
+
+    /** Modules to include in addition to those found by {@code jdeps}. */
+    public abstract ListProperty<String> getAddModules();
+
+    public JlinkOptions() {
+        getEnabled().convention(false);
+        getCompress().convention(false);
+        getStripDebug().convention(false);
+    }
+
+    public final void enabled(boolean value) {
+        getEnabled().set(value);
+    }
+
+    public final void compress(boolean value) {
+        getCompress().set(value);
+    }
+
+    public final void stripDebug(boolean value) {
+        getStripDebug().set(value);
+    }
+
+    public final void addModules(String... modules) {
+        getAddModules().addAll(ImmutableList.copyOf(modules));
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.tasks;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.gradle.autoparallelizable.AutoParallelizable;
+import com.palantir.gradle.dist.service.tasks.LaunchConfig.LaunchConfigInfo;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.gradle.api.GradleException;
+import org.gradle.api.JavaVersion;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.LocalState;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+
+/**
+ * Runs the main class with the bundled JDK in AOT recording mode, then has the JDK turn what it recorded into an
+ * ahead-of-time cache (JEP 483). Unlike an AppCDS archive, the cache holds classes that are already loaded and linked,
+ * so the service skips more work at startup.
+ *
+ * <p>The cache is subject to the same classpath checks as an AppCDS archive, so the training happens in a directory
+ * laid out like the dist, see {@link CreateAppCdsArchive}.
+ */
+@AutoParallelizable
+public final class CreateAotCache {
+    public static final String CACHE_DIST_LOCATION = "service/aot";
+    public static final JavaVersion MINIMUM_JAVA_VERSION = JavaVersion.toVersion("24");
+
+    private static final long CREATE_TIMEOUT_SECONDS = 600;
+
+    interface Params {
+        @Input
+        Property<String> getMainClass();
+
+        @Input
+        ListProperty<String> getTrainingArgs();
+
+        @Input
+        Property<Integer> getTrainingSeconds();
+
+        @Input
+        Property<JavaVersion> getJavaVersion();
+
+        /** Whether the dist is built reproducibly, which fixes the modification times of the jars in it. */
+        @Input
+        Property<Boolean> getReproducible();
+
+        /**
+         * The modification times of the jars by name, which the JVM checks at runtime but {@link Classpath} ignores.
+         * Empty for reproducible dists, whose jars always have the same fixed time.
+         */
+        @Input
+        MapProperty<String, Long> getJarModificationTimes();
+
+        /** The classpath written to {@code launcher-static.yml}, which may just be the manifest classpath jar. */
+        @Classpath
+        ConfigurableFileCollection getClasspath();
+
+        /** Every jar in {@code service/lib}, including those only referenced by a manifest classpath jar. */
+        @Classpath
+        ConfigurableFileCollection getFullClasspath();
+
+        /** The static launch config of the service, whose JVM options and environment the training run uses. */
+        @InputFile
+        @PathSensitive(PathSensitivity.NONE)
+        RegularFileProperty getStaticLauncher();
+
+        /** The bundled JDK, which must be the exact same build as the JVM that later uses the cache. */
+        @InputFiles
+        @PathSensitive(PathSensitivity.RELATIVE)
+        ConfigurableFileCollection getJdk();
+
+        @LocalState
+        DirectoryProperty getTrainingDirectory();
+
+        @OutputFile
+        RegularFileProperty getCacheFile();
+    }
+
+    static void action(Params params) {
+        JavaVersion javaVersion = params.getJavaVersion().get();
+        if (!isSupported(javaVersion)) {
+            throw new GradleException(String.format(
+                    "AOT caches can only be created for Java %s or later, but the service uses Java %s",
+                    MINIMUM_JAVA_VERSION.getMajorVersion(), javaVersion.getMajorVersion()));
+        }
+
+        File java = JdkTools.find(params.getJdk(), "java", "an AOT cache");
+        File cache = params.getCacheFile().getAsFile().get();
+        Path trainingDir = params.getTrainingDirectory().getAsFile().get().toPath();
+        List<String> classpath = CreateAppCdsArchive.stageClasspath(
+                params.getClasspath(), params.getFullClasspath(), params.getReproducible().get(), trainingDir);
+        LaunchConfigInfo launchConfig = CreateAppCdsArchive.stageLaunchConfig(params.getStaticLauncher(), trainingDir);
+        List<String> jvmOpts = LaunchConfig.trainingJvmOpts(launchConfig);
+        Path configuration = trainingDir.resolve("aot-configuration.conf");
+
+        try {
+            Files.deleteIfExists(cache.toPath());
+            Files.createDirectories(cache.getParentFile().toPath());
+        } catch (IOException e) {
+            throw new GradleException("Failed to prepare " + cache, e);
+        }
+
+        CreateAppCdsArchive.runTraining(
+                ImmutableList.<String>builder()
+                        .add(java.getAbsolutePath())
+                        .addAll(recordOpts(configuration))
+                        .addAll(jvmOpts)
+                        .add("-cp", String.join(File.pathSeparator, classpath))
+                        .add(params.getMainClass().get())
+                        .addAll(params.getTrainingArgs().get())
+                        .build(),
+                launchConfig.env(),
+                trainingDir,
+                params.getTrainingSeconds().get(),
+                "AOT cache training run");
+        if (!Files.isRegularFile(configuration)) {
+            throw new GradleException(String.format(
+                    "The AOT cache training run did not record a configuration, see %s for its output",
+                    trainingDir.resolve("training.log")));
+        }
+
+        createCache(
+                ImmutableList.<String>builder()
+                        .add(java.getAbsolutePath())
+                        .addAll(createOpts(configuration, cache.toPath()))
+                        .addAll(jvmOpts)
+                        .add("-cp", String.join(File.pathSeparator, classpath))
+                        .build(),
+                launchConfig.env(),
+                trainingDir);
+        if (!cache.exists()) {
+            throw new GradleException(String.format(
+                    "The JDK did not create an AOT cache, see %s for its output", trainingDir.resolve("create.log")));
+        }
+    }
+
+    public static boolean isSupported(JavaVersion javaVersion) {
+        return javaVersion.compareTo(MINIMUM_JAVA_VERSION) >= 0;
+    }
+
+    /** Flags for the training run, which records the classes it loads and links once it exits. */
+    static List<String> recordOpts(Path configuration) {
+        return ImmutableList.of("-XX:AOTMode=record", "-XX:AOTConfiguration=" + configuration.toAbsolutePath());
+    }
+
+    /** Flags which turn a recorded configuration into a cache, without running the application. */
+    static List<String> createOpts(Path configuration, Path cache) {
+        return ImmutableList.of(
+                "-XX:AOTMode=create",
+                "-XX:AOTConfiguration=" + configuration.toAbsolutePath(),
+                "-XX:AOTCache=" + cache.toAbsolutePath());
+    }
+
+    private static void createCache(List<String> command, Map<String, String> env, Path trainingDir) {
+        try {
+            ProcessBuilder processBuilder = new ProcessBuilder(command);
+            processBuilder.environment().putAll(env);
+            Process process = processBuilder
+                    .directory(trainingDir.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(trainingDir.resolve("create.log").toFile())
+                    .start();
+            if (!process.waitFor(CREATE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new GradleException(String.format(
+                        "The JDK did not create the AOT cache within %s seconds, see %s",
+                        CREATE_TIMEOUT_SECONDS, trainingDir.resolve("create.log")));
+            }
+            if (process.exitValue() != 0) {
+                throw new GradleException(String.format(
+                        "The JDK failed to create the AOT cache with exit code %s, see %s",
+                        process.exitValue(), trainingDir.resolve("create.log")));
+            }
+        } catch (IOException e) {
+            throw new GradleException("Failed to create the AOT cache", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while creating the AOT cache", e);
+        }
+    }
+
+    private CreateAotCache() {}
+}
@@ -0,0 +1,259 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.tasks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Sets;
+import com.palantir.gradle.autoparallelizable.AutoParallelizable;
+import com.palantir.gradle.dist.service.tasks.LaunchConfig.LaunchConfigInfo;
+import com.palantir.gradle.dist.tasks.SlsTarTask;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.gradle.api.GradleException;
+import org.gradle.api.JavaVersion;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.LocalState;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+
+/**
+ * Runs the main class with the bundled JDK and {@code -XX:ArchiveClassesAtExit} to dump a dynamic AppCDS archive of
+ * the classes loaded during the run.
+ *
+ * <p>The JVM only uses the archive if the classpath at runtime matches the one it was dumped with, down to the
+ * modification times of the jars. The training run therefore happens in a directory laid out like the dist, with the
+ * jars in {@code service/lib} referenced by the same relative paths as in {@code launcher-static.yml}, and with the
+ * timestamps the jars will have once the dist is extracted.
+ */
+@AutoParallelizable
+public final class CreateAppCdsArchive {
+    public static final String ARCHIVE_DIST_LOCATION = "service/cds";
+
+    private static final JavaVersion MINIMUM_JAVA_VERSION = JavaVersion.VERSION_13;
+    private static final long SHUTDOWN_GRACE_PERIOD_SECONDS = 60;
+
+    interface Params {
+        @Input
+        Property<String> getMainClass();
+
+        @Input
+        ListProperty<String> getTrainingArgs();
+
+        @Input
+        Property<Integer> getTrainingSeconds();
+
+        @Input
+        Property<JavaVersion> getJavaVersion();
+
+        /** Whether the dist is built reproducibly, which fixes the modification times of the jars in it. */
+        @Input
+        Property<Boolean> getReproducible();
+
+        /**
+         * The modification times of the jars by name, which the JVM checks at runtime but {@link Classpath} ignores.
+         * Empty for reproducible dists, whose jars always have the same fixed time.
+         */
+        @Input
+        MapProperty<String, Long> getJarModificationTimes();
+
+        /** The classpath written to {@code launcher-static.yml}, which may just be the manifest classpath jar. */
+        @Classpath
+        ConfigurableFileCollection getClasspath();
+
+        /** Every jar in {@code service/lib}, including those only referenced by a manifest classpath jar. */
+        @Classpath
+        ConfigurableFileCollection getFullClasspath();
+
+        /** The static launch config of the service, whose JVM options and environment the training run uses. */
+        @InputFile
+        @PathSensitive(PathSensitivity.NONE)
+        RegularFileProperty getStaticLauncher();
+
+        /** The bundled JDK, which must be the exact same build as the JVM that later uses the archive. */
+        @InputFiles
+        @PathSensitive(PathSensitivity.RELATIVE)
+        ConfigurableFileCollection getJdk();
+
+        @LocalState
+        DirectoryProperty getTrainingDirectory();
+
+        @OutputFile
+        RegularFileProperty getArchiveFile();
+    }
+
+    static void action(Params params) {
+        JavaVersion javaVersion = params.getJavaVersion().get();
+        if (javaVersion.compareTo(MINIMUM_JAVA_VERSION) < 0) {
+            throw new GradleException(String.format(
+                    "AppCDS archives can only be created for Java %s or later, but the service uses Java %s",
+                    MINIMUM_JAVA_VERSION.getMajorVersion(), javaVersion.getMajorVersion()));
+        }
+
+        File java = JdkTools.find(params.getJdk(), "java", "an AppCDS archive");
+        File archive = params.getArchiveFile().getAsFile().get();
+        Path trainingDir = params.getTrainingDirectory().getAsFile().get().toPath();
+        List<String> classpath = stageClasspath(
+                params.getClasspath(), params.getFullClasspath(), params.getReproducible().get(), trainingDir);
+        LaunchConfigInfo launchConfig = stageLaunchConfig(params.getStaticLauncher(), trainingDir);
+
+        try {
+            Files.deleteIfExists(archive.toPath());
+            Files.createDirectories(archive.getParentFile().toPath());
+        } catch (IOException e) {
+            throw new GradleException("Failed to prepare " + archive, e);
+        }
+
+        List<String> command = ImmutableList.<String>builder()
+                .add(java.getAbsolutePath())
+                .add("-XX:ArchiveClassesAtExit=" + archive.getAbsolutePath())
+                .addAll(LaunchConfig.trainingJvmOpts(launchConfig))
+                .add("-cp", String.join(File.pathSeparator, classpath))
+                .add(params.getMainClass().get())
+                .addAll(params.getTrainingArgs().get())
+                .build();
+        runTraining(
+                command, launchConfig.env(), trainingDir, params.getTrainingSeconds().get(), "AppCDS training run");
+
+        if (!archive.exists()) {
+            throw new GradleException(String.format(
+                    "The AppCDS training run did not write an archive, see %s for its output",
+                    trainingDir.resolve("training.log")));
+        }
+    }
+
+    /**
+     * Copies the jars into {@code service/lib} of an otherwise empty training directory, returning the classpath
+     * relative to it.
+     */
+    static List<String> stageClasspath(
+            ConfigurableFileCollection classpath,
+            ConfigurableFileCollection fullClasspath,
+            boolean reproducible,
+            Path trainingDir) {
+        Path libDir = trainingDir.resolve("service/lib");
+        try {
+            if (Files.exists(trainingDir)) {
+                try (Stream<Path> paths = Files.walk(trainingDir)) {
+                    for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                        Files.delete(path);
+                    }
+                }
+            }
+            Files.createDirectories(libDir);
+            for (File jar : Sets.union(classpath.getFiles(), fullClasspath.getFiles())) {
+                Path staged = libDir.resolve(jar.getName());
+                Files.copy(jar.toPath(), staged, StandardCopyOption.COPY_ATTRIBUTES);
+                if (reproducible) {
+                    Files.setLastModifiedTime(staged, FileTime.fromMillis(SlsTarTask.CONSTANT_TIME_FOR_TAR_ENTRIES));
+                }
+            }
+        } catch (IOException e) {
+            throw new GradleException("Failed to stage the classpath for the training run", e);
+        }
+        return classpath.getFiles().stream()
+                .map(jar -> "service/lib/" + jar.getName())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The modification times of the given jars, or nothing when the dist is reproducible and they are fixed. A jar
+     * rewritten with the same contents keeps its fingerprint but not its timestamp, and would otherwise leave an
+     * archive behind that the JVM rejects.
+     */
+    static Provider<Map<String, Long>> jarModificationTimes(Provider<Boolean> reproducible, FileCollection jars) {
+        return jars.getElements().zip(reproducible, (elements, fixed) -> fixed
+                ? ImmutableSortedMap.of()
+                : elements.stream()
+                        .map(FileSystemLocation::getAsFile)
+                        .collect(ImmutableSortedMap.toImmutableSortedMap(
+                                Comparator.naturalOrder(), File::getName, File::lastModified, Math::max)));
+    }
+
+    /**
+     * Reads the static launch config and creates the directories the launcher would create for it in the training
+     * directory, such as the one {@code java.io.tmpdir} points at.
+     */
+    static LaunchConfigInfo stageLaunchConfig(RegularFileProperty staticLauncher, Path trainingDir) {
+        LaunchConfigInfo launchConfig = LaunchConfig.readConfig(staticLauncher.get().getAsFile());
+        try {
+            for (String dir : launchConfig.dirs()) {
+                Files.createDirectories(trainingDir.resolve(dir));
+            }
+        } catch (IOException e) {
+            throw new GradleException("Failed to create the directories of the launch config for the training run", e);
+        }
+        return launchConfig;
+    }
+
+    static void runTraining(
+            List<String> command,
+            Map<String, String> env,
+            Path trainingDir,
+            int trainingSeconds,
+            String description) {
+        try {
+            ProcessBuilder processBuilder = new ProcessBuilder(command);
+            processBuilder.environment().putAll(env);
+            Process process = processBuilder
+                    .directory(trainingDir.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(trainingDir.resolve("training.log").toFile())
+                    .start();
+            if (!process.waitFor(trainingSeconds, TimeUnit.SECONDS)) {
+                // SIGTERM runs the JVM shutdown sequence, which is when the archive is written
+                process.destroy();
+                if (!process.waitFor(SHUTDOWN_GRACE_PERIOD_SECONDS, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                    throw new GradleException(String.format(
+                            "The %s did not shut down within %s seconds of being stopped, see %s",
+                            description, SHUTDOWN_GRACE_PERIOD_SECONDS, trainingDir.resolve("training.log")));
+                }
+            }
+        } catch (IOException e) {
+            throw new GradleException("Failed to start the " + description, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted during the " + description, e);
+        }
+    }
+
+    private CreateAppCdsArchive() {}
+}
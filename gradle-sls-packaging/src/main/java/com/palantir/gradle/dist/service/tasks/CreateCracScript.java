@@ -0,0 +1,102 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.tasks;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.gradle.autoparallelizable.AutoParallelizable;
+import com.palantir.gradle.dist.service.JavaServiceDistributionPlugin;
+import com.palantir.gradle.dist.service.util.EmitFiles;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+
+/**
+ * Generates {@code service/bin/crac.sh}, which checkpoints the service once it is healthy and warmed up, and restores
+ * it from that checkpoint, using Coordinated Restore at Checkpoint. This needs a bundled JDK built with CRaC support,
+ * which ships CRIU in {@code lib/criu}.
+ */
+@AutoParallelizable
+public final class CreateCracScript {
+    /** Where checkpoints are kept, relative to the root of the dist. */
+    public static final String CHECKPOINT_DIR = "var/data/crac";
+
+    interface Params {
+        @Input
+        Property<Boolean> getEnableCrac();
+
+        @Input
+        Property<String> getServiceName();
+
+        /** The location of the bundled JDK in the dist. */
+        @Input
+        Property<String> getJavaHome();
+
+        /** The JDK shipped in the dist, which is checked for CRIU. */
+        @InputFiles
+        @PathSensitive(PathSensitivity.RELATIVE)
+        ConfigurableFileCollection getJdk();
+
+        @OutputFile
+        RegularFileProperty getOutputFile();
+    }
+
+    static void action(Params params) {
+        Path outputFile = params.getOutputFile().get().getAsFile().toPath();
+        if (!params.getEnableCrac().get()) {
+            try {
+                Files.deleteIfExists(outputFile);
+            } catch (IOException e) {
+                throw new GradleException("Failed to delete stale " + outputFile, e);
+            }
+            return;
+        }
+
+        AtomicBoolean hasCriu = new AtomicBoolean();
+        params.getJdk().getAsFileTree().visit(details -> {
+            if (details.getRelativePath().getPathString().equals("lib/criu")) {
+                hasCriu.set(true);
+            }
+        });
+        if (!hasCriu.get()) {
+            throw new GradleException("CRaC needs a bundled JDK with CRaC support, which ships CRIU in lib/criu. "
+                    + "Configure one using distribution.jdks, and leave distribution.jlink disabled as the runtime "
+                    + "images it builds never include CRIU");
+        }
+
+        EmitFiles.replaceVars(
+                        JavaServiceDistributionPlugin.class.getResourceAsStream("/sls-packaging/crac.sh"),
+                        outputFile,
+                        ImmutableMap.of(
+                                "@serviceName@", params.getServiceName().get(),
+                                "@javaHome@", params.getJavaHome().get(),
+                                "@checkpointDir@", CHECKPOINT_DIR))
+                .toFile()
+                .setExecutable(true);
+    }
+
+    private CreateCracScript() {}
+}
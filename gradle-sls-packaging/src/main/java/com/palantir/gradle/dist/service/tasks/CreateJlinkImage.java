@@ -0,0 +1,122 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.tasks;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.gradle.autoparallelizable.AutoParallelizable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.gradle.api.GradleException;
+import org.gradle.api.JavaVersion;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+
+/**
+ * Builds a runtime image with {@code jlink} from the bundled JDK, holding only the modules listed by
+ * {@link ResolveJdkModules}. The image only depends on that list, the JDK and the options, so it comes from the build
+ * cache whenever the set of modules is unchanged, however much the classpath changes.
+ */
+@AutoParallelizable
+public final class CreateJlinkImage {
+    interface Params {
+        @InputFile
+        @PathSensitive(PathSensitivity.NONE)
+        RegularFileProperty getModulesFile();
+
+        @InputFiles
+        @PathSensitive(PathSensitivity.RELATIVE)
+        ConfigurableFileCollection getJdk();
+
+        @Input
+        Property<JavaVersion> getJavaVersion();
+
+        @Input
+        Property<Boolean> getCompress();
+
+        @Input
+        Property<Boolean> getStripDebug();
+
+        @OutputDirectory
+        DirectoryProperty getImageDirectory();
+    }
+
+    static void action(Params params) {
+        JavaVersion javaVersion = params.getJavaVersion().get();
+        File jlink = JdkTools.find(params.getJdk(), "jlink", "a runtime image");
+        Path jmods = jlink.toPath().getParent().getParent().resolve("jmods");
+        List<String> modules = ResolveJdkModules.readModules(params.getModulesFile().getAsFile().get());
+        Path image = params.getImageDirectory().getAsFile().get().toPath();
+        deleteRecursively(image);
+
+        ImmutableList.Builder<String> command = ImmutableList.<String>builder().add(jlink.getAbsolutePath());
+        // Since Java 24, JDKs may be built to link from the runtime itself rather than from jmods (JEP 493)
+        if (Files.isDirectory(jmods)) {
+            command.add("--module-path", jmods.toString());
+        }
+        command.add("--add-modules", String.join(",", modules))
+                .add("--output", image.toString())
+                .add("--no-header-files", "--no-man-pages");
+        if (params.getStripDebug().get()) {
+            command.add("--strip-debug");
+        }
+        if (params.getCompress().get()) {
+            // Numbered levels were deprecated in Java 21 in favour of naming the algorithm
+            command.add(
+                    javaVersion.compareTo(JavaVersion.toVersion("21")) >= 0 ? "--compress=zip-6" : "--compress=2");
+        }
+        // The JDK ships with a CDS archive of the JDK classes, which a runtime image only gets when asked to, from Java
+        // 21 on. AppCDS archives and AOT caches are layered on top of it, and cannot be dumped without it.
+        boolean generateCdsArchive = javaVersion.compareTo(JavaVersion.toVersion("21")) >= 0;
+        if (generateCdsArchive) {
+            command.add("--generate-cds-archive");
+        }
+        JdkTools.run(command.build());
+        if (!generateCdsArchive) {
+            // Dumps the default CDS archive into lib/server/classes.jsa, as --generate-cds-archive does
+            JdkTools.run(ImmutableList.of(image.resolve("bin").resolve("java").toString(), "-Xshare:dump"));
+        }
+    }
+
+    static void deleteRecursively(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new GradleException("Failed to delete " + directory, e);
+        }
+    }
+
+    private CreateJlinkImage() {}
+}
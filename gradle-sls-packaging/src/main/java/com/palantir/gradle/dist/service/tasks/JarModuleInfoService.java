@@ -0,0 +1,103 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.tasks;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.gradle.dist.service.tasks.ModuleArgs.JarFingerprint;
+import com.palantir.gradle.dist.service.tasks.ModuleArgs.JarManifestModuleInfo;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * Build-scoped reader of the {@code Add-Exports} and {@code Add-Opens} manifest entries of classpath jars, for
+ * {@link ModuleArgs}. Every dist project in the build shares the same jars, so each one is only opened once per build.
+ *
+ * <p>Jars are read on a small pool of threads owned by this service rather than on the common fork join pool, which
+ * Gradle's own workers share, and both the pool and the cache are dropped once the build finishes.
+ */
+public abstract class JarModuleInfoService implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+    private static final String NAME = "slsJarModuleInfo";
+    private static final int MAX_THREADS = 4;
+
+    private final Cache<JarFingerprint, Optional<JarManifestModuleInfo>> cache =
+            CacheBuilder.newBuilder().maximumSize(20_000).build();
+    private final ExecutorService executor = Executors.newFixedThreadPool(
+            Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()),
+            new ThreadFactoryBuilder()
+                    .setNameFormat("sls-jar-module-info-%d")
+                    .setDaemon(true)
+                    .build());
+
+    public static Provider<JarModuleInfoService> register(Project project) {
+        return project.getGradle().getSharedServices().registerIfAbsent(NAME, JarModuleInfoService.class, _spec -> {});
+    }
+
+    /** Returns the module info of each jar that has any, in no particular order. */
+    final List<JarManifestModuleInfo> read(Set<File> jars) {
+        List<Future<Optional<JarManifestModuleInfo>>> pending = new ArrayList<>(jars.size());
+        for (File jar : jars) {
+            pending.add(executor.submit(() -> cached(jar)));
+        }
+        List<JarManifestModuleInfo> moduleInfo = new ArrayList<>();
+        try {
+            for (Future<Optional<JarManifestModuleInfo>> future : pending) {
+                future.get().ifPresent(moduleInfo::add);
+            }
+        } catch (ExecutionException e) {
+            throw new GradleException("Failed to read the manifests of the classpath jars", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while reading the manifests of the classpath jars", e);
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+        return moduleInfo;
+    }
+
+    private Optional<JarManifestModuleInfo> cached(File jar) {
+        if (!ModuleArgs.isJar(jar)) {
+            return Optional.empty();
+        }
+        JarFingerprint fingerprint = JarFingerprint.of(jar);
+        Optional<JarManifestModuleInfo> cached = cache.getIfPresent(fingerprint);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<JarManifestModuleInfo> moduleInfo = ModuleArgs.moduleInfo(jar);
+        cache.put(fingerprint, moduleInfo);
+        return moduleInfo;
+    }
+
+    @Override
+    public final void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+
+/** Finds and runs the tools in a bundled JDK. */
+final class JdkTools {
+    /** Finds {@code bin/<tool>} in the bundled JDK, failing with a message saying what it is needed for. */
+    static File find(ConfigurableFileCollection jdk, String tool, String purpose) {
+        AtomicReference<File> found = new AtomicReference<>();
+        jdk.getAsFileTree().visit(details -> {
+            String path = details.getRelativePath().getPathString();
+            if (path.equals("bin/" + tool) || path.equals("bin/" + tool + ".exe")) {
+                found.set(details.getFile());
+            }
+        });
+        if (found.get() == null) {
+            throw new GradleException(String.format(
+                    "Could not find bin/%s in the bundled JDK, which is required to create %s. Configure one using "
+                            + "distribution.jdks",
+                    tool, purpose));
+        }
+        return found.get();
+    }
+
+    /** Runs the command to completion, returning its output, and failing with that output if it fails. */
+    static String run(List<String> command) {
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new GradleException(String.format(
+                        "%s failed with exit code %s:\n%s", String.join(" ", command), exitCode, output));
+            }
+            return output;
+        } catch (IOException e) {
+            throw new GradleException("Failed to run " + String.join(" ", command), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while running " + String.join(" ", command), e);
+        }
+    }
+
+    private JdkTools() {}
+}
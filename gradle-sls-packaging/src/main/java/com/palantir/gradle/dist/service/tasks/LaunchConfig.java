@@ -23,6 +23,8 @@ import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.palantir.gradle.autoparallelizable.AutoParallelizable;
+import com.palantir.gradle.dist.service.gc.GcProfile;
+import com.palantir.gradle.dist.service.gc.GcReport;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -41,6 +43,7 @@ import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputFile;
 import org.immutables.value.Value;
@@ -104,6 +107,13 @@ public final class LaunchConfig {
         @Input
         ListProperty<String> getGcJvmOptions();
 
+        @Input
+        ListProperty<String> getErgonomicsJvmOptions();
+
+        @Input
+        @Optional
+        Property<GcReport> getGcReport();
+
         @Input
         Property<Boolean> getAddJava8GcLogging();
 
@@ -141,21 +151,53 @@ public final class LaunchConfig {
         @InputFiles
         ConfigurableFileCollection getFullClasspath();
 
+        /** Reads the {@code Add-Exports} and {@code Add-Opens} entries of the jars in the full classpath. */
+        @Internal
+        Property<JarModuleInfoService> getJarModuleInfo();
+
         @InputFiles
         ConfigurableFileCollection getJavaAgents();
 
+        /** The path of the AppCDS archive in the dist, if one is created. */
+        @Input
+        @Optional
+        Property<String> getSharedArchiveFile();
+
+        /**
+         * The path of the AOT cache in the dist, if one is created. Only used for Java versions which support AOT
+         * caches, where it takes the place of {@link #getSharedArchiveFile()}.
+         */
+        @Input
+        @Optional
+        Property<String> getAotCacheFile();
+
         @OutputFile
         RegularFileProperty getStaticLauncher();
 
         @OutputFile
         RegularFileProperty getCheckLauncher();
+
+        @Input
+        Property<Boolean> getEnableCrac();
+
+        /**
+         * The static launcher config with the flag which lets the service be checkpointed, only written when CRaC is
+         * enabled. Checkpoints are created and restored with {@code service/bin/crac.sh}, see {@link CreateCracScript}.
+         */
+        @OutputFile
+        RegularFileProperty getCracLauncher();
+
+        /** Only written when the gc profile explains its choices, see {@link GcProfile.Workload}. */
+        @OutputFile
+        RegularFileProperty getGcReportFile();
     }
 
     static void action(Params params) {
         JavaVersion javaVersion = params.getJavaVersion().get();
         List<String> avxOptions = getAvxOptions(params);
+        List<String> cacheOptions = getCacheOptions(params, javaVersion);
 
-        writeConfig(
+        LaunchConfigInfo staticConfig = writeConfig(
                 LaunchConfigInfo.builder()
                         .mainClass(params.getMainClass().get())
                         .serviceName(params.getServiceName().get())
@@ -189,7 +231,10 @@ public final class LaunchConfig {
                                 javaVersion.compareTo(JavaVersion.toVersion("15")) < 0
                                         ? disableBiasedLocking
                                         : ImmutableList.of())
-                        .addAllJvmOpts(ModuleArgs.collectClasspathArgs(javaVersion, params.getFullClasspath()))
+                        .addAllJvmOpts(ModuleArgs.collectClasspathArgs(
+                                javaVersion, params.getFullClasspath(), params.getJarModuleInfo().get()))
+                        .addAllJvmOpts(cacheOptions)
+                        .addAllJvmOpts(params.getErgonomicsJvmOptions().get())
                         .addAllJvmOpts(params.getGcJvmOptions().get())
                         .addAllJvmOpts(params.getDefaultJvmOpts().get())
                         .putAllEnv(defaultEnvironment)
@@ -197,6 +242,22 @@ public final class LaunchConfig {
                         .build(),
                 params.getStaticLauncher().get().getAsFile());
 
+        File cracLauncherFile = params.getCracLauncher().get().getAsFile();
+        if (params.getEnableCrac().get()) {
+            writeConfig(
+                    LaunchConfigInfo.builder()
+                            .from(staticConfig)
+                            .addJvmOpts("-XX:CRaCCheckpointTo=" + CreateCracScript.CHECKPOINT_DIR)
+                            .build(),
+                    cracLauncherFile);
+        } else {
+            try {
+                Files.deleteIfExists(cracLauncherFile.toPath());
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to delete stale CRaC launcher config", e);
+            }
+        }
+
         writeConfig(
                 LaunchConfigInfo.builder()
                         .mainClass(params.getMainClass().get())
@@ -211,6 +272,17 @@ public final class LaunchConfig {
                         .env(defaultEnvironment)
                         .build(),
                 params.getCheckLauncher().get().getAsFile());
+
+        File gcReportFile = params.getGcReportFile().get().getAsFile();
+        if (params.getGcReport().isPresent()) {
+            writeConfig(params.getGcReport().get(), gcReportFile);
+        } else {
+            try {
+                Files.deleteIfExists(gcReportFile.toPath());
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to delete stale gc report", e);
+            }
+        }
     }
 
     // When a specific jdk is provided, we can assume a modern versions including the
@@ -233,10 +305,43 @@ public final class LaunchConfig {
         return disableAvx512;
     }
 
-    private static void writeConfig(LaunchConfigInfo config, File scriptFile) {
+    // The JVM refuses to start when given both an AOT cache and an AppCDS archive, and the AOT cache holds everything
+    // the archive would, so it wins when both are created.
+    private static List<String> getCacheOptions(Params params, JavaVersion javaVersion) {
+        if (params.getAotCacheFile().isPresent() && CreateAotCache.isSupported(javaVersion)) {
+            return ImmutableList.of("-XX:AOTCache=" + params.getAotCacheFile().get());
+        }
+        return params.getSharedArchiveFile()
+                .map(archive -> ImmutableList.of("-XX:SharedArchiveFile=" + archive))
+                .getOrElse(ImmutableList.of());
+    }
+
+    static LaunchConfigInfo readConfig(File scriptFile) {
+        try {
+            return OBJECT_MAPPER.readValue(scriptFile, LaunchConfigInfo.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read config", e);
+        }
+    }
+
+    /**
+     * The JVM options of a static launch config for a run that records an AppCDS archive or AOT cache, so that it runs
+     * with the same flags as the service does. Leaves out the archive or cache the service starts with, which is what
+     * is being created, and java agents, which are not staged for training.
+     */
+    static List<String> trainingJvmOpts(LaunchConfigInfo staticConfig) {
+        return staticConfig.jvmOpts().stream()
+                .filter(opt -> !opt.startsWith("-XX:SharedArchiveFile=")
+                        && !opt.startsWith("-XX:AOTCache=")
+                        && !opt.startsWith("-javaagent:"))
+                .collect(Collectors.toList());
+    }
+
+    private static <T> T writeConfig(T config, File scriptFile) {
         try {
             Files.createDirectories(scriptFile.getParentFile().toPath());
             OBJECT_MAPPER.writeValue(scriptFile, config);
+            return config;
         } catch (IOException e) {
             throw new RuntimeException("Failed to write config", e);
         }
@@ -20,5 +20,9 @@ public abstract class LaunchConfigTask extends LaunchConfigTaskImpl {
     public LaunchConfigTask() {
         getStaticLauncher().set(getProject().getLayout().getBuildDirectory().file("scripts/launcher-static.yml"));
         getCheckLauncher().set(getProject().getLayout().getBuildDirectory().file("scripts/launcher-check.yml"));
+        getCracLauncher().set(getProject().getLayout().getBuildDirectory().file("scripts/launcher-crac.yml"));
+        getGcReportFile().set(getProject().getLayout().getBuildDirectory().file("scripts/gc-report.yml"));
+        getJarModuleInfo().set(JarModuleInfoService.register(getProject()));
+        usesService(getJarModuleInfo());
     }
 }
@@ -19,12 +19,15 @@ package com.palantir.gradle.dist.service.tasks;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.jar.JarFile;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import javax.annotation.Nullable;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.file.FileCollection;
@@ -55,33 +58,15 @@ final class ModuleArgs {
     // that we aren't aware of.
     private static final ImmutableList<String> DEFAULT_EXPORTS = ImmutableList.of("java.management/sun.management");
 
-    static ImmutableList<String> collectClasspathArgs(JavaVersion javaVersion, FileCollection classpath) {
+    static ImmutableList<String> collectClasspathArgs(
+            JavaVersion javaVersion, FileCollection classpath, JarModuleInfoService jarModuleInfo) {
         // --add-exports is unnecessary prior to java 16
         if (javaVersion.compareTo(JavaVersion.toVersion("16")) < 0) {
             return ImmutableList.of();
         }
 
-        ImmutableList<JarManifestModuleInfo> classpathInfo = classpath.getFiles().stream()
-                .map(file -> {
-                    try {
-                        if (file.getName().endsWith(".jar") && file.isFile()) {
-                            try (JarFile jar = new JarFile(file)) {
-                                java.util.jar.Manifest maybeJarManifest = jar.getManifest();
-                                Optional<JarManifestModuleInfo> parsedModuleInfo = parseModuleInfo(maybeJarManifest);
-                                log.debug("Jar '{}' produced manifest info: {}", file, parsedModuleInfo);
-                                return parsedModuleInfo.orElse(null);
-                            }
-                        } else {
-                            log.info("File {} wasn't a JAR or file", file);
-                        }
-                        return null;
-                    } catch (IOException e) {
-                        log.warn("Failed to check jar {} for manifest attributes", file, e);
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .collect(ImmutableList.toImmutableList());
+        // Order does not matter here as the collected args are sorted below
+        List<JarManifestModuleInfo> classpathInfo = jarModuleInfo.read(classpath.getFiles());
         Stream<String> exports = Stream.concat(
                         DEFAULT_EXPORTS.stream(), classpathInfo.stream().flatMap(info -> info.exports().stream()))
                 .distinct()
@@ -95,6 +80,41 @@ final class ModuleArgs {
         return Stream.concat(exports, opens).collect(ImmutableList.toImmutableList());
     }
 
+    static boolean isJar(File file) {
+        if (!file.getName().endsWith(".jar") || !file.isFile()) {
+            log.info("File {} wasn't a JAR or file", file);
+            return false;
+        }
+        return true;
+    }
+
+    static Optional<JarManifestModuleInfo> moduleInfo(File jar) {
+        try {
+            Optional<JarManifestModuleInfo> parsedModuleInfo = readModuleInfo(jar);
+            log.debug("Jar '{}' produced manifest info: {}", jar, parsedModuleInfo);
+            return parsedModuleInfo;
+        } catch (IOException e) {
+            log.warn("Failed to check jar {} for manifest attributes", jar, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reads just the manifest entry, found through the central directory, rather than using {@link JarFile} which
+     * also sets up signature verification for signed jars.
+     */
+    private static Optional<JarManifestModuleInfo> readModuleInfo(File file) throws IOException {
+        try (ZipFile zip = new ZipFile(file)) {
+            ZipEntry entry = zip.getEntry(JarFile.MANIFEST_NAME);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            try (InputStream manifest = zip.getInputStream(entry)) {
+                return parseModuleInfo(new java.util.jar.Manifest(manifest));
+            }
+        }
+    }
+
     private static Optional<JarManifestModuleInfo> parseModuleInfo(@Nullable java.util.jar.Manifest jarManifest) {
         return Optional.ofNullable(jarManifest)
                 .<JarManifestModuleInfo>map(manifest -> JarManifestModuleInfo.builder()
@@ -121,6 +141,24 @@ final class ModuleArgs {
 
     private ModuleArgs() {}
 
+    /** Identifies a jar by the same path, size and modification time that Gradle uses to detect file changes. */
+    @Value.Immutable
+    interface JarFingerprint {
+        String path();
+
+        long length();
+
+        long lastModified();
+
+        static JarFingerprint of(File file) {
+            return ImmutableJarFingerprint.builder()
+                    .path(file.getAbsolutePath())
+                    .length(file.length())
+                    .lastModified(file.lastModified())
+                    .build();
+        }
+    }
+
     @Value.Immutable
     interface JarManifestModuleInfo {
         ImmutableList<String> exports();
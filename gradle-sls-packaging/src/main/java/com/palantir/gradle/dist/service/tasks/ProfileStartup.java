@@ -0,0 +1,451 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.tasks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.datatype.guava.GuavaModule;
+import com.github.luben.zstd.ZstdInputStream;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.gradle.autoparallelizable.AutoParallelizable;
+import com.palantir.gradle.dist.ObjectMappers;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.gradle.api.GradleException;
+import org.gradle.api.JavaVersion;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.LocalState;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.immutables.value.Value;
+
+/**
+ * Unpacks the built dist and starts it the same way {@code init.sh} does, with go-java-launcher and the generated
+ * {@code launcher-static.yml}, then polls {@code check.sh} until the service is healthy and reports how long that took.
+ *
+ * <p>The JVM is started with an extra custom launcher config that logs every class it loads with a timestamp, which
+ * is where the time to main and the number of classes loaded come from. Nothing is deployed anywhere: the service runs
+ * in the build directory, with the environment of the build plus {@code environment}, which is where to point it at
+ * local stubs of the services it talks to.
+ */
+@AutoParallelizable
+public final class ProfileStartup {
+    private static final ObjectMapper YAML_MAPPER =
+            new ObjectMapper(new YAMLFactory()).registerModule(new GuavaModule());
+    private static final JavaVersion MINIMUM_JAVA_VERSION = JavaVersion.VERSION_1_9;
+    private static final long STOP_GRACE_PERIOD_SECONDS = 30;
+    private static final String STATIC_LAUNCHER_CONFIG = "service/bin/launcher-static.yml";
+    private static final String CUSTOM_LAUNCHER_CONFIG = "var/conf/launcher-custom.yml";
+    private static final String PROFILE_LAUNCHER_CONFIG = "var/conf/launcher-profile-startup.yml";
+    private static final String CHECK_SCRIPT = "service/monitoring/bin/check.sh";
+
+    interface Params {
+        @InputFile
+        @PathSensitive(PathSensitivity.NONE)
+        RegularFileProperty getDistribution();
+
+        @Input
+        Property<JavaVersion> getJavaVersion();
+
+        /** Added to the environment of the build when running the service and its health check. */
+        @Input
+        MapProperty<String, String> getEnvironment();
+
+        @Input
+        Property<Integer> getTimeoutSeconds();
+
+        @Input
+        Property<Integer> getCheckIntervalMillis();
+
+        @LocalState
+        DirectoryProperty getWorkDirectory();
+
+        @OutputFile
+        RegularFileProperty getReportFile();
+    }
+
+    static void action(Params params) {
+        JavaVersion javaVersion = params.getJavaVersion().get();
+        if (javaVersion.compareTo(MINIMUM_JAVA_VERSION) < 0) {
+            throw new GradleException(String.format(
+                    "Startup can only be profiled for Java %s or later, as it relies on unified JVM logging, but the "
+                            + "service uses Java %s",
+                    MINIMUM_JAVA_VERSION.getMajorVersion(), javaVersion.getMajorVersion()));
+        }
+
+        Path workDir = params.getWorkDirectory().getAsFile().get().toPath();
+        Path distDir = unpack(params.getDistribution().getAsFile().get().toPath(), workDir);
+        LaunchConfig.LaunchConfigInfo staticConfig = readStaticConfig(distDir);
+        if (!Files.isRegularFile(distDir.resolve(CHECK_SCRIPT))) {
+            throw new GradleException("Startup can only be profiled for services with a health check, as that is how "
+                    + "profileStartup knows the service is healthy. Configure one using distribution.checkArgs");
+        }
+
+        Path classLoadLog = workDir.resolve("class-load.log");
+        writeProfileLauncherConfig(distDir, classLoadLog);
+        Map<String, String> environment = environment(params);
+
+        long launchedAt = System.currentTimeMillis();
+        Process process = start(
+                ImmutableList.of(launcher(distDir).toString(), STATIC_LAUNCHER_CONFIG, PROFILE_LAUNCHER_CONFIG),
+                distDir,
+                environment,
+                workDir.resolve("startup.log"));
+        long healthyAt;
+        long rssBytes;
+        try {
+            healthyAt = awaitHealthy(params, process, distDir, environment, workDir);
+            rssBytes = rssBytes(process.pid());
+        } finally {
+            stop(process);
+        }
+
+        StartupReport.Builder report = StartupReport.builder();
+        addClassLoads(report, classLoadLog, staticConfig.mainClass(), launchedAt, healthyAt);
+        report.serviceName(staticConfig.serviceName())
+                .mainClass(staticConfig.mainClass())
+                .javaVersion(javaVersion.getMajorVersion())
+                .jvmOpts(staticConfig.jvmOpts())
+                .timeToHealthyMillis(healthyAt - launchedAt)
+                .rssBytes(rssBytes);
+
+        File reportFile = params.getReportFile().getAsFile().get();
+        try {
+            Files.createDirectories(reportFile.getParentFile().toPath());
+            ObjectMappers.jsonMapper.writeValue(reportFile, report.build());
+        } catch (IOException e) {
+            throw new GradleException("Failed to write " + reportFile, e);
+        }
+    }
+
+    /** Unpacks the dist into an empty directory, returning the root directory of the dist. */
+    private static Path unpack(Path distribution, Path workDir) {
+        Path unpacked = workDir.resolve("dist");
+        try {
+            if (Files.exists(workDir)) {
+                try (Stream<Path> paths = Files.walk(workDir)) {
+                    for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                        Files.delete(path);
+                    }
+                }
+            }
+            Files.createDirectories(unpacked);
+            try (TarArchiveInputStream tar = new TarArchiveInputStream(decompress(distribution))) {
+                for (TarArchiveEntry entry = tar.getNextEntry(); entry != null; entry = tar.getNextEntry()) {
+                    Path target = unpacked.resolve(entry.getName()).normalize();
+                    if (!target.startsWith(unpacked)) {
+                        throw new IOException("Entry is outside of the dist: " + entry.getName());
+                    }
+                    if (entry.isDirectory()) {
+                        Files.createDirectories(target);
+                    } else {
+                        Files.createDirectories(target.getParent());
+                        Files.copy(tar, target, StandardCopyOption.REPLACE_EXISTING);
+                        if ((entry.getMode() & 0100) != 0) {
+                            Set<PosixFilePermission> permissions =
+                                    EnumSet.copyOf(Files.getPosixFilePermissions(target));
+                            permissions.add(PosixFilePermission.OWNER_EXECUTE);
+                            Files.setPosixFilePermissions(target, permissions);
+                        }
+                    }
+                }
+            }
+            try (Stream<Path> roots = Files.list(unpacked)) {
+                List<Path> distDirs = roots.filter(Files::isDirectory).collect(Collectors.toList());
+                if (distDirs.size() != 1) {
+                    throw new IOException("Expected a single root directory in the dist, but found " + distDirs);
+                }
+                return distDirs.get(0);
+            }
+        } catch (IOException e) {
+            throw new GradleException("Failed to unpack " + distribution, e);
+        }
+    }
+
+    /** Dists are compressed with whichever codec they were built with, so go by the magic number. */
+    private static InputStream decompress(Path distribution) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(distribution));
+        in.mark(4);
+        byte[] magic = in.readNBytes(4);
+        in.reset();
+        if (magic.length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+            return new GZIPInputStream(in);
+        }
+        if (magic.length == 4
+                && (magic[0] & 0xff) == 0x28
+                && (magic[1] & 0xff) == 0xb5
+                && (magic[2] & 0xff) == 0x2f
+                && (magic[3] & 0xff) == 0xfd) {
+            return new ZstdInputStream(in);
+        }
+        return in;
+    }
+
+    private static LaunchConfig.LaunchConfigInfo readStaticConfig(Path distDir) {
+        Path staticConfig = distDir.resolve(STATIC_LAUNCHER_CONFIG);
+        try {
+            return YAML_MAPPER.readValue(staticConfig.toFile(), LaunchConfig.LaunchConfigInfo.class);
+        } catch (IOException e) {
+            throw new GradleException("Failed to read " + staticConfig, e);
+        }
+    }
+
+    /**
+     * go-java-launcher only takes one custom config, so this copies the one shipped in the dist, if any, and adds the
+     * class loading log to it.
+     */
+    private static void writeProfileLauncherConfig(Path distDir, Path classLoadLog) {
+        Path customConfig = distDir.resolve(CUSTOM_LAUNCHER_CONFIG);
+        try {
+            Map<String, Object> config = new LinkedHashMap<>();
+            if (Files.isRegularFile(customConfig)) {
+                config.putAll(
+                        YAML_MAPPER.readValue(customConfig.toFile(), new TypeReference<Map<String, Object>>() {}));
+            }
+            config.putIfAbsent("configType", "java");
+            config.putIfAbsent("configVersion", 1);
+            List<Object> jvmOpts = new ArrayList<>();
+            if (config.get("jvmOpts") instanceof List) {
+                jvmOpts.addAll((List<?>) config.get("jvmOpts"));
+            }
+            jvmOpts.add("-Xlog:class+load=info:file=" + classLoadLog.toAbsolutePath() + ":timemillis");
+            config.put("jvmOpts", jvmOpts);
+
+            Path profileConfig = distDir.resolve(PROFILE_LAUNCHER_CONFIG);
+            Files.createDirectories(profileConfig.getParent());
+            YAML_MAPPER.writeValue(profileConfig.toFile(), config);
+        } catch (IOException e) {
+            throw new GradleException("Failed to write the launcher config for profiling startup", e);
+        }
+    }
+
+    private static Map<String, String> environment(Params params) {
+        Map<String, String> environment = new LinkedHashMap<>(System.getenv());
+        // Dists without a bundled JDK run with whatever JAVA_HOME is, so fall back to the JDK of the build
+        environment.putIfAbsent("JAVA_HOME", System.getProperty("java.home"));
+        environment.putAll(params.getEnvironment().get());
+        return environment;
+    }
+
+    /** Picks the launcher binary for this machine, in the same way as {@code init.sh}. */
+    private static Path launcher(Path distDir) {
+        String os = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+        String arch = System.getProperty("os.arch").toLowerCase(Locale.ROOT);
+        String nativeArch;
+        if (os.startsWith("mac") || os.startsWith("darwin")) {
+            nativeArch = "darwin-amd64";
+        } else if (os.startsWith("linux") && ImmutableSet.of("amd64", "x86_64").contains(arch)) {
+            nativeArch = "linux-amd64";
+        } else if (os.startsWith("linux") && ImmutableSet.of("aarch64", "arm64").contains(arch)) {
+            nativeArch = "linux-arm64";
+        } else {
+            throw new GradleException(String.format("Startup cannot be profiled on %s %s", os, arch));
+        }
+        Path launcher = distDir.resolve("service/bin").resolve(nativeArch).resolve("go-java-launcher");
+        if (!Files.isRegularFile(launcher)) {
+            throw new GradleException(String.format(
+                    "The dist has no launcher for %s, so its startup cannot be profiled on this machine. Add it to "
+                            + "distribution.targetPlatforms",
+                    nativeArch));
+        }
+        return launcher;
+    }
+
+    private static Process start(List<String> command, Path directory, Map<String, String> environment, Path log) {
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log.toFile()));
+        builder.environment().clear();
+        builder.environment().putAll(environment);
+        try {
+            return builder.start();
+        } catch (IOException e) {
+            throw new GradleException("Failed to run " + command, e);
+        }
+    }
+
+    /** Runs the health check until it passes, returning the time it first passed at. */
+    private static long awaitHealthy(
+            Params params, Process service, Path distDir, Map<String, String> environment, Path workDir) {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(params.getTimeoutSeconds().get());
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                if (!service.isAlive()) {
+                    throw new GradleException(String.format(
+                            "The service exited with code %s before it was healthy, see %s",
+                            service.exitValue(), workDir.resolve("startup.log")));
+                }
+                Process check =
+                        start(ImmutableList.of(CHECK_SCRIPT), distDir, environment, workDir.resolve("check.log"));
+                if (check.waitFor() == 0) {
+                    return System.currentTimeMillis();
+                }
+                Thread.sleep(params.getCheckIntervalMillis().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while waiting for the service to be healthy", e);
+        }
+        throw new GradleException(String.format(
+                "The service was not healthy within %s seconds, see %s and %s",
+                params.getTimeoutSeconds().get(), workDir.resolve("startup.log"), workDir.resolve("check.log")));
+    }
+
+    /** go-java-launcher execs the JVM, so the JVM has the pid of the process that was started. */
+    private static long rssBytes(long pid) {
+        try {
+            Path status = Path.of("/proc", Long.toString(pid), "status");
+            if (Files.isReadable(status)) {
+                for (String line : Files.readAllLines(status, StandardCharsets.UTF_8)) {
+                    if (line.startsWith("VmRSS:")) {
+                        return kilobytes(line.substring("VmRSS:".length()).replace("kB", ""));
+                    }
+                }
+            }
+            // There is no procfs on macOS, but ps reports the same in kilobytes
+            Process ps = new ProcessBuilder("ps", "-o", "rss=", "-p", Long.toString(pid)).start();
+            String output = new String(ps.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            if (ps.waitFor() == 0) {
+                return kilobytes(output);
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new GradleException("Failed to read the resident set size of the service", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GradleException("Interrupted while reading the resident set size of the service", e);
+        }
+        throw new GradleException("Failed to read the resident set size of the service");
+    }
+
+    private static long kilobytes(String value) {
+        return Long.parseLong(value.trim()) * 1024;
+    }
+
+    private static void stop(Process process) {
+        process.destroy();
+        try {
+            if (!process.waitFor(STOP_GRACE_PERIOD_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+
+    /**
+     * Reads the class loading log, where each line looks like {@code [1700000000123ms] com.foo.Bar source: ...}, for
+     * when the main class was loaded and how many classes were loaded until the service was healthy.
+     */
+    static void addClassLoads(
+            StartupReport.Builder report, Path classLoadLog, String mainClass, long launchedAt, long healthyAt) {
+        long mainLoadedAt = -1;
+        int classesLoaded = 0;
+        try (BufferedReader reader = Files.newBufferedReader(classLoadLog, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                int end = line.indexOf("ms] ");
+                if (!line.startsWith("[") || end < 0) {
+                    continue;
+                }
+                long loadedAt = Long.parseLong(line.substring(1, end));
+                if (loadedAt <= healthyAt) {
+                    classesLoaded++;
+                }
+                int nameStart = end + "ms] ".length();
+                int nameEnd = line.indexOf(' ', nameStart);
+                if (mainLoadedAt < 0
+                        && line.substring(nameStart, nameEnd < 0 ? line.length() : nameEnd).equals(mainClass)) {
+                    mainLoadedAt = loadedAt;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new GradleException("Failed to read the class loading log " + classLoadLog, e);
+        }
+        if (mainLoadedAt < 0) {
+            throw new GradleException(String.format(
+                    "The main class %s was never loaded, see %s", mainClass, classLoadLog));
+        }
+        report.timeToMainMillis(mainLoadedAt - launchedAt).classesLoaded(classesLoaded);
+    }
+
+    /** How long the service took to start, and how big it was once it had. */
+    @Value.Immutable
+    @JsonSerialize(as = ImmutableStartupReport.class)
+    @JsonDeserialize(as = ImmutableStartupReport.class)
+    public interface StartupReport {
+        String serviceName();
+
+        String mainClass();
+
+        String javaVersion();
+
+        List<String> jvmOpts();
+
+        /** From launching the service until its main class was loaded. */
+        long timeToMainMillis();
+
+        /** From launching the service until {@code check.sh} first passed. */
+        long timeToHealthyMillis();
+
+        /** Classes loaded until {@code check.sh} first passed. */
+        int classesLoaded();
+
+        /** Resident set size of the service once {@code check.sh} first passed. */
+        long rssBytes();
+
+        static Builder builder() {
+            return new Builder();
+        }
+
+        final class Builder extends ImmutableStartupReport.Builder {}
+    }
+
+    private ProfileStartup() {}
+}
@@ -0,0 +1,29 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.tasks;
+
+public abstract class ProfileStartupTask extends ProfileStartupTaskImpl {
+    public ProfileStartupTask() {
+        getTimeoutSeconds().convention(300);
+        getCheckIntervalMillis().convention(500);
+        getWorkDirectory().convention(getProject().getLayout().getBuildDirectory().dir("startup-profile/work"));
+        getReportFile()
+                .convention(getProject().getLayout().getBuildDirectory().file("startup-profile/report.json"));
+        // Startup times vary from run to run, so there is never a reason to keep an old report
+        getOutputs().upToDateWhen(_task -> false);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.tasks;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.palantir.gradle.autoparallelizable.AutoParallelizable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.gradle.api.GradleException;
+import org.gradle.api.JavaVersion;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.LocalState;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+
+/**
+ * Runs {@code jdeps} from the bundled JDK over the service jar and its runtime classpath to find the JDK modules the
+ * service needs, and writes them one per line, so that {@link CreateJlinkImage} only depends on the set of modules
+ * rather than on every jar.
+ */
+@AutoParallelizable
+public final class ResolveJdkModules {
+    // jdeps only accepts --ignore-missing-deps from Java 11
+    public static final JavaVersion MINIMUM_JAVA_VERSION = JavaVersion.VERSION_11;
+
+    interface Params {
+        @Classpath
+        ConfigurableFileCollection getClasspath();
+
+        /** Java agents are loaded through {@code java.instrument}, which nothing on the classpath refers to. */
+        @Classpath
+        ConfigurableFileCollection getJavaAgents();
+
+        @InputFiles
+        @PathSensitive(PathSensitivity.RELATIVE)
+        ConfigurableFileCollection getJdk();
+
+        @Input
+        Property<JavaVersion> getJavaVersion();
+
+        @Input
+        ListProperty<String> getAddModules();
+
+        @LocalState
+        DirectoryProperty getStagingDirectory();
+
+        @OutputFile
+        RegularFileProperty getModulesFile();
+    }
+
+    static void action(Params params) {
+        JavaVersion javaVersion = params.getJavaVersion().get();
+        if (javaVersion.compareTo(MINIMUM_JAVA_VERSION) < 0) {
+            throw new GradleException(String.format(
+                    "A runtime image can only be created for Java %s or later, but the service uses Java %s",
+                    MINIMUM_JAVA_VERSION.getMajorVersion(), javaVersion.getMajorVersion()));
+        }
+
+        File jdeps = JdkTools.find(params.getJdk(), "jdeps", "a runtime image");
+        List<String> jars = stageClasspath(params);
+        String output = JdkTools.run(ImmutableList.<String>builder()
+                .add(jdeps.getAbsolutePath())
+                .add("--ignore-missing-deps", "--print-module-deps")
+                .add("--multi-release", javaVersion.getMajorVersion())
+                .add("--class-path", String.join(File.pathSeparator, jars))
+                .addAll(jars)
+                .build());
+
+        ImmutableSortedSet.Builder<String> modules = ImmutableSortedSet.naturalOrder();
+        modules.add("java.base");
+        modules.addAll(parseModuleDeps(output));
+        modules.addAll(params.getAddModules().get());
+        if (!params.getJavaAgents().isEmpty()) {
+            modules.add("java.instrument");
+        }
+
+        File modulesFile = params.getModulesFile().getAsFile().get();
+        try {
+            Files.createDirectories(modulesFile.getParentFile().toPath());
+            Files.write(modulesFile.toPath(), modules.build(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new GradleException("Failed to write " + modulesFile, e);
+        }
+    }
+
+    /**
+     * Copies the jars without their {@code module-info.class}, as jdeps resolves modular jars as modules, failing on
+     * any {@code requires} that is not on the classpath, or is a plain jar there.
+     */
+    private static List<String> stageClasspath(Params params) {
+        Path stagingDir = params.getStagingDirectory().getAsFile().get().toPath();
+        CreateJlinkImage.deleteRecursively(stagingDir);
+        ImmutableList.Builder<String> jars = ImmutableList.builder();
+        int index = 0;
+        for (File file : params.getClasspath().getFiles()) {
+            if (!file.isFile() || !file.getName().endsWith(".jar")) {
+                continue;
+            }
+            // Prefixed, as jars from different dependencies may share a name
+            Path staged = stagingDir.resolve(index++ + "-" + file.getName());
+            try {
+                Files.createDirectories(stagingDir);
+                copyWithoutModuleInfo(file, staged);
+            } catch (IOException e) {
+                throw new GradleException("Failed to stage " + file, e);
+            }
+            jars.add(staged.toString());
+        }
+        return jars.build();
+    }
+
+    private static void copyWithoutModuleInfo(File jar, Path target) throws IOException {
+        try (ZipFile zip = new ZipFile(jar);
+                ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(target))) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.getName().equals("module-info.class") || entry.getName().endsWith("/module-info.class")) {
+                    continue;
+                }
+                out.putNextEntry(new ZipEntry(entry.getName()));
+                try (InputStream in = zip.getInputStream(entry)) {
+                    in.transferTo(out);
+                }
+                out.closeEntry();
+            }
+        }
+    }
+
+    /** {@code --print-module-deps} prints the modules comma separated on the last line, after any warnings. */
+    static Set<String> parseModuleDeps(String output) {
+        List<String> lines = Splitter.on('\n').trimResults().omitEmptyStrings().splitToList(output);
+        if (lines.isEmpty()) {
+            return ImmutableSortedSet.of();
+        }
+        return ImmutableSortedSet.copyOf(
+                Splitter.on(',').trimResults().omitEmptyStrings().split(lines.get(lines.size() - 1)));
+    }
+
+    static List<String> readModules(File modulesFile) {
+        try {
+            return Files.readAllLines(modulesFile.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new GradleException("Failed to read " + modulesFile, e);
+        }
+    }
+
+    private ResolveJdkModules() {}
+}
@@ -0,0 +1,72 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.tasks;
+
+import com.google.common.collect.Iterables;
+import com.palantir.gradle.autoparallelizable.AutoParallelizable;
+import com.palantir.gradle.dist.service.util.MainClassResolver;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.OutputFile;
+
+/** Finds the only class with a main method among the compiled classes of the main source set. */
+@AutoParallelizable
+public final class ResolveMainClass {
+    interface Params {
+        @Classpath
+        ConfigurableFileCollection getClassesDirs();
+
+        @OutputFile
+        RegularFileProperty getMainClassFile();
+    }
+
+    static void action(Params params) {
+        Set<String> mainClasses = MainClassResolver.findMainClasses(params.getClassesDirs());
+        if (mainClasses.size() != 1) {
+            throw new GradleException(String.format(
+                    "Expecting to find exactly one main method, however we found %s of them in:\n%s\n",
+                    mainClasses.size(), String.join("\n", mainClasses)));
+        }
+
+        File mainClassFile = params.getMainClassFile().get().getAsFile();
+        try {
+            Files.writeString(mainClassFile.toPath(), Iterables.getOnlyElement(mainClasses), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Reads the main class written by the task. */
+    public static String readMainClass(RegularFile mainClassFile) {
+        try {
+            return Files.readString(mainClassFile.getAsFile().toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ResolveMainClass() {}
+}
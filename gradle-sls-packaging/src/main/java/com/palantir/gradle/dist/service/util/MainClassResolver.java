@@ -16,69 +16,157 @@
 
 package com.palantir.gradle.dist.service.util;
 
-import com.google.common.collect.Iterables;
+import com.google.common.collect.ImmutableSortedSet;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import org.gradle.api.Project;
-import org.gradle.api.tasks.SourceSet;
 
-// TODO(fwindheuser): Replace 'JavaPluginConvention' with 'JavaPluginExtension' before migrating to Gradle 8.
-@SuppressWarnings("deprecation")
+/**
+ * Finds the classes with a {@code public static void main(String[])} method by reading compiled class files, so that
+ * main methods in comments or strings are not counted, and classes from any JVM language are.
+ */
 public final class MainClassResolver {
-    public static String resolveMainClass(Project project) {
-        SourceSet main = project.getExtensions()
-                .getByType(org.gradle.api.plugins.JavaPluginExtension.class)
-                .getSourceSets()
-                .getByName("main");
-        Set<Path> javaFilesWithMainMethods = main.getAllSource().getSrcDirs().stream()
-                .filter(File::exists)
-                .map(File::toPath)
-                .flatMap(sourceDir -> allJavaFilesIn(sourceDir)
-                        .filter(javaFile -> anyLinesInFileContain(javaFile, "public static void main("))
-                        .filter(javaFile ->
-                                !anyLinesInFileContain(javaFile, "com.palantir.atlasdb.table.description.Schema"))
-                        .map(sourceDir::relativize))
-                .collect(Collectors.toSet());
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+    private static final String MAIN_DESCRIPTOR = "([Ljava/lang/String;)V";
+    // AtlasDB schemas have main methods to generate code, which should never be the main class of a service
+    private static final String ATLASDB_SCHEMA = "com/palantir/atlasdb/table/description/Schema";
 
-        if (javaFilesWithMainMethods.size() != 1) {
-            throw new RuntimeException(String.format(
-                    "Expecting to find exactly one main method, however we found %s of them in:\n%s\n",
-                    javaFilesWithMainMethods.size(),
-                    javaFilesWithMainMethods.stream()
-                            .map(Object::toString)
-                            .sorted()
-                            .collect(Collectors.joining("\n"))));
+    public static Set<String> findMainClasses(Iterable<File> classesDirs) {
+        ImmutableSortedSet.Builder<String> mainClasses = ImmutableSortedSet.naturalOrder();
+        for (File classesDir : classesDirs) {
+            if (!classesDir.isDirectory()) {
+                continue;
+            }
+            Path root = classesDir.toPath();
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.filter(path -> path.toString().endsWith(".class"))
+                        .filter(Files::isRegularFile)
+                        .filter(MainClassResolver::isMainClass)
+                        .map(path -> {
+                            String relative = root.relativize(path).toString();
+                            return relative.substring(0, relative.length() - ".class".length())
+                                    .replace(File.separatorChar, '.');
+                        })
+                        .forEach(mainClasses::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
-
-        return Iterables.getOnlyElement(javaFilesWithMainMethods)
-                .toString()
-                .replace(".java", "")
-                .replace(File.separatorChar, '.');
+        return mainClasses.build();
     }
 
-    private static boolean anyLinesInFileContain(Path path, String text) {
-        try (Stream<String> lines = Files.lines(path, StandardCharsets.UTF_8)) {
-            return lines.anyMatch(line -> line.contains(text));
+    private static boolean isMainClass(Path classFile) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(classFile)))) {
+            return isMainClass(in);
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new UncheckedIOException("Failed to read class file " + classFile, e);
         }
     }
 
-    private static Stream<Path> allJavaFilesIn(Path rootPath) {
-        try (Stream<Path> paths = Files.walk(rootPath, Integer.MAX_VALUE)) {
-            return paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> path.toString().endsWith(".java"))
-                    .collect(Collectors.toSet())
-                    .stream();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    /** Reads just enough of the class file format to see the names and descriptors of its methods. */
+    private static boolean isMainClass(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            return false;
+        }
+        in.readUnsignedShort(); // minor_version
+        in.readUnsignedShort(); // major_version
+
+        int constantPoolCount = in.readUnsignedShort();
+        String[] utf8 = new String[constantPoolCount];
+        boolean usesSchema = false;
+        for (int i = 1; i < constantPoolCount; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1: // Utf8
+                    utf8[i] = in.readUTF();
+                    usesSchema |= utf8[i].contains(ATLASDB_SCHEMA);
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    skip(in, 2);
+                    break;
+                case 15: // MethodHandle
+                    skip(in, 3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    skip(in, 4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    skip(in, 8);
+                    // These take up two entries in the constant pool
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        if (usesSchema) {
+            return false;
+        }
+
+        skip(in, 6); // access_flags, this_class, super_class
+        skip(in, 2 * in.readUnsignedShort()); // interfaces
+        skipMembers(in); // fields
+
+        int methodsCount = in.readUnsignedShort();
+        for (int i = 0; i < methodsCount; i++) {
+            int accessFlags = in.readUnsignedShort();
+            String name = utf8[in.readUnsignedShort()];
+            String descriptor = utf8[in.readUnsignedShort()];
+            if ((accessFlags & (ACC_PUBLIC | ACC_STATIC)) == (ACC_PUBLIC | ACC_STATIC)
+                    && "main".equals(name)
+                    && MAIN_DESCRIPTOR.equals(descriptor)) {
+                return true;
+            }
+            skipAttributes(in);
+        }
+        return false;
+    }
+
+    private static void skipMembers(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            skip(in, 6); // access_flags, name_index, descriptor_index
+            skipAttributes(in);
+        }
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            skip(in, 2); // attribute_name_index
+            skip(in, Integer.toUnsignedLong(in.readInt()));
+        }
+    }
+
+    private static void skip(InputStream in, long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of class file");
+            }
+            remaining -= skipped;
         }
     }
 
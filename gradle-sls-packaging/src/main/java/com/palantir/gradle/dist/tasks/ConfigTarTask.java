@@ -25,11 +25,11 @@ import org.gradle.api.Action;
 import org.gradle.api.Project;
 import org.gradle.api.file.CopySpec;
 import org.gradle.api.tasks.AbstractCopyTask;
+import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.TaskProvider;
-import org.gradle.api.tasks.bundling.Compression;
-import org.gradle.api.tasks.bundling.Tar;
 
-public abstract class ConfigTarTask extends Tar {
+@CacheableTask
+public abstract class ConfigTarTask extends SlsTarTask {
     @Override
     public final AbstractCopyTask from(Object... sourcePaths) {
         return this.from(sourcePaths, _ignored -> {});
@@ -52,8 +52,11 @@ public abstract class ConfigTarTask extends Tar {
         TaskProvider<ConfigTarTask> configTar = project.getTasks().register("configTar", ConfigTarTask.class, task -> {
             task.setGroup(JavaServiceDistributionPlugin.GROUP_NAME);
             task.setDescription(
-                    "Creates a compressed, gzipped tar file that contains the sls configuration files for the product");
-            task.setCompression(Compression.GZIP);
+                    "Creates a compressed tar file that contains the sls configuration files for the product");
+            task.getArchiveCodec().set(ext.getArchiveCodec());
+            task.getZstdLevel().set(ext.getZstdLevel());
+            task.getCompressionThreads().set(ext.getCompressionThreads());
+            task.getReproducible().set(ext.getReproducible());
 
             DeploymentDirInclusion.includeFromDeploymentDirs(project.getLayout(), ext, task, _ignored -> {});
 
@@ -62,12 +65,13 @@ public abstract class ConfigTarTask extends Tar {
             task.getArchiveBaseName().set(ext.getDistributionServiceName());
             task.getArchiveVersion()
                     .set(project.provider(() -> project.getVersion().toString()));
-            task.getArchiveExtension().set(ext.getProductType().map(productType -> {
+            task.getArchiveExtension().set(ext.getProductType().zip(ext.getArchiveCodec(), (productType, codec) -> {
                 try {
                     String productTypeString = ObjectMappers.jsonMapper.writeValueAsString(productType);
                     return productTypeString
                             .substring(1, productTypeString.lastIndexOf('.'))
-                            .concat(".config.tgz");
+                            .concat(".config.")
+                            .concat(codec.getFileExtension());
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
@@ -18,9 +18,7 @@ package com.palantir.gradle.dist.tasks;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.base.Preconditions;
-import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Streams;
 import com.palantir.gradle.dist.BaseDistributionExtension;
 import com.palantir.gradle.dist.ObjectMappers;
 import com.palantir.gradle.dist.ProductDependency;
@@ -39,19 +37,17 @@ import com.palantir.gradle.dist.pdeps.ResolveProductDependenciesTask;
 import com.palantir.gradle.failurereports.exceptions.ExceptionWithSuggestion;
 import com.palantir.sls.versions.OrderableSlsVersion;
 import com.palantir.sls.versions.SlsVersion;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 import org.gradle.StartParameter;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
+import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.api.provider.MapProperty;
@@ -60,6 +56,7 @@ import org.gradle.api.provider.SetProperty;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
@@ -95,8 +92,41 @@ public abstract class CreateManifestTask extends DefaultTask {
     public abstract RegularFileProperty getManifestFile();
 
     @Input
-    final String getProjectVersion() {
-        return getProject().getVersion().toString();
+    public abstract Property<String> getProjectVersion();
+
+    @Internal
+    public abstract RegularFileProperty getProductDependenciesLockFile();
+
+    @Internal
+    public abstract RegularFileProperty getSchemaVersionLockFile();
+
+    /** Lock file paths in messages are relative to this directory. */
+    @Internal
+    public abstract DirectoryProperty getRootDirectory();
+
+    /** Whether the product dependencies lock file should be written rather than checked. */
+    @Internal
+    public abstract Property<Boolean> getWriteProductDependenciesLocks();
+
+    /** Whether the schema version lock file should be written rather than checked. */
+    @Internal
+    public abstract Property<Boolean> getWriteSchemaVersionLocks();
+
+    public CreateManifestTask() {
+        Project project = getProject();
+        getProjectVersion().convention(project.provider(() -> project.getVersion().toString()));
+        getProductDependenciesLockFile()
+                .convention(project.getLayout().getProjectDirectory().file(ProductDependencyLockFile.LOCK_FILE));
+        getSchemaVersionLockFile()
+                .convention(project.getLayout().getProjectDirectory().file(SchemaVersionLockFile.LOCK_FILE));
+        getRootDirectory().convention(project.getRootProject().getLayout().getProjectDirectory());
+        // The task graph is complete by the time these are read, which is either at execution time or when the task
+        // is stored in the configuration cache
+        getWriteProductDependenciesLocks()
+                .convention(project.provider(
+                        () -> shouldWriteLocks(project, WriteProductDependenciesLocksMarkerTask.NAME)));
+        getWriteSchemaVersionLocks()
+                .convention(project.provider(() -> shouldWriteLocks(project, WriteSchemaVersionLocksMarkerTask.NAME)));
     }
 
     /**
@@ -140,14 +170,20 @@ public abstract class CreateManifestTask extends DefaultTask {
 
         List<ProductDependency> productDependencies = productDependencyManifest.productDependencies();
         if (productDependencies.isEmpty()) {
-            requireAbsentLockfile(WriteProductDependenciesLocksMarkerTask.NAME, getProductDependenciesLockfile());
+            requireAbsentLockfile(
+                    WriteProductDependenciesLocksMarkerTask.NAME,
+                    getProductDependenciesLockfile(),
+                    getWriteProductDependenciesLocks().get());
         } else {
             ensurePdepsLockfileIsUpToDate(productDependencies);
         }
 
         List<SchemaMigration> schemaMigrations = getSchemaMigrations();
         if (schemaMigrations.isEmpty()) {
-            requireAbsentLockfile(WriteSchemaVersionLocksMarkerTask.NAME, getSchemaVersionLockfile());
+            requireAbsentLockfile(
+                    WriteSchemaVersionLocksMarkerTask.NAME,
+                    getSchemaVersionLockfile(),
+                    getWriteSchemaVersionLocks().get());
         } else {
             ensureSchemaLockfileIsUpToDate(schemaMigrations);
         }
@@ -161,7 +197,7 @@ public abstract class CreateManifestTask extends DefaultTask {
                         .productType(getProductType().get())
                         .productGroup(getServiceGroup().get())
                         .productName(getServiceName().get())
-                        .productVersion(getProjectVersion())
+                        .productVersion(getProjectVersion().get())
                         .putAllExtensions(getManifestExtensions().get())
                         .putExtensions("product-dependencies", productDependencies)
                         .putExtensions(
@@ -188,14 +224,14 @@ public abstract class CreateManifestTask extends DefaultTask {
         return ObjectMappers.jsonMapper.convertValue(raw, new TypeReference<>() {});
     }
 
-    private void requireAbsentLockfile(String writeLocksTaskName, File lockfile) {
-        Path relativePath = getProject().getRootDir().toPath().relativize(lockfile.toPath());
+    private void requireAbsentLockfile(String writeLocksTaskName, File lockfile, boolean writeLocks) {
+        Path relativePath = relativize(lockfile);
 
         if (!lockfile.exists()) {
             return;
         }
 
-        if (shouldWriteLocks(getProject(), writeLocksTaskName)) {
+        if (writeLocks) {
             lockfile.delete();
             getLogger().lifecycle("Deleted {}", relativePath);
         } else {
@@ -208,7 +244,11 @@ public abstract class CreateManifestTask extends DefaultTask {
     }
 
     private File getProductDependenciesLockfile() {
-        return getProject().file(ProductDependencyLockFile.LOCK_FILE);
+        return getProductDependenciesLockFile().getAsFile().get();
+    }
+
+    private Path relativize(File lockfile) {
+        return getRootDirectory().getAsFile().get().toPath().relativize(lockfile.toPath());
     }
 
     public static boolean shouldWriteLocks(Project project, String writeLocksTaskName) {
@@ -223,15 +263,20 @@ public abstract class CreateManifestTask extends DefaultTask {
         File lockfile = getProductDependenciesLockfile();
         String upToDateContents = ProductDependencyLockFile.asString(
                 productDeps, getInRepoProductIds().get());
-        ensureFileIsUpToDate(WriteProductDependenciesLocksMarkerTask.NAME, lockfile, upToDateContents);
+        ensureFileIsUpToDate(
+                WriteProductDependenciesLocksMarkerTask.NAME,
+                lockfile,
+                upToDateContents,
+                getWriteProductDependenciesLocks().get());
     }
 
-    private void ensureFileIsUpToDate(String writeLocksTaskName, File lockfile, String upToDateContents)
+    private void ensureFileIsUpToDate(
+            String writeLocksTaskName, File lockfile, String upToDateContents, boolean writeLocks)
             throws IOException {
-        Path relativePath = getProject().getRootDir().toPath().relativize(lockfile.toPath());
+        Path relativePath = relativize(lockfile);
         boolean lockfileExists = lockfile.exists();
 
-        if (shouldWriteLocks(getProject(), writeLocksTaskName)) {
+        if (writeLocks) {
             Files.writeString(lockfile.toPath(), upToDateContents);
 
             if (!lockfileExists) {
@@ -249,65 +294,46 @@ public abstract class CreateManifestTask extends DefaultTask {
             } else {
                 String fromDisk = Files.readString(lockfile.toPath());
                 if (!fromDisk.equals(upToDateContents)) {
+                    // Provide a rich diff so the user understands what change will be made before they run
+                    // --write-locks
                     throw new ExceptionWithSuggestion(
                             String.format(
-                                    "%s is out of date, please run `%s` to update it%s",
+                                    "%s is out of date, please run `%s` to update it:\n%s",
                                     relativePath,
                                     getSuggestedFix(writeLocksTaskName),
-                                    diff(lockfile, upToDateContents)
-                                            .map(s -> ":\n" + s)
-                                            .orElse("")),
+                                    UnifiedDiff.diff(fromDisk, upToDateContents)),
                             getSuggestedFix(writeLocksTaskName));
                 }
             }
         }
     }
 
-    /** Provide a rich diff so the user understands what change will be made before they run --write-locks. */
-    private Optional<String> diff(File existing, String upToDateContents) {
-        try {
-            File tempFile = Files.createTempFile("product-dependencies", "lock").toFile();
-            Files.writeString(tempFile.toPath(), upToDateContents);
-
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            getProject().exec(spec -> {
-                spec.commandLine("diff", "-u", existing.getAbsolutePath(), tempFile.getAbsolutePath());
-                spec.setStandardOutput(baos);
-                spec.setIgnoreExitValue(true);
-            });
-            return Optional.of(
-                    Streams.stream(Splitter.on("\n").split(new String(baos.toByteArray(), StandardCharsets.UTF_8)))
-                            .skip(2)
-                            .collect(Collectors.joining("\n")));
-        } catch (IOException e) {
-            getLogger().debug("Unable to provide diff", e);
-            return Optional.empty();
-        }
-    }
-
     private File getSchemaVersionLockfile() {
-        return getProject().file(SchemaVersionLockFile.LOCK_FILE);
+        return getSchemaVersionLockFile().getAsFile().get();
     }
 
     private void ensureSchemaLockfileIsUpToDate(List<SchemaMigration> schemaMigrations) throws IOException {
         File lockfile = getSchemaVersionLockfile();
         String upToDateContents = ObjectMappers.writeSchemaVersionsAsString(SchemaVersionLockFile.of(schemaMigrations));
-        ensureFileIsUpToDate(WriteSchemaVersionLocksMarkerTask.NAME, lockfile, upToDateContents);
+        ensureFileIsUpToDate(
+                WriteSchemaVersionLocksMarkerTask.NAME,
+                lockfile,
+                upToDateContents,
+                getWriteSchemaVersionLocks().get());
     }
 
     private void validateProjectVersion() {
-        String stringVersion = getProjectVersion();
+        String stringVersion = getProjectVersion().get();
         Preconditions.checkArgument(
                 SlsVersion.check(stringVersion),
                 "Project version must be a valid SLS version: %s. "
                         + "Please ensure there's at least one git tag on the repo (e.g. 0.0.0)",
                 stringVersion);
         if (!OrderableSlsVersion.check(stringVersion)) {
-            getProject()
-                    .getLogger()
+            getLogger()
                     .info(
-                            "Version string in project {} is not orderable as per SLS specification: {}",
-                            getProject().getName(),
+                            "Version string for {} is not orderable as per SLS specification: {}",
+                            getPath(),
                             stringVersion);
         }
     }
@@ -328,17 +354,15 @@ public abstract class CreateManifestTask extends DefaultTask {
                                     ResolveProductDependenciesTask::getManifestFile));
                     task.getManifestExtensions().set(ext.getManifestExtensions());
                     task.getArtifacts().addAll(ext.getArtifacts());
-                    task.getInRepoProductIds()
-                            .set(project.provider(() -> ProductDependencyIntrospectionPlugin.getInRepoProductIds(
-                                            project.getRootProject())
-                                    .keySet()));
+                    task.getInRepoProductIds().set(ProductDependencyIntrospectionPlugin.inRepoProductIds(project));
 
                     // Ensure we re-run task to write locks
                     task.getOutputs().upToDateWhen(new Spec<Task>() {
                         @Override
-                        public boolean isSatisfiedBy(Task _task) {
-                            return !(shouldWriteLocks(project, WriteProductDependenciesLocksMarkerTask.NAME)
-                                    || shouldWriteLocks(project, WriteSchemaVersionLocksMarkerTask.NAME));
+                        public boolean isSatisfiedBy(Task upToDateTask) {
+                            CreateManifestTask manifestTask = (CreateManifestTask) upToDateTask;
+                            return !(manifestTask.getWriteProductDependenciesLocks().get()
+                                    || manifestTask.getWriteSchemaVersionLocks().get());
                         }
                     });
 
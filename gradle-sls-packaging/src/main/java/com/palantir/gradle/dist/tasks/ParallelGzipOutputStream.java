@@ -0,0 +1,223 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.tasks;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A gzip {@link OutputStream} which splits its input into fixed size blocks and deflates them on a pool of threads,
+ * in the same way as <a href="https://zlib.net/pigz/">pigz</a>.
+ *
+ * <p>Each block is compressed by its own {@link Deflater}, primed with the last 32KiB of the previous block as a
+ * preset dictionary so the compression ratio stays close to that of a single stream. Every block but the last ends
+ * with a sync flush, which byte-aligns the output so the compressed blocks can simply be concatenated. The result is a
+ * single, standard gzip member that any gzip reader can decompress. As block boundaries do not depend on the number of
+ * threads, the bytes written are identical for any level of parallelism.
+ */
+public final class ParallelGzipOutputStream extends OutputStream {
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private final OutputStream out;
+    private final int level;
+    private final int blockSize;
+    private final int maxBlocksInFlight;
+    private final ExecutorService executor;
+    private final Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+
+    private byte[] block;
+    private int blockLength = 0;
+    private byte[] previousBlock = null;
+    private long uncompressedSize = 0;
+    private boolean closed = false;
+
+    public ParallelGzipOutputStream(OutputStream out, int threads) throws IOException {
+        this(out, threads, Deflater.DEFAULT_COMPRESSION, DEFAULT_BLOCK_SIZE);
+    }
+
+    public ParallelGzipOutputStream(OutputStream out, int threads, int level, int blockSize) throws IOException {
+        Preconditions.checkArgument(threads >= 1, "threads must be positive", SafeArg.of("threads", threads));
+        Preconditions.checkArgument(
+                blockSize >= DICTIONARY_SIZE,
+                "blockSize must be at least the size of the deflate window",
+                SafeArg.of("blockSize", blockSize),
+                SafeArg.of("windowSize", DICTIONARY_SIZE));
+        this.out = out;
+        writeHeader();
+        this.level = level;
+        this.blockSize = blockSize;
+        // Allow threads to run ahead of the writer by a bit, while keeping memory use bounded.
+        this.maxBlocksInFlight = threads * 2;
+        this.executor = Executors.newFixedThreadPool(
+                threads,
+                new ThreadFactoryBuilder()
+                        .setNameFormat("parallel-gzip-%d")
+                        .setDaemon(true)
+                        .build());
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        write(new byte[] {(byte) value}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        int position = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            int toCopy = Math.min(remaining, blockSize - blockLength);
+            System.arraycopy(bytes, position, block, blockLength, toCopy);
+            blockLength += toCopy;
+            position += toCopy;
+            remaining -= toCopy;
+            if (blockLength == blockSize) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // Blocks are only written once they are full, so there is nothing more we can flush without hurting the
+        // compression ratio and making the output depend on how the caller happened to flush.
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            submitBlock(true);
+            while (!inFlight.isEmpty()) {
+                writeCompletedBlock();
+            }
+            writeTrailer();
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void submitBlock(boolean last) throws IOException {
+        byte[] data = block;
+        int length = blockLength;
+        byte[] dictionary = previousBlock;
+
+        crc.update(data, 0, length);
+        uncompressedSize += length;
+        inFlight.add(executor.submit(() -> deflate(data, length, dictionary, last)));
+
+        previousBlock = length >= DICTIONARY_SIZE ? Arrays.copyOfRange(data, length - DICTIONARY_SIZE, length) : null;
+        block = new byte[blockSize];
+        blockLength = 0;
+
+        while (inFlight.size() > maxBlocksInFlight) {
+            writeCompletedBlock();
+        }
+    }
+
+    private byte[] deflate(byte[] data, int length, byte[] dictionary, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(data, 0, length);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 64);
+            byte[] buffer = new byte[64 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int written = deflater.deflate(buffer);
+                    compressed.write(buffer, 0, written);
+                }
+            } else {
+                // A sync flush byte-aligns the output without ending the deflate stream. If the buffer is filled we
+                // must call again with the same flush mode to get the rest of the output.
+                int written;
+                do {
+                    written = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, written);
+                } while (written == buffer.length);
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeCompletedBlock() throws IOException {
+        try {
+            out.write(inFlight.removeFirst().get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for compressed block");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to compress block", e.getCause());
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        // Matches the header written by java.util.zip.GZIPOutputStream: no file name, and a zero mtime so that the
+        // output only depends on the input bytes.
+        out.write(new byte[] {(byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> 8), Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0});
+    }
+
+    private void writeTrailer() throws IOException {
+        writeInt((int) crc.getValue());
+        // ISIZE is the uncompressed size modulo 2^32
+        writeInt((int) uncompressedSize);
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
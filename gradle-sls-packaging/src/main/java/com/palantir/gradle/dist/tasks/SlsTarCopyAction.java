@@ -0,0 +1,103 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.UnixStat;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.FileCopyDetails;
+import org.gradle.api.internal.file.copy.CopyAction;
+import org.gradle.api.internal.file.copy.CopyActionProcessingStream;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.WorkResults;
+
+/**
+ * Writes a tar in the same way as Gradle's {@code TarCopyAction}, but through a compressor of our choosing, so that
+ * {@link SlsTarTask} does not depend on Gradle's internal tar writer.
+ *
+ * <p>When reproducible, every entry is normalized so the archive only depends on the names, modes and contents of the
+ * files in it: modification times are fixed, and the owner is always uid/gid 0 with no user or group name, rather than
+ * whichever user happened to run the build.
+ */
+final class SlsTarCopyAction implements CopyAction {
+    private final File tarFile;
+    private final Compressor compressor;
+    private final boolean reproducible;
+    private final boolean preserveFileTimestamps;
+
+    SlsTarCopyAction(File tarFile, Compressor compressor, boolean reproducible, boolean preserveFileTimestamps) {
+        this.tarFile = tarFile;
+        this.compressor = compressor;
+        this.reproducible = reproducible;
+        this.preserveFileTimestamps = preserveFileTimestamps;
+    }
+
+    @Override
+    public WorkResult execute(CopyActionProcessingStream stream) {
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(compressor.open(tarFile))) {
+            tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_GNU);
+            tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_STAR);
+            stream.process(details -> writeEntry(tar, details));
+        } catch (IOException | UncheckedIOException e) {
+            tarFile.delete();
+            throw new GradleException(String.format("Could not create TAR '%s'.", tarFile), e);
+        } catch (RuntimeException e) {
+            tarFile.delete();
+            throw e;
+        }
+        return WorkResults.didWork(true);
+    }
+
+    @SuppressWarnings("deprecation") // getMode is the only way to read permissions that works on Gradle 7
+    private void writeEntry(TarArchiveOutputStream tar, FileCopyDetails details) {
+        String path = details.getRelativePath().getPathString();
+        TarArchiveEntry entry = new TarArchiveEntry(details.isDirectory() ? path + '/' : path);
+        entry.setModTime(
+                preserveFileTimestamps && !reproducible
+                        ? details.getLastModified()
+                        : SlsTarTask.CONSTANT_TIME_FOR_TAR_ENTRIES);
+        entry.setMode((details.isDirectory() ? UnixStat.DIR_FLAG : UnixStat.FILE_FLAG) | details.getMode());
+        if (reproducible) {
+            entry.setUserId(0);
+            entry.setGroupId(0);
+            entry.setUserName("");
+            entry.setGroupName("");
+        }
+        if (!details.isDirectory()) {
+            entry.setSize(details.getSize());
+        }
+        try {
+            tar.putArchiveEntry(entry);
+            if (!details.isDirectory()) {
+                details.copyTo(tar);
+            }
+            tar.closeArchiveEntry();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not add " + details + " to TAR", e);
+        }
+    }
+
+    /** Opens the stream the tar is written to, wrapping the file in whichever compression is used. */
+    interface Compressor {
+        OutputStream open(File file) throws IOException;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.tasks;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import com.palantir.gradle.dist.ArchiveCodec;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.gradle.api.internal.file.copy.CopyAction;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.bundling.Tar;
+
+/**
+ * A {@link Tar} task which compresses the archive with the selected {@link ArchiveCodec}, rather than the
+ * {@link #getCompression()} of the stock Tar task. Gzip is done on multiple threads using
+ * {@link ParallelGzipOutputStream}, rather than the single threaded {@link java.util.zip.GZIPOutputStream} used by
+ * Gradle, and the resulting archive is still a standard gzipped tar.
+ *
+ * <p>When {@link #getReproducible()} is set, entries are written in a stable order with fixed timestamps and owners,
+ * so that building the same inputs on any machine produces the same bytes.
+ */
+@CacheableTask
+public abstract class SlsTarTask extends Tar {
+    /**
+     * The modification time of every entry in reproducible archives. This is the same constant newer versions of
+     * Gradle use, as some tools treat an mtime of 0 as missing.
+     */
+    public static final long CONSTANT_TIME_FOR_TAR_ENTRIES = TimeUnit.DAYS.toMillis(1);
+
+    private static final int OUTPUT_BUFFER_SIZE = 1024 * 1024;
+
+    @Input
+    public abstract Property<ArchiveCodec> getArchiveCodec();
+
+    /** The zstd compression level, only used with {@link ArchiveCodec#ZSTD}. */
+    @Input
+    public abstract Property<Integer> getZstdLevel();
+
+    @Input
+    public abstract Property<Boolean> getReproducible();
+
+    /**
+     * The number of threads used to compress the archive. This does not change the bytes that are written, so it is
+     * not an input of the task.
+     */
+    @Internal
+    public abstract Property<Integer> getCompressionThreads();
+
+    public SlsTarTask() {
+        getArchiveCodec().convention(ArchiveCodec.GZIP);
+        getZstdLevel().convention(3);
+        getReproducible().convention(false);
+        getCompressionThreads().convention(Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public boolean isReproducibleFileOrder() {
+        return super.isReproducibleFileOrder() || getReproducible().get();
+    }
+
+    @Override
+    protected final CopyAction createCopyAction() {
+        return new SlsTarCopyAction(
+                getArchiveFile().get().getAsFile(), compressor(), getReproducible().get(), isPreserveFileTimestamps());
+    }
+
+    private SlsTarCopyAction.Compressor compressor() {
+        ArchiveCodec codec = getArchiveCodec().get();
+        int threads = getCompressionThreads().get();
+        int zstdLevel = getZstdLevel().get();
+        switch (codec) {
+            case GZIP:
+                return file -> new ParallelGzipOutputStream(bufferedOutputStream(file), threads);
+            case ZSTD:
+                // zstd produces the same output for any number of workers, as long as there is at least one.
+                return file -> new ZstdOutputStream(bufferedOutputStream(file), zstdLevel).setWorkers(threads);
+            case TAR:
+                return SlsTarTask::bufferedOutputStream;
+        }
+        throw new SafeIllegalArgumentException("Unsupported archive codec", SafeArg.of("codec", codec));
+    }
+
+    private static OutputStream bufferedOutputStream(File file) throws IOException {
+        return new BufferedOutputStream(new FileOutputStream(file), OUTPUT_BUFFER_SIZE);
+    }
+}
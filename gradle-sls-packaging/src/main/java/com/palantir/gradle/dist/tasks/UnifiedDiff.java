@@ -0,0 +1,459 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.tasks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders the hunks of a valid minimal unified diff between two texts, in the same format as {@code diff -u} without
+ * the file name header. Lines are matched with the same variant of Myers' linear space algorithm that GNU diff uses, so
+ * time grows with the size of the texts times the number of differences, which for lock files that are close to up to
+ * date is effectively linear.
+ *
+ * <p>The hunks usually match those of {@code diff -u}, but not always: GNU diff also sets aside lines that repeat many
+ * times ({@code discard_confusing_lines}), which this does not, so highly repetitive texts can be split into different
+ * but equally valid hunks.
+ */
+final class UnifiedDiff {
+    private static final int CONTEXT_LINES = 3;
+    private static final String NO_NEWLINE = "\\ No newline at end of file";
+
+    private final Text original;
+    private final Text revised;
+    private final boolean[] removed;
+    private final boolean[] added;
+
+    // Lines outside these bounds are the same in both texts and too far from any change to be part of a hunk
+    private final int start;
+    private final int originalEnd;
+    private final int revisedEnd;
+
+    // Lines of each text that also appear in the other, and so are left for the edit search to match up
+    private final int[] originalCandidates;
+    private final int[] revisedCandidates;
+
+    // Furthest reaching candidate of the original text on each diagonal, searching forwards and backwards
+    private final int[] forward;
+    private final int[] backward;
+    private final int offset;
+
+    private UnifiedDiff(Text original, Text revised) {
+        this.original = original;
+        this.revised = revised;
+        this.removed = new boolean[original.size()];
+        this.added = new boolean[revised.size()];
+
+        int prefix = 0;
+        int shorter = Math.min(original.size(), revised.size());
+        while (prefix < shorter && original.lineClass(prefix) == revised.lineClass(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (prefix + suffix < shorter
+                && original.lineClass(original.size() - 1 - suffix)
+                        == revised.lineClass(revised.size() - 1 - suffix)) {
+            suffix++;
+        }
+        // Like diff, keep a few of the identical lines either side, which changes can still be slid into
+        this.start = prefix - Math.min(prefix, CONTEXT_LINES);
+        this.originalEnd = original.size() - suffix + Math.min(suffix, CONTEXT_LINES);
+        this.revisedEnd = revised.size() - suffix + Math.min(suffix, CONTEXT_LINES);
+
+        this.originalCandidates = candidates(original, start, originalEnd, revised, start, revisedEnd, removed);
+        this.revisedCandidates = candidates(revised, start, revisedEnd, original, start, originalEnd, added);
+        this.forward = new int[originalCandidates.length + revisedCandidates.length + 3];
+        this.backward = new int[originalCandidates.length + revisedCandidates.length + 3];
+        this.offset = revisedCandidates.length + 1;
+    }
+
+    /** Returns the hunks turning {@code original} into {@code revised}, or an empty string if they are equal. */
+    static String diff(String original, String revised) {
+        Map<String, Integer> lineClasses = new HashMap<>();
+        UnifiedDiff diff = new UnifiedDiff(Text.of(original, lineClasses), Text.of(revised, lineClasses));
+        diff.compare(0, diff.originalCandidates.length, 0, diff.revisedCandidates.length);
+        shiftBoundaries(diff.original, diff.start, diff.originalEnd, diff.removed, diff.added);
+        shiftBoundaries(diff.revised, diff.start, diff.revisedEnd, diff.added, diff.removed);
+        return diff.render();
+    }
+
+    /**
+     * Lines that appear nowhere in the other text can only be changes, so are marked as such up front rather than
+     * searched. Returns the remaining lines.
+     */
+    private static int[] candidates(
+            Text text, int start, int end, Text other, int otherStart, int otherEnd, boolean[] changed) {
+        Set<Integer> otherClasses = new HashSet<>();
+        for (int i = otherStart; i < otherEnd; i++) {
+            otherClasses.add(other.lineClass(i));
+        }
+        int[] candidates = new int[end - start];
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (otherClasses.contains(text.lineClass(i))) {
+                candidates[count++] = i;
+            } else {
+                changed[i] = true;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private boolean matches(int originalCandidate, int revisedCandidate) {
+        return original.lineClass(originalCandidates[originalCandidate])
+                == revised.lineClass(revisedCandidates[revisedCandidate]);
+    }
+
+    private void compare(int originalStart, int originalEnd, int revisedStart, int revisedEnd) {
+        int aStart = originalStart;
+        int aEnd = originalEnd;
+        int bStart = revisedStart;
+        int bEnd = revisedEnd;
+        while (aStart < aEnd && bStart < bEnd && matches(aStart, bStart)) {
+            aStart++;
+            bStart++;
+        }
+        while (aStart < aEnd && bStart < bEnd && matches(aEnd - 1, bEnd - 1)) {
+            aEnd--;
+            bEnd--;
+        }
+        if (aStart == aEnd) {
+            for (int i = bStart; i < bEnd; i++) {
+                added[revisedCandidates[i]] = true;
+            }
+        } else if (bStart == bEnd) {
+            for (int i = aStart; i < aEnd; i++) {
+                removed[originalCandidates[i]] = true;
+            }
+        } else {
+            int[] split = split(aStart, aEnd, bStart, bEnd);
+            compare(aStart, split[0], bStart, split[1]);
+            compare(split[0], aEnd, split[1], bEnd);
+        }
+    }
+
+    /**
+     * Finds a point on an optimal edit path by searching forwards from the start and backwards from the end until the
+     * two searches meet, returning the line of each text at which the path can be split. Diagonals are numbered by
+     * the difference between the original and revised line on them.
+     */
+    private int[] split(int aStart, int aEnd, int bStart, int bEnd) {
+        int minDiagonal = aStart - bEnd;
+        int maxDiagonal = aEnd - bStart;
+        int forwardMid = aStart - bStart;
+        int backwardMid = aEnd - bEnd;
+        boolean odd = ((forwardMid - backwardMid) & 1) != 0;
+        int forwardMin = forwardMid;
+        int forwardMax = forwardMid;
+        int backwardMin = backwardMid;
+        int backwardMax = backwardMid;
+        forward[offset + forwardMid] = aStart;
+        backward[offset + backwardMid] = aEnd;
+
+        while (true) {
+            // Extend the forward search by one edit on each diagonal
+            if (forwardMin > minDiagonal) {
+                forward[offset + --forwardMin - 1] = -1;
+            } else {
+                forwardMin++;
+            }
+            if (forwardMax < maxDiagonal) {
+                forward[offset + ++forwardMax + 1] = -1;
+            } else {
+                forwardMax--;
+            }
+            for (int d = forwardMax; d >= forwardMin; d -= 2) {
+                int low = forward[offset + d - 1];
+                int high = forward[offset + d + 1];
+                int x = low < high ? high : low + 1;
+                int y = x - d;
+                while (x < aEnd && y < bEnd && matches(x, y)) {
+                    x++;
+                    y++;
+                }
+                forward[offset + d] = x;
+                if (odd && backwardMin <= d && d <= backwardMax && backward[offset + d] <= x) {
+                    return new int[] {x, y};
+                }
+            }
+
+            // And the backward search likewise
+            if (backwardMin > minDiagonal) {
+                backward[offset + --backwardMin - 1] = Integer.MAX_VALUE;
+            } else {
+                backwardMin++;
+            }
+            if (backwardMax < maxDiagonal) {
+                backward[offset + ++backwardMax + 1] = Integer.MAX_VALUE;
+            } else {
+                backwardMax--;
+            }
+            for (int d = backwardMax; d >= backwardMin; d -= 2) {
+                int low = backward[offset + d - 1];
+                int high = backward[offset + d + 1];
+                int x = low < high ? low : high - 1;
+                int y = x - d;
+                while (aStart < x && bStart < y && matches(x - 1, y - 1)) {
+                    x--;
+                    y--;
+                }
+                backward[offset + d] = x;
+                if (!odd && forwardMin <= d && d <= forwardMax && x <= forward[offset + d]) {
+                    return new int[] {x, y};
+                }
+            }
+        }
+    }
+
+    /**
+     * Where a run of changed lines could equally be placed elsewhere among identical lines, moves it to where diff
+     * would, which is as late as possible unless it then lines up with a change in the other text. Runs that can be
+     * slid together are merged. This follows {@code shift_boundaries} in GNU diff.
+     */
+    private static void shiftBoundaries(
+            Text text, int first, int end, boolean[] changedLines, boolean[] otherChangedLines) {
+        // Both arrays are padded with an unchanged line at either end, so index 1 is the first line
+        boolean[] changed = padded(changedLines);
+        boolean[] otherChanged = padded(otherChangedLines);
+        int i = first;
+        int j = first;
+
+        while (true) {
+            // Find the start of the next run of changes, keeping track of the corresponding line of the other text
+            while (i < end && !changed[1 + i]) {
+                while (otherChanged[1 + j]) {
+                    j++;
+                }
+                j++;
+                i++;
+            }
+            if (i == end) {
+                break;
+            }
+            int start = i;
+            i++;
+            while (changed[1 + i]) {
+                i++;
+            }
+            while (otherChanged[1 + j]) {
+                j++;
+            }
+
+            int runLength;
+            int corresponding;
+            do {
+                runLength = i - start;
+
+                // Move the run back while the line before it matches its last line, merging with earlier runs
+                while (start > first && text.matches(start - 1, i - 1)) {
+                    changed[1 + --start] = true;
+                    changed[1 + --i] = false;
+                    while (changed[1 + start - 1]) {
+                        start--;
+                    }
+                    j--;
+                    while (otherChanged[1 + j]) {
+                        j--;
+                    }
+                }
+
+                // The last end of the run that lines up with a change in the other text, if any
+                corresponding = otherChanged[1 + j - 1] ? i : end;
+
+                // Then move it forward while its first line matches the line after it, merging with later runs
+                while (i != end && text.matches(start, i)) {
+                    changed[1 + start++] = false;
+                    changed[1 + i++] = true;
+                    while (changed[1 + i]) {
+                        i++;
+                    }
+                    j++;
+                    while (otherChanged[1 + j]) {
+                        corresponding = i;
+                        j++;
+                    }
+                }
+            } while (runLength != i - start);
+
+            // Move the merged run back to line up with a change in the other text, if it can
+            while (corresponding < i) {
+                changed[1 + --start] = true;
+                changed[1 + --i] = false;
+                j--;
+                while (otherChanged[1 + j]) {
+                    j--;
+                }
+            }
+        }
+        System.arraycopy(changed, 1, changedLines, 0, changedLines.length);
+    }
+
+    private static boolean[] padded(boolean[] lines) {
+        boolean[] padded = new boolean[lines.length + 2];
+        System.arraycopy(lines, 0, padded, 1, lines.length);
+        return padded;
+    }
+
+    private String render() {
+        List<Edit> edits = edits();
+        StringBuilder out = new StringBuilder();
+        int index = 0;
+        while (index < edits.size()) {
+            if (edits.get(index).type == ' ') {
+                index++;
+                continue;
+            }
+            int start = Math.max(0, index - CONTEXT_LINES);
+            int lastChange = index;
+            int end = index + 1;
+            while (end < edits.size() && end - lastChange <= 2 * CONTEXT_LINES + 1) {
+                if (edits.get(end).type != ' ') {
+                    lastChange = end;
+                }
+                end++;
+            }
+            end = Math.min(edits.size(), lastChange + 1 + CONTEXT_LINES);
+            renderHunk(out, edits.subList(start, end));
+            index = end;
+        }
+        return out.toString();
+    }
+
+    private void renderHunk(StringBuilder out, List<Edit> hunk) {
+        int originalCount = 0;
+        int revisedCount = 0;
+        for (Edit edit : hunk) {
+            if (edit.type != '+') {
+                originalCount++;
+            }
+            if (edit.type != '-') {
+                revisedCount++;
+            }
+        }
+        Edit first = hunk.get(0);
+        out.append("@@ -")
+                .append(range(first.originalLine, originalCount))
+                .append(" +")
+                .append(range(first.revisedLine, revisedCount))
+                .append(" @@\n");
+        for (Edit edit : hunk) {
+            Text text = edit.type == '+' ? revised : original;
+            int line = edit.type == '+' ? edit.revisedLine : edit.originalLine;
+            out.append(edit.type).append(text.line(line)).append('\n');
+            if (!text.isTerminated(line)) {
+                out.append(NO_NEWLINE).append('\n');
+            }
+        }
+    }
+
+    /** Formats a 0-based start line the way diff does, where an empty range refers to the line before it. */
+    private static String range(int start, int count) {
+        if (count == 1) {
+            return Integer.toString(start + 1);
+        }
+        return (count == 0 ? start : start + 1) + "," + count;
+    }
+
+    /** Walks both texts in step, putting the lines removed from a change before the lines added by it. */
+    private List<Edit> edits() {
+        List<Edit> edits = new ArrayList<>(original.size() + revised.size());
+        int i = 0;
+        int j = 0;
+        while (i < original.size() || j < revised.size()) {
+            if (i < original.size() && removed[i]) {
+                edits.add(new Edit('-', i++, j));
+            } else if (j < revised.size() && added[j]) {
+                edits.add(new Edit('+', i, j++));
+            } else {
+                edits.add(new Edit(' ', i++, j++));
+            }
+        }
+        return edits;
+    }
+
+    private static final class Edit {
+        private final char type;
+        private final int originalLine;
+        private final int revisedLine;
+
+        Edit(char type, int originalLine, int revisedLine) {
+            this.type = type;
+            this.originalLine = originalLine;
+            this.revisedLine = revisedLine;
+        }
+    }
+
+    private static final class Text {
+        private final List<String> lines;
+        private final int[] lineClasses;
+        private final boolean lastLineTerminated;
+
+        private Text(List<String> lines, int[] lineClasses, boolean lastLineTerminated) {
+            this.lines = lines;
+            this.lineClasses = lineClasses;
+            this.lastLineTerminated = lastLineTerminated;
+        }
+
+        /** Splits the contents into lines, numbering each distinct line the same way across texts. */
+        static Text of(String contents, Map<String, Integer> classes) {
+            List<String> lines = new ArrayList<>();
+            int start = 0;
+            int newline;
+            while ((newline = contents.indexOf('\n', start)) >= 0) {
+                lines.add(contents.substring(start, newline));
+                start = newline + 1;
+            }
+            boolean lastLineTerminated = start == contents.length();
+            if (!lastLineTerminated) {
+                lines.add(contents.substring(start));
+            }
+
+            int[] lineClasses = new int[lines.size()];
+            for (int i = 0; i < lines.size(); i++) {
+                // A last line without a newline differs from the same line with one
+                String key = lastLineTerminated || i < lines.size() - 1 ? lines.get(i) + '\n' : lines.get(i);
+                lineClasses[i] = classes.computeIfAbsent(key, _key -> classes.size());
+            }
+            return new Text(lines, lineClasses, lastLineTerminated);
+        }
+
+        int size() {
+            return lines.size();
+        }
+
+        String line(int index) {
+            return lines.get(index);
+        }
+
+        int lineClass(int index) {
+            return lineClasses[index];
+        }
+
+        boolean isTerminated(int index) {
+            return lastLineTerminated || index < lines.size() - 1;
+        }
+
+        boolean matches(int first, int second) {
+            return lineClasses[first] == lineClasses[second];
+        }
+    }
+}
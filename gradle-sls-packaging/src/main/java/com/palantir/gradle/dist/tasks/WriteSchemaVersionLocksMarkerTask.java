@@ -18,17 +18,26 @@ package com.palantir.gradle.dist.tasks;
 
 import org.gradle.api.DefaultTask;
 import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.TaskAction;
 
 public class WriteSchemaVersionLocksMarkerTask extends DefaultTask {
 
     public static final String NAME = "writeSchemaVersionLocks";
 
+    private final Provider<Boolean> writeLocks;
+
+    public WriteSchemaVersionLocksMarkerTask() {
+        Project project = getProject();
+        writeLocks = project.provider(() -> CreateManifestTask.shouldWriteLocks(project, NAME));
+    }
+
     @TaskAction
     public final void checkWriteLocksShouldBeRunning() {
         // Check that our task name matcher for writeSchemaVersionLocks is actually matching up the Gradle one;
         // if this task is running but we didn't actually write locks, error out.
-        if (!CreateManifestTask.shouldWriteLocks(getProject(), NAME)) {
+        if (!writeLocks.get()) {
             throw new GradleException("This `writeSchemaVersionLocks` marker task has been run, but the "
                     + "schema-versions.lock files did not actually get written out at configuration time. Either "
                     + "there is another task dependency on this task, which is not supported "
@@ -0,0 +1,103 @@
+#!/bin/bash
+#
+# Copyright 2026 Palantir Technologies
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+# <http://www.apache.org/licenses/LICENSE-2.0>
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+
+# Everything in this script is relative to the base directory of an SLSv2 distribution
+pushd "`dirname \"$0\"`/../.." > /dev/null
+
+# CRaC relies on CRIU, which only exists for Linux
+case "`uname -sm`" in
+  "Linux x86_64")
+    NATIVE_ARCH="linux-amd64"
+    ;;
+  "Linux aarch64")
+    NATIVE_ARCH="linux-arm64"
+    ;;
+  *)
+    echo "Unsupported operating system for CRaC: $(uname)"; exit 1
+esac
+
+LAUNCHER_CMD="service/bin/${NATIVE_ARCH}/go-java-launcher"
+
+ACTION=$1
+SERVICE="@serviceName@"
+JDK_DIR="@javaHome@"
+CRAC_LAUNCHER_CONFIG="service/bin/launcher-crac.yml"
+CUSTOM_LAUNCHER_CONFIG="var/conf/launcher-custom.yml"
+CHECKPOINT_DIR="@checkpointDir@"
+CHECK_SCRIPT="service/monitoring/bin/check.sh"
+# How long to let the service warm up once it is healthy, for example to have requests sent to it so that the hot
+# paths are compiled, before it is checkpointed
+WARMUP_SECONDS="${CRAC_WARMUP_SECONDS:-0}"
+STARTUP_TIMEOUT_SECONDS="${CRAC_STARTUP_TIMEOUT_SECONDS:-300}"
+
+function print_help() {
+    echo "Usage: $0 checkpoint|restore"
+    echo ""
+    echo "  checkpoint  starts the service, waits until it is healthy and \$CRAC_WARMUP_SECONDS have passed, then"
+    echo "              checkpoints it to $CHECKPOINT_DIR, which stops it"
+    echo "  restore     restores the service from the checkpoint in $CHECKPOINT_DIR in the foreground"
+}
+
+case $ACTION in
+checkpoint)
+    rm -rf "$CHECKPOINT_DIR"
+    mkdir -p "$CHECKPOINT_DIR" var/log
+
+    $LAUNCHER_CMD $CRAC_LAUNCHER_CONFIG $CUSTOM_LAUNCHER_CONFIG > var/log/$SERVICE-checkpoint.log 2>&1 &
+    PID=$!
+
+    # go-java-launcher execs the JVM, so it keeps the pid, and init.sh check runs the health check with its own config
+    if [ -x "$CHECK_SCRIPT" ]; then
+        SECONDS=0
+        until $CHECK_SCRIPT > /dev/null 2>&1; do
+            if ! kill -0 $PID 2> /dev/null; then
+                echo "'$SERVICE' exited before it was healthy, see var/log/$SERVICE-checkpoint.log"
+                exit 1
+            fi
+            if [ $SECONDS -ge $STARTUP_TIMEOUT_SECONDS ]; then
+                echo "'$SERVICE' was not healthy within $STARTUP_TIMEOUT_SECONDS seconds"
+                kill $PID
+                exit 1
+            fi
+            sleep 1
+        done
+    fi
+    sleep $WARMUP_SECONDS
+
+    "$JDK_DIR/bin/jcmd" $PID JDK.checkpoint
+    wait $PID
+    if [ -z "$(ls -A "$CHECKPOINT_DIR")" ]; then
+        echo "Failed to checkpoint '$SERVICE', see var/log/$SERVICE-checkpoint.log"
+        exit 1
+    fi
+    echo "Checkpointed '$SERVICE' to $CHECKPOINT_DIR"
+;;
+restore)
+    if [ -z "$(ls -A "$CHECKPOINT_DIR" 2> /dev/null)" ]; then
+        echo "There is no checkpoint of '$SERVICE' to restore, create one with: $0 checkpoint"
+        exit 1
+    fi
+    exec "$JDK_DIR/bin/java" -XX:CRaCRestoreFrom=$CHECKPOINT_DIR
+;;
+-h|--help)
+    print_help
+;;
+*)
+    print_help
+    exit 1
+;;
+esac
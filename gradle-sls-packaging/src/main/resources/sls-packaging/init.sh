@@ -36,6 +36,10 @@ esac
 LAUNCHER_CMD="service/bin/${NATIVE_ARCH}/go-java-launcher"
 GO_INIT_CMD="service/bin/${NATIVE_ARCH}/go-init"
 
+if [ ! -x "$GO_INIT_CMD" ]; then
+  echo "This distribution does not include binaries for ${NATIVE_ARCH}"; exit 1
+fi
+
 ACTION=$1
 SCRIPT_DIR="service/bin"
 SERVICE="@serviceName@"
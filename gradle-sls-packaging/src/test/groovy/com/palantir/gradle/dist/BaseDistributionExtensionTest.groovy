@@ -164,4 +164,28 @@ class BaseDistributionExtensionTest extends Specification {
         then:
         noExceptionThrown()
     }
+
+    def "archiveCodec defaults to gzip"() {
+        expect:
+        new BaseDistributionExtension(project).archiveCodec.get() == ArchiveCodec.GZIP
+    }
+
+    def "archiveCodec can be set by name"() {
+        when:
+        def ext = new BaseDistributionExtension(project)
+        ext.archiveCodec('ZSTD')
+        ext.zstdLevel(19)
+
+        then:
+        ext.archiveCodec.get() == ArchiveCodec.ZSTD
+        ext.zstdLevel.get() == 19
+    }
+
+    def "archiveCodec rejects unknown codecs"() {
+        when:
+        new BaseDistributionExtension(project).archiveCodec('bzip2')
+
+        then:
+        thrown(IllegalArgumentException)
+    }
 }
@@ -19,6 +19,8 @@ package com.palantir.gradle.dist
 
 import nebula.test.ProjectSpec
 import org.gradle.api.GradleException
+import org.gradle.api.Project
+import org.gradle.testfixtures.ProjectBuilder
 
 class ProductDependencyIntrospectionPluginTest extends ProjectSpec {
     def setup() {
@@ -74,4 +76,109 @@ class ProductDependencyIntrospectionPluginTest extends ProjectSpec {
         GradleException exception = thrown()
         exception.message.contains("Unable to find product dependency for 'com.palantir.other:test'")
     }
+
+    def "get all minimum versions from lock file"() {
+        project.version = "1.1.0"
+        project.file("product-dependencies.lock").text = '''\
+        # Run ./gradlew writeProductDependenciesLocks to regenerate this file
+        com.palantir.product:test (1.0.0, 1.x.x)
+        com.palantir.product:other ($projectVersion, 1.x.x) optional
+        '''.stripIndent()
+
+        when:
+        def result = project.ext.getMinimumProductVersions()
+
+        then:
+        result == ["com.palantir.product:test": "1.0.0", "com.palantir.product:other": "1.1.0"]
+    }
+
+    def "reads the lock file again once it changes"() {
+        project.file("product-dependencies.lock").text = '''\
+        # Run ./gradlew writeProductDependenciesLocks to regenerate this file
+        com.palantir.product:test (1.0.0, 1.x.x)
+        '''.stripIndent()
+        project.ext.getMinimumProductVersion("com.palantir.product:test")
+
+        when:
+        project.file("product-dependencies.lock").text = '''\
+        # Run ./gradlew writeProductDependenciesLocks to regenerate this file
+        com.palantir.product:test (1.10.0, 1.x.x)
+        '''.stripIndent()
+
+        then:
+        project.ext.getMinimumProductVersion("com.palantir.product:test") == "1.10.0"
+    }
+
+    def "reads the lock file again when it is rewritten with the same length and timestamp"() {
+        def lockFile = project.file("product-dependencies.lock")
+        lockFile.text = '''\
+        # Run ./gradlew writeProductDependenciesLocks to regenerate this file
+        com.palantir.product:test (1.0.0, 1.x.x)
+        '''.stripIndent()
+        long lastModified = lockFile.lastModified()
+        project.ext.getMinimumProductVersion("com.palantir.product:test")
+
+        when:
+        lockFile.text = '''\
+        # Run ./gradlew writeProductDependenciesLocks to regenerate this file
+        com.palantir.product:test (1.1.0, 1.x.x)
+        '''.stripIndent()
+        lockFile.setLastModified(lastModified)
+
+        then:
+        project.ext.getMinimumProductVersion("com.palantir.product:test") == "1.1.0"
+    }
+
+    def "picks up project version changes"() {
+        project.file("product-dependencies.lock").text = '''\
+        # Run ./gradlew writeProductDependenciesLocks to regenerate this file
+        com.palantir.product:test ($projectVersion, 1.x.x)
+        '''.stripIndent()
+        project.version = "1.0.0"
+        project.ext.getMinimumProductVersion("com.palantir.product:test")
+
+        when:
+        project.version = "1.1.0"
+
+        then:
+        project.ext.getMinimumProductVersion("com.palantir.product:test") == "1.1.0"
+    }
+
+    def "indexes products published in this build by project path"() {
+        given:
+        def foo = distProject('foo', 'com.palantir.group', 'foo-service')
+        def bar = distProject('bar', 'com.palantir.group', 'bar-service')
+        ProjectBuilder.builder().withParent(project).withName('plain').build()
+
+        expect:
+        ProductDependencyIntrospectionPlugin.getInRepoProductIds(project) == [
+                (new ProductId('com.palantir.group', 'foo-service')): foo,
+                (new ProductId('com.palantir.group', 'bar-service')): bar,
+        ]
+        ProductDependencyIntrospectionPlugin.inRepoProductIds(bar).get() == [
+                new ProductId('com.palantir.group', 'foo-service'),
+                new ProductId('com.palantir.group', 'bar-service'),
+        ] as Set
+    }
+
+    def "picks up service names changed before all projects are evaluated"() {
+        given:
+        def foo = distProject('foo', 'com.palantir.group', 'foo-service')
+        ProductDependencyIntrospectionPlugin.getInRepoProductIds(project)
+
+        when:
+        foo.distribution.serviceName = 'renamed-service'
+
+        then:
+        ProductDependencyIntrospectionPlugin.getInRepoProductIds(project).keySet() ==
+                [new ProductId('com.palantir.group', 'renamed-service')] as Set
+    }
+
+    private Project distProject(String name, String group, String serviceName) {
+        Project child = ProjectBuilder.builder().withParent(project).withName(name).build()
+        child.pluginManager.apply('com.palantir.sls-asset-distribution')
+        child.distribution.serviceGroup = group
+        child.distribution.serviceName = serviceName
+        return child
+    }
 }
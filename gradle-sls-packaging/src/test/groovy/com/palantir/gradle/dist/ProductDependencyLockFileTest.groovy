@@ -73,4 +73,56 @@ class ProductDependencyLockFileTest extends Specification {
         then:
         input == ProductDependencyLockFile.fromString(ProductDependencyLockFile.asString(input, [] as Set<ProductId>), "0.0.0")
     }
+
+    def 'skips lines that are not dependencies'() {
+        when:
+        List<ProductDependency> result = ProductDependencyLockFile.fromString(
+                'com.palantir.product:foo (1.0.0, 1.x.x)\n'
+                        + 'com.palantir.product:bar (1.0.0, 1.x.x) optionally\n'
+                        + ':baz (1.0.0, 1.x.x)\n'
+                        + 'com.palantir.product:qux (1.0.0 1.x.x)\n'
+                        + 'com.palantir.product:quux (1.0.0, 1.x.x)\r\n'
+                        + 'com.palantir.product:corge (1.0.0, 1.x.x) optional',
+                "0.0.0")
+
+        then:
+        result == [
+                new ProductDependency("com.palantir.product", "foo", "1.0.0", "1.x.x", null),
+                new ProductDependency("com.palantir.product", "corge", "1.0.0", "1.x.x", null, true),
+        ]
+    }
+
+    def 'reads the same lock file for projects with different versions'() {
+        given:
+        File lockFile = File.createTempFile("product-dependencies", ".lock")
+        lockFile.deleteOnExit()
+        lockFile.text = '''\
+        # Run ./gradlew writeProductDependenciesLocks to regenerate this file
+        com.palantir.product:foo ($projectVersion, 1.x.x)
+        '''.stripIndent()
+
+        when:
+        def first = ProductDependencyLockFile.fromFile(lockFile.toPath(), "1.1.0")
+        first[0].optional = true
+        def second = ProductDependencyLockFile.fromFile(lockFile.toPath(), "1.2.0")
+
+        then:
+        first == [new ProductDependency("com.palantir.product", "foo", "1.1.0", "1.x.x", null, true)]
+        second == [new ProductDependency("com.palantir.product", "foo", "1.2.0", "1.x.x", null)]
+    }
+
+    def 'reads a lock file again once it changes'() {
+        given:
+        File lockFile = File.createTempFile("product-dependencies", ".lock")
+        lockFile.deleteOnExit()
+        lockFile.text = 'com.palantir.product:foo (1.0.0, 1.x.x)\n'
+        ProductDependencyLockFile.fromFile(lockFile.toPath(), "0.0.0")
+
+        when:
+        lockFile.text = 'com.palantir.product:foo (1.1.0, 1.x.x)\n'
+
+        then:
+        ProductDependencyLockFile.fromFile(lockFile.toPath(), "0.0.0") ==
+                [new ProductDependency("com.palantir.product", "foo", "1.1.0", "1.x.x", null)]
+    }
 }
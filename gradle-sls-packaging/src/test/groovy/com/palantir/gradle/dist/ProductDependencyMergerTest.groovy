@@ -74,6 +74,46 @@ class ProductDependencyMergerTest extends Specification {
         merged2.optional
     }
 
+    def "merges a whole group at once the same as pairwise"() {
+        given:
+        def deps = [
+                newRecommendation("2.0.0", "2.x.x", "2.3.0"),
+                newRecommendation("2.1.0", "2.6.x", "2.2.0"),
+                newRecommendation("2.0.0.dirty", "2.x.x"),
+                newRecommendation("2.4.0", "2.x.x", "2.5.0"),
+                new ProductDependency("group", "name", "2.2.0", "2.5.x", null, true)]
+
+        when:
+        def merged = ProductDependencyMerger.merge(deps)
+
+        then:
+        merged == deps.stream().reduce { dep1, dep2 -> ProductDependencyMerger.merge(dep1, dep2) }.get()
+        merged.minimumVersion == "2.4.0"
+        merged.maximumVersion == "2.5.x"
+        merged.recommendedVersion == "2.5.0"
+        !merged.optional
+    }
+
+    def "returns a single dependency as is"() {
+        given:
+        def dep = newRecommendation("2.0.0", "2.x.x")
+
+        expect:
+        ProductDependencyMerger.merge([dep]).is(dep)
+    }
+
+    def "fails if ranges of a group do not overlap"() {
+        when:
+        ProductDependencyMerger.merge([
+                newRecommendation("2.0.0", "2.x.x"),
+                newRecommendation("2.1.0", "2.6.x"),
+                newRecommendation("2.7.0", "2.x.x")])
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message.contains("Could not merge recommended product dependencies as their version ranges do not overlap")
+    }
+
     private ProductDependency newRecommendation(String min, String max, String recommended = null) {
         return new ProductDependency("group", "name", min, max, recommended)
     }
@@ -0,0 +1,136 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.gradle.dist.artifacts
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.PosixFilePermission
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream
+import org.apache.commons.compress.archivers.tar.TarConstants
+import spock.lang.Specification
+import spock.lang.TempDir
+
+class ExtractArchiveTest extends Specification {
+    @TempDir
+    Path tempDir
+
+    def 'strips leading directories and keeps executable bits'() {
+        given:
+        def archive = writeTar([
+                directory('jdk-17/'),
+                file('jdk-17/bin/java', 'java', 0755),
+                file('jdk-17/release', 'JAVA_VERSION="17"', 0644),
+                file('top-level-file', 'dropped', 0644)])
+
+        when:
+        ExtractArchive.extract(archive, output(), 1)
+
+        then:
+        output().resolve('release').toFile().text == 'JAVA_VERSION="17"'
+        Files.isExecutable(output().resolve('bin/java'))
+        !Files.getPosixFilePermissions(output().resolve('release')).contains(PosixFilePermission.OWNER_EXECUTE)
+        !Files.exists(output().resolve('top-level-file'))
+        !Files.exists(output().resolve('jdk-17'))
+    }
+
+    def 'creates symbolic links relative to where they are'() {
+        given:
+        def archive = writeTar([
+                file('jdk-17/lib/libjvm.so', 'jvm', 0644),
+                link('jdk-17/bin/libjvm.so', '../lib/libjvm.so', TarConstants.LF_SYMLINK)])
+
+        when:
+        ExtractArchive.extract(archive, output(), 1)
+
+        then:
+        Files.isSymbolicLink(output().resolve('bin/libjvm.so'))
+        Files.readSymbolicLink(output().resolve('bin/libjvm.so')).toString() == '../lib/libjvm.so'
+        output().resolve('bin/libjvm.so').toFile().text == 'jvm'
+    }
+
+    def 'creates hard links to entries extracted earlier'() {
+        given:
+        def archive = writeTar([
+                file('jdk-17/bin/java', 'java', 0755),
+                link('jdk-17/bin/java-copy', 'jdk-17/bin/java', TarConstants.LF_LINK)])
+
+        when:
+        ExtractArchive.extract(archive, output(), 1)
+
+        then:
+        output().resolve('bin/java-copy').toFile().text == 'java'
+        Files.isSameFile(output().resolve('bin/java'), output().resolve('bin/java-copy'))
+    }
+
+    def 'rejects links which point outside of the archive'() {
+        given:
+        def archive = writeTar([link('jdk-17/bin/passwd', linkName, linkFlag)])
+
+        when:
+        ExtractArchive.extract(archive, output(), 1)
+
+        then:
+        thrown(IOException)
+
+        where:
+        linkName              | linkFlag
+        '../../../etc/passwd' | TarConstants.LF_SYMLINK
+        '/etc/passwd'         | TarConstants.LF_SYMLINK
+        '../../etc/passwd'    | TarConstants.LF_LINK
+    }
+
+    private Path output() {
+        return tempDir.resolve('output')
+    }
+
+    private File writeTar(List<Map> entries) {
+        def archive = tempDir.resolve('archive.tar').toFile()
+        new TarArchiveOutputStream(new FileOutputStream(archive)).withCloseable { tar ->
+            entries.each { spec ->
+                def entry = spec.linkFlag == null
+                        ? new TarArchiveEntry(spec.name as String)
+                        : new TarArchiveEntry(spec.name as String, spec.linkFlag as byte)
+                if (spec.linkName != null) {
+                    entry.setLinkName(spec.linkName as String)
+                }
+                if (spec.mode != null) {
+                    entry.setMode(spec.mode as int)
+                }
+                byte[] content = (spec.content ?: '').getBytes('UTF-8')
+                entry.setSize(content.length)
+                tar.putArchiveEntry(entry)
+                tar.write(content)
+                tar.closeArchiveEntry()
+            }
+        }
+        return archive
+    }
+
+    private static Map directory(String name) {
+        return [name: name]
+    }
+
+    private static Map file(String name, String content, int mode) {
+        return [name: name, content: content, mode: 0100000 | mode]
+    }
+
+    private static Map link(String name, String linkName, byte linkFlag) {
+        return [name: name, linkName: linkName, linkFlag: linkFlag]
+    }
+}
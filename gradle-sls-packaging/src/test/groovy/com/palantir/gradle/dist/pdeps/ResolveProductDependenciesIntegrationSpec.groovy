@@ -18,10 +18,15 @@ package com.palantir.gradle.dist.pdeps
 
 import com.palantir.gradle.dist.BaseDistributionExtension
 import com.palantir.gradle.dist.ObjectMappers
+import com.palantir.gradle.dist.ProductDependency
+import com.palantir.gradle.dist.RecommendedProductDependencies
+import com.palantir.gradle.dist.RecommendedProductDependenciesPlugin
 import spock.lang.Unroll
 
 import java.nio.file.Files
 import java.nio.file.StandardCopyOption
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
 import nebula.test.IntegrationSpec
 import nebula.test.dependencies.DependencyGraph
 import nebula.test.dependencies.GradleDependencyGenerator
@@ -92,6 +97,51 @@ class ResolveProductDependenciesIntegrationSpec extends IntegrationSpec {
         !manifest.productDependencies().isEmpty()
     }
 
+    def 'only parses product dependencies of newly added dependencies'() {
+        given:
+        addSubproject('child1', """
+        apply plugin: 'java'
+        apply plugin: 'com.palantir.recommended-product-dependencies'
+
+        recommendedProductDependencies {
+            ${PDEP}
+        }
+        """.stripIndent())
+        addSubproject('child2', """
+        apply plugin: 'java'
+        apply plugin: 'com.palantir.recommended-product-dependencies'
+
+        recommendedProductDependencies {
+            productDependency {
+                productGroup = "group2"
+                productName = "name2"
+                minimumVersion = "2.0.0"
+                maximumVersion = "2.x.x"
+            }
+        }
+        """.stripIndent())
+        buildFile << """
+        dependencies {
+            implementation project('child1')
+        }
+        """.stripIndent()
+        runTasksSuccessfully(':resolveProductDependencies')
+
+        when:
+        buildFile << """
+        dependencies {
+            implementation project('child2')
+        }
+        """.stripIndent()
+        def result = runTasksSuccessfully(':resolveProductDependencies', '--info')
+
+        then:
+        result.standardOutput.contains('Parsed 1 product dependency files, reused 1 from the previous execution')
+        def manifest = ObjectMappers.readProductDependencyManifest(
+                file('build/resolved-pdeps/pdeps-manifest.json'))
+        manifest.productDependencies()*.productName == ['name1', 'name2']
+    }
+
     def 'discovers external dependencies'() {
         given:
         GradleDependencyGenerator generator = new GradleDependencyGenerator(
@@ -123,6 +173,44 @@ class ResolveProductDependenciesIntegrationSpec extends IntegrationSpec {
         !manifest.productDependencies().isEmpty()
     }
 
+    def 'reads product dependencies and diagnostics from the same jar'() {
+        given:
+        GradleDependencyGenerator generator = new GradleDependencyGenerator(
+                new DependencyGraph("b:b:1.0"), new File(projectDir, "build/testrepogen").toString())
+        def mavenRepo = generator.generateTestMavenRepo()
+        new File(mavenRepo, "b/b/1.0/b-1.0.jar").withOutputStream { os ->
+            new JarOutputStream(os).withCloseable { jar ->
+                jar.putNextEntry(new JarEntry("sls-manifest/diagnostics.json"))
+                jar << '[{"type": "b.v1", "docs": "From b"}]'
+                jar.putNextEntry(new JarEntry(RecommendedProductDependenciesPlugin.RESOURCE_PATH))
+                jar << ObjectMappers.jsonMapper.writeValueAsString(RecommendedProductDependencies.builder()
+                        .addRecommendedProductDependencies(new ProductDependency("group2", "name2", "2.0.0", "2.x.x", "2.1.0"))
+                        .build())
+            }
+        }
+
+        buildFile << """
+        apply plugin: com.palantir.gradle.dist.service.DiagnosticsManifestPlugin
+
+        repositories {
+            maven {url "file:///${mavenRepo.getAbsolutePath()}"}
+        }
+
+        dependencies {
+            implementation 'b:b:1.0'
+        }
+        """.stripIndent()
+
+        when:
+        runTasksSuccessfully(':resolveProductDependencies', ':mergeDiagnosticsJson')
+
+        then:
+        def manifest = ObjectMappers.readProductDependencyManifest(
+                file('build/resolved-pdeps/pdeps-manifest.json'))
+        manifest.productDependencies()*.productName == ['name2']
+        file('build/mergeDiagnosticsJson.json').text.contains('"type" : "b.v1"')
+    }
+
     def 'handles jars without manifest'() {
         given:
         GradleDependencyGenerator generator = new GradleDependencyGenerator(
@@ -17,8 +17,10 @@
 package com.palantir.gradle.dist.pdeps
 
 import com.google.common.collect.ImmutableSetMultimap
+import com.palantir.gradle.dist.ObjectMappers
 import com.palantir.gradle.dist.ProductDependency
 import com.palantir.gradle.dist.ProductId
+import com.palantir.gradle.dist.RecommendedProductDependencies
 import nebula.test.ProjectSpec
 
 class ResolveProductDependenciesTaskSpec extends ProjectSpec {
@@ -111,4 +113,32 @@ class ResolveProductDependenciesTaskSpec extends ProjectSpec {
         then:
         result.get(PRODUCT_ID).minimumVersion == PDEP_2.minimumVersion
     }
+
+    def 'only parses product dependency files that changed'() {
+        given:
+        def unchanged = writePdeps('unchanged.json', PDEP)
+        def changed = writePdeps('changed.json', PDEP_2)
+        def added = writePdeps('added.json', PDEP_2)
+        // Stale values, so that the test can tell whether a file was read again or reused
+        def previous = [
+                (unchanged.absolutePath): RecommendedProductDependencies.of([PDEP_2]),
+                (changed.absolutePath): RecommendedProductDependencies.of([PDEP]),
+                (project.file('removed.json').absolutePath): RecommendedProductDependencies.of([PDEP])]
+
+        when:
+        def result = ResolveProductDependenciesTask.parseProductDependencies(
+                [unchanged, changed, added] as LinkedHashSet, previous, [changed] as Set)
+
+        then:
+        result.keySet() as List == [unchanged.absolutePath, changed.absolutePath, added.absolutePath]
+        result.get(unchanged.absolutePath) == RecommendedProductDependencies.of([PDEP_2])
+        result.get(changed.absolutePath) == RecommendedProductDependencies.of([PDEP_2])
+        result.get(added.absolutePath) == RecommendedProductDependencies.of([PDEP_2])
+    }
+
+    private File writePdeps(String name, ProductDependency pdep) {
+        File file = project.file(name)
+        ObjectMappers.jsonMapper.writeValue(file, RecommendedProductDependencies.of([pdep]))
+        return file
+    }
 }
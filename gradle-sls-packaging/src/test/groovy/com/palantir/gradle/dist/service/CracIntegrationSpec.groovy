@@ -0,0 +1,180 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory
+import com.fasterxml.jackson.datatype.guava.GuavaModule
+import com.palantir.gradle.dist.GradleIntegrationSpec
+import com.palantir.gradle.dist.service.tasks.LaunchConfig
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.util.concurrent.TimeUnit
+import org.awaitility.Awaitility
+import spock.lang.Requires
+
+class CracIntegrationSpec extends GradleIntegrationSpec {
+    private static final OBJECT_MAPPER = new ObjectMapper(new YAMLFactory())
+            .registerModule(new GuavaModule())
+
+    static Path startupService = Paths.get("src/test/groovy/com/palantir/gradle/dist/service/ExampleStartupService.java")
+    File startedFile
+
+    def setup() {
+        startedFile = new File(getProjectDir(), "example-startup-service-started")
+        buildFile << """
+            plugins {
+                id 'com.palantir.sls-java-service-distribution'
+            }
+
+            repositories {
+                mavenCentral()
+            }
+
+            project.version = '1.0.0'
+
+            distribution {
+                serviceName 'crac-service'
+                serviceGroup 'com.palantir.test'
+                mainClass 'com.palantir.gradle.dist.service.ExampleStartupService'
+                checkArgs 'healthcheck'
+                enableCrac true
+            }
+
+            task extractDistTarForTest(type: Copy, dependsOn: distTar) {
+                from { tarTree(distTar.outputs.files.singleFile) }
+                into projectDir
+            }
+        """.stripIndent()
+        Path path = projectDir.toPath().resolve(
+                "src/main/java/com/palantir/gradle/dist/service/ExampleStartupService.java")
+        Files.createDirectories(path.getParent())
+        Files.copy(startupService, path)
+    }
+
+    def 'adds a checkpoint-aware launcher config and crac.sh to the dist'() {
+        given:
+        file('build/fake-jdk/lib/criu') << 'its criu trust me'
+        buildFile << """
+            distribution {
+                javaVersion JavaVersion.VERSION_17
+                jdks.put(JavaVersion.VERSION_17, fileTree('build/fake-jdk'))
+            }
+        """.stripIndent()
+
+        when:
+        runTasks(':extractDistTarForTest')
+
+        then:
+        def binDir = new File(projectDir, 'crac-service-1.0.0/service/bin')
+        def staticConfig = OBJECT_MAPPER.readValue(
+                new File(binDir, 'launcher-static.yml'), LaunchConfig.LaunchConfigInfo)
+        def cracConfig = OBJECT_MAPPER.readValue(
+                new File(binDir, 'launcher-crac.yml'), LaunchConfig.LaunchConfigInfo)
+        def checkConfig = OBJECT_MAPPER.readValue(
+                new File(binDir, 'launcher-check.yml'), LaunchConfig.LaunchConfigInfo)
+        cracConfig.jvmOpts() == staticConfig.jvmOpts() + ['-XX:CRaCCheckpointTo=var/data/crac']
+        cracConfig.mainClass() == staticConfig.mainClass()
+        cracConfig.classpath() == staticConfig.classpath()
+        checkConfig.jvmOpts().every { !it.startsWith('-XX:CRaC') }
+
+        def cracScript = new File(binDir, 'crac.sh')
+        cracScript.canExecute()
+        cracScript.text.contains('JDK_DIR="service/crac-service-jdks/jdk17"')
+        cracScript.text.contains('CHECKPOINT_DIR="var/data/crac"')
+        new File(binDir, 'init.sh').text.contains('STATIC_LAUNCHER_CHECK_CONFIG="service/bin/launcher-check.yml"')
+    }
+
+    def 'fails without a bundled JDK with CRaC support'() {
+        given:
+        file('build/fake-jdk/release') << 'its a jdk trust me'
+        buildFile << """
+            distribution {
+                javaVersion JavaVersion.VERSION_17
+                jdks.put(JavaVersion.VERSION_17, fileTree('build/fake-jdk'))
+            }
+        """.stripIndent()
+
+        when:
+        def result = runTasksAndFail(':createCracScript')
+
+        then:
+        result.output.contains('CRaC needs a bundled JDK with CRaC support')
+    }
+
+    def 'leaves out the CRaC files by default'() {
+        given:
+        buildFile.text = buildFile.text.replace('enableCrac true', '')
+
+        when:
+        runTasks(':extractDistTarForTest')
+
+        then:
+        def binDir = new File(projectDir, 'crac-service-1.0.0/service/bin')
+        new File(binDir, 'launcher-static.yml').exists()
+        !new File(binDir, 'launcher-crac.yml').exists()
+        !new File(binDir, 'crac.sh').exists()
+    }
+
+    /**
+     * Needs a JDK with CRaC support in {@code CRAC_JAVA_HOME}, and the privileges CRIU needs to checkpoint and restore
+     * processes, such as running as root.
+     */
+    @Requires({ System.getenv('CRAC_JAVA_HOME') != null })
+    def 'checkpoints and restores the service'() {
+        given:
+        def cracJavaHome = System.getenv('CRAC_JAVA_HOME')
+        def javaVersion = new File(cracJavaHome, 'release').readLines()
+                .find { it.startsWith('JAVA_VERSION=') }
+                .replaceAll(/JAVA_VERSION="(\d+).*/, '$1')
+        buildFile << """
+            distribution {
+                javaVersion ${javaVersion}
+                jdks.put(JavaVersion.toVersion(${javaVersion}), fileTree('${cracJavaHome}'))
+            }
+        """.stripIndent()
+        runTasks(':extractDistTarForTest')
+
+        when:
+        int checkpointResult = exec('crac-service-1.0.0/service/bin/crac.sh', 'checkpoint').waitFor()
+
+        then:
+        checkpointResult == 0
+        new File(projectDir, 'crac-service-1.0.0/var/data/crac').list().length > 0
+
+        when:
+        startedFile.delete()
+        Process restored = exec('crac-service-1.0.0/service/bin/crac.sh', 'restore')
+
+        then:
+        Awaitility.await("file created by the restored service").atMost(60, TimeUnit.SECONDS).until({
+            startedFile.exists()
+        })
+        exec('crac-service-1.0.0/service/bin/init.sh', 'check').waitFor() == 0
+
+        cleanup:
+        restored?.destroy()
+    }
+
+    private Process exec(String... command) {
+        ProcessBuilder pb = new ProcessBuilder().command(command).directory(projectDir).inheritIO()
+        pb.environment().put("JAVA_HOME", System.getProperty("java.home"))
+        pb.environment().put("STARTED_FILE", startedFile.getAbsolutePath())
+        return pb.start()
+    }
+}
@@ -99,4 +99,49 @@ class DiagnosticsManifestPluginIntegrationSpec extends IntegrationSpec {
           "docs" : "Click me if you dare!"
         } ]""".stripIndent()
     }
+
+    def 'removes duplicates declared by several projects'() {
+        given:
+        buildFile << '''
+        subprojects {
+            apply plugin: 'java-library'
+            repositories {
+              mavenCentral()
+            }
+        }
+        '''
+
+        addSubproject('my-server', '''
+        apply plugin: com.palantir.gradle.dist.service.DiagnosticsManifestPlugin
+        dependencies {
+            implementation project(':my-project1')
+            implementation project(':my-project2')
+        }
+        ''')
+
+        addSubproject('my-project1')
+        addResource("my-project1/src/main/resources/sls-manifest", "diagnostics.json",
+                '[{"type": "shared.v1", "docs" : "Shared", "safe" : true}, {"type": "a.v1", "docs" : "Only one"}]')
+
+        addSubproject('my-project2')
+        addResource("my-project2/src/main/resources/sls-manifest", "diagnostics.json",
+                '[{"safe" : true, "docs" : "Shared", "type": "shared.v1"}, {"type": "a.v1", "docs" : "Only two"}]')
+
+        when:
+        runTasksSuccessfully("my-server:mergeDiagnosticsJson")
+
+        then:
+        file("my-server/build/mergeDiagnosticsJson.json").text == """\
+        [ {
+          "type" : "a.v1",
+          "docs" : "Only one"
+        }, {
+          "type" : "a.v1",
+          "docs" : "Only two"
+        }, {
+          "type" : "shared.v1",
+          "docs" : "Shared",
+          "safe" : true
+        } ]""".stripIndent()
+    }
 }
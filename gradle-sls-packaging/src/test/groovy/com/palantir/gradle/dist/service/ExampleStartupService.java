@@ -0,0 +1,44 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public final class ExampleStartupService {
+
+    /**
+     * A tiny service which is healthy once it has written the file named by {@code STARTED_FILE}, and runs until it is
+     * stopped. The file is written again whenever it is deleted, which shows the service is still running.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path startedFile = Paths.get(System.getenv("STARTED_FILE"));
+        if (args.length > 0 && args[0].equals("healthcheck")) {
+            System.exit(Files.exists(startedFile) ? 0 : 1);
+        }
+        while (true) {
+            if (!Files.exists(startedFile)) {
+                Files.createFile(startedFile);
+            }
+            Thread.sleep(100);
+        }
+    }
+
+    private ExampleStartupService() {}
+}
@@ -127,4 +127,50 @@ class JavaServiceDistributionExtensionTest extends Specification {
         assertJavaHomeAtVersionIs JavaVersion.VERSION_12,   '$JAVA_12_HOME'
         assertJavaHomeAtVersionIs '13', '$JAVA_13_HOME'
     }
+
+    def 'renders no ergonomics flags by default'() {
+        when:
+        def ext = new JavaServiceDistributionExtension(project)
+        ext.javaVersion 17
+
+        then:
+        ext.getErgonomicsJvmOptions().get() == []
+    }
+
+    def 'renders container ergonomics flags for the java version'() {
+        when:
+        def ext = new JavaServiceDistributionExtension(project)
+        ext.javaVersion javaVersion
+        ext.ergonomics.with {
+            directMemoryPercentage 15
+            maxMetaspaceSize '256m'
+            activeProcessorCount 4
+        }
+
+        then:
+        ext.getErgonomicsJvmOptions().get() == expected
+
+        where:
+        javaVersion | expected
+        17          | ['-XX:+UseContainerSupport', '-XX:MaxRAMPercentage=60',
+                       '-XX:MaxMetaspaceSize=256m', '-XX:ActiveProcessorCount=4']
+        8           | ['-XX:+UnlockExperimentalVMOptions', '-XX:+UseCGroupMemoryLimitForHeap', '-XX:MaxRAMFraction=2',
+                       '-XX:MaxMetaspaceSize=256m', '-XX:ActiveProcessorCount=4']
+    }
+
+    def 'rejects a heap percentage that does not leave room for direct memory'() {
+        given:
+        def ext = new JavaServiceDistributionExtension(project)
+        ext.javaVersion 17
+        ext.ergonomics.with {
+            heapPercentage 90
+            directMemoryPercentage 20
+        }
+
+        when:
+        ext.getErgonomicsJvmOptions().get()
+
+        then:
+        thrown(IllegalArgumentException)
+    }
 }
@@ -18,18 +18,23 @@ package com.palantir.gradle.dist.service
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory
 import com.fasterxml.jackson.datatype.guava.GuavaModule
+import com.github.luben.zstd.ZstdInputStream
 import com.palantir.gradle.dist.GradleIntegrationSpec
 import com.palantir.gradle.dist.SlsManifest
 import com.palantir.gradle.dist.Versions
 import com.palantir.gradle.dist.service.tasks.LaunchConfig
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream
+import org.gradle.api.JavaVersion
 import org.gradle.testkit.runner.BuildResult
 import org.gradle.testkit.runner.TaskOutcome
 import org.junit.Assert
 import spock.lang.Unroll
 
+import java.util.concurrent.TimeUnit
 import java.util.jar.Attributes
 import java.util.jar.JarOutputStream
 import java.util.jar.Manifest
+import java.util.zip.GZIPInputStream
 import java.util.zip.ZipFile
 import java.util.zip.ZipOutputStream
 
@@ -667,6 +672,56 @@ class JavaServiceDistributionPluginTests extends GradleIntegrationSpec {
         ])
     }
 
+    def 'renders container ergonomics ahead of gc and default jvm options'() {
+        createUntarBuildFile(buildFile)
+        buildFile << """
+            distribution {
+                javaVersion 17
+                defaultJvmOpts '-XX:MaxRAMPercentage=50'
+                ergonomics {
+                    heapPercentage 70
+                    activeProcessorCount 2
+                }
+            }""".stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+
+        when:
+        runTasks(':createLaunchConfig')
+
+        then:
+        def jvmOpts = OBJECT_MAPPER.readValue(
+                new File(projectDir, 'build/scripts/launcher-static.yml'), LaunchConfig.LaunchConfigInfo).jvmOpts()
+        jvmOpts.containsAll(['-XX:+UseContainerSupport', '-XX:MaxRAMPercentage=70', '-XX:ActiveProcessorCount=2'])
+        jvmOpts.indexOf('-XX:MaxRAMPercentage=70') < jvmOpts.indexOf('-XX:+UseG1GC')
+        jvmOpts.indexOf('-XX:MaxRAMPercentage=70') < jvmOpts.indexOf('-XX:MaxRAMPercentage=50')
+    }
+
+    def 'writes a gc report next to launcher-static.yml for the workload gc profile'() {
+        createUntarBuildFile(buildFile)
+        buildFile << """
+            distribution {
+                javaVersion 21
+                gc 'workload', {
+                    targetPauseMillis 5
+                    liveSetMegabytes 2048
+                    cores 4
+                }
+            }""".stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+
+        when:
+        runTasks(':build', ':distTar', ':untar')
+
+        then:
+        def report = OBJECT_MAPPER.readValue(
+                new File(projectDir, 'dist/service-name-0.0.1/service/bin/gc-report.yml'), Map)
+        report['collector'] == 'zgc'
+        !report['reasons'].isEmpty()
+        def actualStaticConfig = OBJECT_MAPPER.readValue(
+                new File(projectDir, 'dist/service-name-0.0.1/service/bin/launcher-static.yml'), LaunchConfig.LaunchConfigInfo)
+        actualStaticConfig.jvmOpts().containsAll(report['jvmOpts'])
+    }
+
     def 'Uses generational zgc for jdk-21'() {
         createUntarBuildFile(buildFile)
         buildFile << """
@@ -1541,13 +1596,389 @@ class JavaServiceDistributionPluginTests extends GradleIntegrationSpec {
 
         when:
         def res = runTasks(':distTar', ':untar', '--write-locks')
+        def launcherDependencies = runTasks(':dependencies', '--configuration', 'goJavaLauncherBinary')
+        def initDependencies = runTasks(':dependencies', '--configuration', 'goInitBinary')
 
         then:
         // Verify the test version is actually used
         res.output.contains("using test only version override for go-java-launcher: 1.17.0")
 
-        fileExists("dist/service-name-0.0.1/service/bin/go-java-launcher-${goJavaLauncherVersion}/service/bin")
-        fileExists("dist/service-name-0.0.1/service/bin/go-init-${goJavaLauncherVersion}/service/bin")
+        launcherDependencies.output.contains("com.palantir.launching:go-java-launcher:1.17.0 -> ${goJavaLauncherVersion}")
+        initDependencies.output.contains("com.palantir.launching:go-init:1.17.0 -> ${goJavaLauncherVersion}")
+        fileExists("dist/service-name-0.0.1/service/bin/linux-amd64/go-java-launcher")
+        fileExists("dist/service-name-0.0.1/service/bin/linux-amd64/go-init")
+    }
+
+    def 'distTar compressed on multiple threads can be read by tar'() {
+        given:
+        createUntarBuildFile(buildFile)
+        buildFile << """
+            distribution {
+                compressionThreads 4
+            }
+        """.stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+
+        when:
+        runTasks(':distTar')
+
+        then:
+        def tgz = new File(projectDir, 'build/distributions/service-name-0.0.1.sls.tgz')
+        execWithOutput('tar', '-tzf', tgz.absolutePath).readLines().contains(
+                'service-name-0.0.1/service/bin/launcher-static.yml')
+    }
+
+    def 'distTar can be written as an uncompressed tar'() {
+        given:
+        createUntarBuildFile(buildFile)
+        buildFile << """
+            distribution {
+                archiveCodec 'tar'
+            }
+        """.stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+
+        when:
+        runTasks(':distTar')
+
+        then:
+        def tar = new File(projectDir, 'build/distributions/service-name-0.0.1.sls.tar')
+        execWithOutput('tar', '-tf', tar.absolutePath).readLines().contains(
+                'service-name-0.0.1/service/bin/launcher-static.yml')
+    }
+
+    def 'distTar can be compressed with zstd'() {
+        given:
+        createUntarBuildFile(buildFile)
+        buildFile << """
+            distribution {
+                archiveCodec 'zstd'
+                zstdLevel 10
+            }
+        """.stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+
+        when:
+        runTasks(':distTar')
+
+        then:
+        def archive = new File(projectDir, 'build/distributions/service-name-0.0.1.sls.tar.zst')
+        def entries = []
+        new TarArchiveInputStream(new ZstdInputStream(archive.newInputStream())).withCloseable { tar ->
+            for (def entry = tar.nextTarEntry; entry != null; entry = tar.nextTarEntry) {
+                entries.add(entry.name)
+            }
+        }
+        entries.contains('service-name-0.0.1/service/bin/launcher-static.yml')
+    }
+
+    def 'distLayers splits the dist into content addressed layers'() {
+        given:
+        createUntarBuildFile(buildFile)
+        buildFile << """
+            dependencies {
+                implementation "com.google.guava:guava:19.0"
+            }
+        """.stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+
+        when:
+        runTasks(':distTar', ':distLayers')
+
+        then:
+        def layersDir = new File(projectDir, 'build/distributions/layers')
+        def index = new ObjectMapper().readTree(new File(layersDir, 'index.json'))
+        index.get('root-directory').asText() == 'service-name-0.0.1'
+        index.get('layers').collect { it.get('name').asText() } == ['dependencies', 'application', 'config']
+
+        def layerFiles = index.get('layers').collectEntries { layer ->
+            String fileName = layer.get('file').asText()
+            assert fileName == "${layer.get('name').asText()}-${layer.get('sha256').asText()}.sls.tgz"
+            [(layer.get('name').asText()): tarFiles(new File(layersDir, fileName))]
+        }
+        layerFiles['dependencies'].contains('service-name-0.0.1/service/lib/guava-19.0.jar')
+        layerFiles['application'].contains("service-name-0.0.1/service/lib/${projectDir.name}-0.0.1.jar".toString())
+        layerFiles['config'].contains('service-name-0.0.1/service/bin/launcher-static.yml')
+        layerFiles.values().flatten().toSet() == tarFiles(
+                new File(projectDir, 'build/distributions/service-name-0.0.1.sls.tgz')).toSet()
+    }
+
+    def 'targetPlatforms leaves launcher binaries and native libraries of other platforms out of the dist'() {
+        given:
+        createUntarBuildFile(buildFile)
+        buildFile << """
+            distribution {
+                targetPlatforms 'linux-arm64'
+            }
+        """.stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+        file('build/libs/linux-x86-64/libexample.so') << 'amd64'
+        file('build/libs/linux-aarch64/libexample.so') << 'arm64'
+
+        when:
+        runTasks(':distTar')
+
+        then:
+        def files = tarFiles(new File(projectDir, 'build/distributions/service-name-0.0.1.sls.tgz'))
+        files.contains('service-name-0.0.1/service/bin/linux-arm64/go-java-launcher')
+        files.contains('service-name-0.0.1/service/bin/linux-arm64/go-init')
+        files.contains('service-name-0.0.1/service/lib/linux-aarch64/libexample.so')
+        files.findAll { it.contains('amd64') || it.contains('x86-64') }.isEmpty()
+    }
+
+    def 'distTarPerPlatform creates a slim dist for each target platform'() {
+        given:
+        createUntarBuildFile(buildFile)
+        buildFile << """
+            distribution {
+                targetPlatforms 'linux-amd64', 'linux-arm64'
+            }
+        """.stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+        file('build/libs/linux-x86-64/libexample.so') << 'amd64'
+        file('build/libs/linux-aarch64/libexample.so') << 'arm64'
+
+        when:
+        BuildResult result = runTasks(':distTarPerPlatform')
+
+        then:
+        result.task(':distTarDarwinAmd64') == null
+
+        def amd64 = tarFiles(new File(projectDir, 'build/distributions/service-name-0.0.1-linux-amd64.sls.tgz'))
+        amd64.contains('service-name-0.0.1/service/bin/linux-amd64/go-java-launcher')
+        amd64.contains('service-name-0.0.1/service/lib/linux-x86-64/libexample.so')
+        amd64.contains('service-name-0.0.1/service/bin/launcher-static.yml')
+        amd64.findAll { it.contains('arm64') || it.contains('aarch64') || it.contains('darwin') }.isEmpty()
+
+        def arm64 = tarFiles(new File(projectDir, 'build/distributions/service-name-0.0.1-linux-arm64.sls.tgz'))
+        arm64.contains('service-name-0.0.1/service/bin/linux-arm64/go-java-launcher')
+        arm64.contains('service-name-0.0.1/service/lib/linux-aarch64/libexample.so')
+        arm64.findAll { it.contains('amd64') || it.contains('x86-64') }.isEmpty()
+    }
+
+    def 'reproducible distTar does not depend on file timestamps or the user building it'() {
+        given:
+        createUntarBuildFile(buildFile)
+        buildFile << """
+            distribution {
+                reproducible true
+            }
+
+            jar {
+                preserveFileTimestamps = false
+                reproducibleFileOrder = true
+            }
+        """.stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+        file('var/conf/service-name.yml') << "server: {}"
+        def tgz = new File(projectDir, 'build/distributions/service-name-0.0.1.sls.tgz')
+
+        when:
+        runTasks(':distTar')
+        byte[] firstBuild = tgz.bytes
+        new File(projectDir, 'var/conf/service-name.yml').setLastModified(0)
+        runTasks(':distTar', '--rerun-tasks')
+
+        then:
+        tgz.bytes == firstBuild
+        def entries = []
+        new TarArchiveInputStream(new GZIPInputStream(tgz.newInputStream())).withCloseable { tar ->
+            for (def entry = tar.nextTarEntry; entry != null; entry = tar.nextTarEntry) {
+                entries.add(entry)
+            }
+        }
+        entries.every { it.userName == '' && it.groupName == '' && it.longUserId == 0 && it.longGroupId == 0 }
+        entries.every { it.modTime.time == TimeUnit.DAYS.toMillis(1) }
+        entries.find { it.name == 'service-name-0.0.1/service/bin/init.sh' }.mode == 0100755
+    }
+
+    def 'distTar keeps file timestamps and modes when not reproducible'() {
+        given:
+        createUntarBuildFile(buildFile)
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+        file('var/conf/service-name.yml') << "server: {}"
+        long lastModified = TimeUnit.DAYS.toMillis(365)
+        new File(projectDir, 'var/conf/service-name.yml').setLastModified(lastModified)
+
+        when:
+        runTasks(':distTar')
+
+        then:
+        def tgz = new File(projectDir, 'build/distributions/service-name-0.0.1.sls.tgz')
+        def entries = []
+        new TarArchiveInputStream(new GZIPInputStream(tgz.newInputStream())).withCloseable { tar ->
+            for (def entry = tar.nextTarEntry; entry != null; entry = tar.nextTarEntry) {
+                entries.add(entry)
+            }
+        }
+        entries.find { it.name == 'service-name-0.0.1/var/conf/service-name.yml' }.modTime.time == lastModified
+        entries.find { it.name == 'service-name-0.0.1/service/bin/init.sh' }.mode == 0100755
+    }
+
+    def 'distTar and configTar are loaded from the build cache'() {
+        given:
+        createUntarBuildFile(buildFile)
+        settingsFile << """
+            buildCache {
+                local {
+                    directory = file('build-cache')
+                }
+            }
+        """.stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+
+        when:
+        runTasks('--build-cache', ':distTar', ':configTar')
+        runTasks(':clean')
+        BuildResult result = runTasks('--build-cache', ':distTar', ':configTar')
+
+        then:
+        result.task(':distTar').outcome == TaskOutcome.FROM_CACHE
+        result.task(':configTar').outcome == TaskOutcome.FROM_CACHE
+    }
+
+    private List<String> tarFiles(File tgz) {
+        return execWithOutput('tar', '-tzf', tgz.absolutePath).readLines().findAll { !it.endsWith('/') }
+    }
+
+    def 'creates an AppCDS archive with the bundled jdk and references it from launcher-static.yml'() {
+        given:
+        createUntarBuildFile(buildFile)
+        def javaVersion = JavaVersion.current().majorVersion
+        buildFile << """
+            distribution {
+                javaVersion ${javaVersion}
+                jdks.put(JavaVersion.toVersion(${javaVersion}), fileTree('${System.getProperty('java.home')}'))
+                enableAppCds true
+                appCdsTrainingSeconds 30
+            }
+        """.stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test { public static void main(String[] args) {} }"
+
+        when:
+        runTasks(':createAppCdsArchive', ':createLaunchConfig')
+
+        then:
+        new File(projectDir, 'build/appcds/service-name.jsa').isFile()
+        def actualStaticConfig = OBJECT_MAPPER.readValue(
+                new File(projectDir, 'build/scripts/launcher-static.yml'), LaunchConfig.LaunchConfigInfo)
+        actualStaticConfig.jvmOpts().contains('-XX:SharedArchiveFile=service/cds/service-name.jsa')
+    }
+
+    def 'recreates the AppCDS archive when a jar is rewritten with the same contents'() {
+        given:
+        createUntarBuildFile(buildFile)
+        def javaVersion = JavaVersion.current().majorVersion
+        buildFile << """
+            distribution {
+                javaVersion ${javaVersion}
+                jdks.put(JavaVersion.toVersion(${javaVersion}), fileTree('${System.getProperty('java.home')}'))
+                enableAppCds true
+                appCdsTrainingSeconds 30
+            }
+        """.stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test { public static void main(String[] args) {} }"
+
+        when:
+        runTasks(':createAppCdsArchive')
+        File jar = new File(projectDir, 'build/libs').listFiles().find { it.name.endsWith('.jar') }
+        jar.setLastModified(jar.lastModified() - TimeUnit.HOURS.toMillis(1))
+        BuildResult result = runTasks(':createAppCdsArchive')
+
+        then:
+        result.task(':createAppCdsArchive').outcome == TaskOutcome.SUCCESS
+    }
+
+    def 'runs the AppCDS training with the jvm options and environment of launcher-static.yml'() {
+        given:
+        createUntarBuildFile(buildFile)
+        def javaVersion = JavaVersion.current().majorVersion
+        buildFile << """
+            distribution {
+                javaVersion ${javaVersion}
+                jdks.put(JavaVersion.toVersion(${javaVersion}), fileTree('${System.getProperty('java.home')}'))
+                enableAppCds true
+                appCdsTrainingSeconds 30
+                defaultJvmOpts '-Dtraining.opt=from-jvm-opts'
+                env "TRAINING_ENV": "from-env"
+            }
+        """.stripIndent()
+        file('src/main/java/test/Test.java') << """
+            package test;
+            import java.nio.file.*;
+            public class Test {
+                public static void main(String[] args) throws Exception {
+                    Files.write(Paths.get(System.getProperty("java.io.tmpdir"), "training.txt"),
+                            (System.getProperty("training.opt") + " " + System.getenv("TRAINING_ENV")).getBytes());
+                }
+            }
+        """.stripIndent()
+
+        when:
+        runTasks(':createAppCdsArchive')
+
+        then:
+        new File(projectDir, 'build/appcds/training/var/data/tmp/training.txt').text == 'from-jvm-opts from-env'
+    }
+
+    def 'does not reference an AppCDS archive by default'() {
+        given:
+        createUntarBuildFile(buildFile)
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+
+        when:
+        BuildResult result = runTasks(':createLaunchConfig')
+
+        then:
+        !result.task(':createAppCdsArchive')
+        def actualStaticConfig = OBJECT_MAPPER.readValue(
+                new File(projectDir, 'build/scripts/launcher-static.yml'), LaunchConfig.LaunchConfigInfo)
+        actualStaticConfig.jvmOpts().every { !it.startsWith('-XX:SharedArchiveFile') }
+    }
+
+    def 'references an AOT cache instead of an AppCDS archive from java 24'() {
+        given:
+        createUntarBuildFile(buildFile)
+        buildFile << '''
+            distribution {
+                javaVersion 24
+                enableAppCds true
+                enableAotCache true
+            }
+        '''.stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+
+        when:
+        runTasks(':createLaunchConfig')
+
+        then:
+        def actualStaticConfig = OBJECT_MAPPER.readValue(
+                new File(projectDir, 'build/scripts/launcher-static.yml'), LaunchConfig.LaunchConfigInfo)
+        actualStaticConfig.jvmOpts().contains('-XX:AOTCache=service/aot/service-name.aot')
+        actualStaticConfig.jvmOpts().every { !it.startsWith('-XX:SharedArchiveFile') }
+    }
+
+    def 'ignores enableAotCache before java 24'() {
+        given:
+        createUntarBuildFile(buildFile)
+        buildFile << '''
+            distribution {
+                javaVersion 21
+                enableAppCds true
+                enableAotCache true
+            }
+        '''.stripIndent()
+        file('src/main/java/test/Test.java') << "package test;\npublic class Test {}"
+
+        when:
+        BuildResult result = runTasks(':createLaunchConfig')
+
+        then:
+        !result.task(':createAotCache')
+        def actualStaticConfig = OBJECT_MAPPER.readValue(
+                new File(projectDir, 'build/scripts/launcher-static.yml'), LaunchConfig.LaunchConfigInfo)
+        actualStaticConfig.jvmOpts().contains('-XX:SharedArchiveFile=service/cds/service-name.jsa')
+        actualStaticConfig.jvmOpts().every { !it.startsWith('-XX:AOTCache') }
     }
 
     private static createUntarBuildFile(File buildFile) {
@@ -173,6 +173,31 @@ class JdksInDistsIntegrationSpec extends IntegrationSpec {
         launcherStatic.contains 'JAVA_17_HOME: "service/myService-jdks/jdk17"'
     }
 
+    def 'extracts jdk archives into the dist'() {
+        given:
+        file('build/jdk-archive/jdk-17.0.9/release') << 'its an archived jdk trust me'
+        file('build/jdk-archive/jdk-17.0.9/bin/java') << 'java'
+        ArchiverFactory.createArchiver(ArchiveFormat.TAR, CompressionType.GZIP)
+                .create('jdk-17.0.9.tar.gz', file('build'), file('build/jdk-archive/jdk-17.0.9'))
+
+        // language=gradle
+        buildFile << '''
+            distribution {
+                javaVersion JavaVersion.VERSION_17
+                jdks.put(JavaVersion.VERSION_17, file('build/jdk-17.0.9.tar.gz'))
+            }
+        '''.stripIndent(true)
+
+        when:
+        runTasksSuccessfully('distTar')
+
+        then:
+        def jdkDir = new File(extractDist(), "service/myService-jdks/jdk17")
+        new File(jdkDir, "release").text.contains 'its an archived jdk trust me'
+        new File(jdkDir, "bin/java").exists()
+        !new File(jdkDir, "jdk-17.0.9.tar.gz").exists()
+    }
+
     private File extractDist() {
         def slsTgz = new File(projectDir, "build/distributions/myService-1.0.0.sls.tgz")
         def extracted = new File(slsTgz.getParent(), "extracted")
@@ -0,0 +1,159 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service
+
+import nebula.test.IntegrationSpec
+import org.gradle.api.JavaVersion
+import org.rauschig.jarchivelib.ArchiveFormat
+import org.rauschig.jarchivelib.ArchiverFactory
+import org.rauschig.jarchivelib.CompressionType
+import spock.lang.Requires
+
+class JlinkIntegrationSpec extends IntegrationSpec {
+    def setup() {
+        // language=gradle
+        settingsFile << '''
+            rootProject.name = 'myService'
+        '''.stripIndent(true)
+
+        // language=gradle
+        buildFile << '''
+            apply plugin: 'java'
+            apply plugin: 'com.palantir.sls-java-service-distribution'
+
+            repositories {
+                mavenCentral()
+            }
+
+            dependencies {
+                // A modular jar, whose requires are not all on the classpath
+                implementation 'com.google.guava:guava:33.4.6-jre'
+            }
+
+            group 'group'
+            version '1.0.0'
+
+            distribution {
+                javaVersion JavaVersion.current()
+                jdks.put(JavaVersion.current(), fileTree(System.getProperty('java.home')))
+                mainClass 'app.Main'
+                jlink {
+                    enabled true
+                }
+            }
+        '''.stripIndent(true)
+
+        file('versions.lock')
+
+        // language=java
+        writeJavaSourceFile '''
+            package app;
+
+            import com.google.common.collect.ImmutableList;
+            import java.sql.Timestamp;
+
+            public class Main {
+                public static void main(String... args) {
+                    System.out.println(ImmutableList.of(new Timestamp(0)));
+                }
+            }
+        '''.stripIndent(true)
+    }
+
+    def 'ships a runtime image with only the modules the service uses'() {
+        // language=gradle
+        buildFile << '''
+            distribution.jlink {
+                addModules 'jdk.crypto.ec'
+            }
+        '''.stripIndent(true)
+
+        when:
+        runTasksSuccessfully('distTar')
+
+        then:
+        file('build/jlink/modules.txt').readLines().containsAll(['java.base', 'java.sql', 'jdk.crypto.ec'])
+
+        def jdkDir = new File(extractDist(), "service/myService-jdks/jdk${JavaVersion.current().majorVersion}")
+        def modules = new File(jdkDir, 'release').readLines().find { it.startsWith('MODULES=') }
+        modules.contains 'java.sql'
+        modules.contains 'jdk.crypto.ec'
+        !modules.contains('java.desktop')
+        !modules.contains('jdk.compiler')
+        new File(jdkDir, 'bin/java').canExecute()
+    }
+
+    def 'reuses the runtime image when the classpath changes but the modules do not'() {
+        when:
+        runTasksSuccessfully('createJlinkImage')
+        writeJavaSourceFile '''
+            package app;
+
+            public class Other {}
+        '''.stripIndent(true)
+        def result = runTasksSuccessfully('createJlinkImage')
+
+        then:
+        result.wasExecuted(':resolveJdkModules')
+        result.wasUpToDate(':createJlinkImage')
+    }
+
+    @Requires({ JavaVersion.current().isCompatibleWith(JavaVersion.VERSION_13) })
+    def 'trains an AppCDS archive against the runtime image'() {
+        // language=gradle
+        buildFile << '''
+            distribution {
+                enableAppCds true
+                appCdsTrainingSeconds 30
+            }
+        '''.stripIndent(true)
+
+        when:
+        def result = runTasksSuccessfully('createAppCdsArchive')
+
+        then:
+        result.wasExecuted(':createJlinkImage')
+        // Dynamic archives are layered on the base CDS archive of the image, which jlink only creates from Java 21
+        file('build/jlink/image/lib/server/classes.jsa').isFile()
+        file('build/appcds/myService.jsa').isFile()
+    }
+
+    def 'ships the bundled jdk when jlink is not enabled'() {
+        // language=gradle
+        buildFile << '''
+            distribution.jlink {
+                enabled false
+            }
+        '''.stripIndent(true)
+
+        when:
+        def result = runTasksSuccessfully('distTar')
+
+        then:
+        !result.wasExecuted(':createJlinkImage')
+    }
+
+    private File extractDist() {
+        def slsTgz = new File(projectDir, "build/distributions/myService-1.0.0.sls.tgz")
+        def extracted = new File(slsTgz.getParent(), "extracted")
+
+        ArchiverFactory.createArchiver(ArchiveFormat.TAR, CompressionType.GZIP)
+                .extract(slsTgz, extracted)
+
+        return new File(extracted, "myService-1.0.0")
+    }
+}
@@ -20,6 +20,7 @@ import com.fasterxml.jackson.dataformat.yaml.YAMLFactory
 import com.fasterxml.jackson.datatype.guava.GuavaModule
 import com.palantir.gradle.dist.GradleIntegrationSpec
 import com.palantir.gradle.dist.service.tasks.LaunchConfig
+import org.gradle.testkit.runner.TaskOutcome
 import org.gradle.testkit.runner.UnexpectedBuildFailure
 
 class MainClassInferenceIntegrationSpec extends GradleIntegrationSpec {
@@ -113,6 +114,62 @@ class MainClassInferenceIntegrationSpec extends GradleIntegrationSpec {
         actualStaticConfig.mainClass() == "test.Test"
     }
 
+    def 'ignores main methods in comments and strings'() {
+        given:
+        buildFile << """
+            distribution {
+                serviceName 'service-name'
+                gc 'hybrid'
+            }
+            ${unTarTask('service-name')}
+        """.stripIndent()
+        file('src/main/java/test/Test.java') << mainClass('Test')
+        file('src/main/java/test/NotMain.java') << '''
+        package test;
+        public class NotMain {
+            // public static void main(String[] args) {}
+            private static final String MAIN = "public static void main(";
+
+            public void main(String[] args) {}
+        }
+        '''.stripIndent()
+
+        when:
+        runTasks(':untar')
+
+        then:
+        def actualStaticConfig = OBJECT_MAPPER.readValue(
+                file('dist/service-name-0.0.1/service/bin/launcher-static.yml'), LaunchConfig.LaunchConfigInfo)
+        actualStaticConfig.mainClass() == "test.Test"
+    }
+
+    def 'main class is only resolved again when the classes change'() {
+        given:
+        buildFile << '''
+            distribution {
+                serviceName 'service-name'
+            }
+        '''.stripIndent()
+        file('src/main/java/test/Test.java') << mainClass('Test')
+
+        when:
+        runTasks(':createLaunchConfig')
+        def result = runTasks(':createLaunchConfig')
+
+        then:
+        result.task(':resolveMainClass').outcome == TaskOutcome.UP_TO_DATE
+        file('build/main-class/main-class.txt').text == 'test.Test'
+
+        when:
+        file('src/main/java/test/Test.java').delete()
+        file('src/main/java/test/Other.java') << mainClass('Other')
+        result = runTasks(':createLaunchConfig')
+
+        then:
+        result.task(':resolveMainClass').outcome == TaskOutcome.SUCCESS
+        file('build/main-class/main-class.txt').text == 'test.Other'
+    }
+
     def unTarTask(String serviceName) {
         return """
         // most convenient way to untar the dist is to use gradle
@@ -140,6 +197,8 @@ class MainClassInferenceIntegrationSpec extends GradleIntegrationSpec {
         package test;
         import com.palantir.atlasdb.table.description.Schema;
         public class ${className} {
+            private static final Schema SCHEMA = null;
+
             public static void main(String[] args) {
                 while(true);
             }
@@ -0,0 +1,98 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.palantir.gradle.dist.GradleIntegrationSpec
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import org.gradle.testkit.runner.TaskOutcome
+
+class ProfileStartupIntegrationSpec extends GradleIntegrationSpec {
+
+    static Path startupService = Paths.get("src/test/groovy/com/palantir/gradle/dist/service/ExampleStartupService.java")
+    File startedFile
+
+    def setup() {
+        startedFile = new File(getProjectDir(), "example-startup-service-started")
+        buildFile << """
+            plugins {
+                id 'com.palantir.sls-java-service-distribution'
+            }
+
+            repositories {
+                mavenCentral()
+            }
+
+            project.version = '1.0.0'
+
+            distribution {
+                serviceName 'startup-service'
+                serviceGroup 'com.palantir.test'
+                mainClass 'com.palantir.gradle.dist.service.ExampleStartupService'
+                checkArgs 'healthcheck'
+            }
+
+            profileStartup {
+                environment.put('STARTED_FILE', '${startedFile.getAbsolutePath()}')
+            }
+        """.stripIndent()
+        Path path = projectDir.toPath().resolve(
+                "src/main/java/com/palantir/gradle/dist/service/ExampleStartupService.java")
+        Files.createDirectories(path.getParent())
+        Files.copy(startupService, path)
+    }
+
+    def 'profiles startup of the dist'() {
+        when:
+        def result = runTasks(':profileStartup')
+
+        then:
+        result.task(':distTar') != null
+        startedFile.exists()
+        def report = new ObjectMapper().readTree(new File(projectDir, 'build/startup-profile/report.json'))
+        report.get('service-name').asText() == 'startup-service'
+        report.get('main-class').asText() == 'com.palantir.gradle.dist.service.ExampleStartupService'
+        report.get('time-to-main-millis').asLong() > 0
+        report.get('time-to-healthy-millis').asLong() >= report.get('time-to-main-millis').asLong()
+        report.get('classes-loaded').asInt() > 0
+        report.get('rss-bytes').asLong() > 0
+    }
+
+    def 'reruns every time'() {
+        when:
+        runTasks(':profileStartup')
+        startedFile.delete()
+        def result = runTasks(':profileStartup')
+
+        then:
+        result.task(':profileStartup').outcome == TaskOutcome.SUCCESS
+        startedFile.exists()
+    }
+
+    def 'fails without a health check'() {
+        given:
+        buildFile.text = buildFile.text.replace("checkArgs 'healthcheck'", '')
+
+        when:
+        def result = runTasksAndFail(':profileStartup')
+
+        then:
+        result.output.contains('Startup can only be profiled for services with a health check')
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.gc
+
+import org.gradle.api.JavaVersion
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class GcProfileWorkloadTest extends Specification {
+
+    @Unroll
+    def 'chooses #collector for a #pause ms pause target on java #javaVersion with a #liveSet MB live set'() {
+        given:
+        def profile = new GcProfile.Workload()
+        profile.targetPauseMillis(pause)
+        profile.liveSetMegabytes(liveSet)
+
+        expect:
+        profile.report(JavaVersion.toVersion(javaVersion)).collector() == collector
+
+        where:
+        pause | javaVersion | liveSet | collector
+        2000  | 17          | 0       | 'parallel'
+        200   | 8           | 0       | 'g1'
+        200   | 21          | 0       | 'g1'
+        5     | 21          | 0       | 'zgc'
+        5     | 17          | 32768   | 'zgc'
+        5     | 17          | 1024    | 'shenandoah'
+        5     | 13          | 1024    | 'shenandoah'
+        5     | 11          | 1024    | 'g1'
+    }
+
+    def 'sizes g1 regions from the live set and threads from the cores'() {
+        given:
+        def profile = new GcProfile.Workload()
+        profile.targetPauseMillis(100)
+        profile.allocationRate('high')
+        profile.liveSetMegabytes(8192)
+        profile.cores(16)
+
+        when:
+        def report = profile.report(JavaVersion.VERSION_17)
+
+        then:
+        // 8GB live set * 4 headroom = 32GB heap, which 16MB regions split into 2048 regions
+        report.jvmOpts() == [
+                '-XX:+UseG1GC',
+                '-XX:+UseNUMA',
+                '-XX:MaxGCPauseMillis=100',
+                '-XX:G1HeapRegionSize=16m',
+                '-XX:ParallelGCThreads=13',
+                '-XX:ConcGCThreads=8']
+        report.reasons().size() == 3
+    }
+
+    def 'caps g1 regions at 32m before java 18'() {
+        given:
+        def profile = new GcProfile.Workload()
+        profile.liveSetMegabytes(65536)
+
+        expect:
+        profile.report(JavaVersion.VERSION_17).jvmOpts().contains('-XX:G1HeapRegionSize=32m')
+        profile.report(JavaVersion.toVersion(21)).jvmOpts().contains('-XX:G1HeapRegionSize=128m')
+    }
+
+    def 'sets a soft max heap size for zgc'() {
+        given:
+        def profile = new GcProfile.Workload()
+        profile.targetPauseMillis(1)
+        profile.allocationRate('low')
+        profile.liveSetMegabytes(4096)
+
+        expect:
+        profile.gcJvmOpts(JavaVersion.toVersion(21)) == [
+                '-XX:+UseZGC', '-XX:+ZGenerational', '-XX:+ExplicitGCInvokesConcurrent', '-XX:SoftMaxHeapSize=8192m']
+        profile.gcJvmOpts(JavaVersion.toVersion(25)) == [
+                '-XX:+UseZGC', '-XX:+ExplicitGCInvokesConcurrent', '-XX:SoftMaxHeapSize=8192m']
+    }
+
+    def 'rejects unknown allocation rates'() {
+        when:
+        new GcProfile.Workload().allocationRate('extreme')
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
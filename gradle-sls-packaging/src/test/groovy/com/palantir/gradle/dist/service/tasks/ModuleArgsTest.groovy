@@ -0,0 +1,95 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.service.tasks
+
+import java.util.jar.Attributes
+import java.util.jar.JarOutputStream
+import java.util.jar.Manifest
+import org.gradle.api.JavaVersion
+import org.gradle.api.Project
+import org.gradle.testfixtures.ProjectBuilder
+import spock.lang.Specification
+
+class ModuleArgsTest extends Specification {
+    private Project project
+    private JarModuleInfoService jarModuleInfo
+
+    def setup() {
+        project = ProjectBuilder.builder().build()
+        jarModuleInfo = JarModuleInfoService.register(project).get()
+    }
+
+    def cleanup() {
+        jarModuleInfo.close()
+    }
+
+    def 'collects exports and opens from many jars'() {
+        given:
+        def jars = (0..<50).collect { i ->
+            writeJar("lib-${i}.jar", ['Add-Exports': "java.base/pkg${i % 5}", 'Add-Opens': 'java.base/java.lang'])
+        }
+        jars << writeJar('no-attributes.jar', [:])
+        def notAJar = project.file('config.yml')
+        notAJar.text = 'foo: bar'
+
+        when:
+        def args = ModuleArgs.collectClasspathArgs(
+                JavaVersion.VERSION_17, project.files(jars, notAJar), jarModuleInfo)
+
+        then:
+        args == [
+                '--add-exports', 'java.base/pkg0=ALL-UNNAMED',
+                '--add-exports', 'java.base/pkg1=ALL-UNNAMED',
+                '--add-exports', 'java.base/pkg2=ALL-UNNAMED',
+                '--add-exports', 'java.base/pkg3=ALL-UNNAMED',
+                '--add-exports', 'java.base/pkg4=ALL-UNNAMED',
+                '--add-exports', 'java.management/sun.management=ALL-UNNAMED',
+                '--add-opens', 'java.base/java.lang=ALL-UNNAMED']
+    }
+
+    def 'rereads jars that have changed since they were cached'() {
+        given:
+        def jar = writeJar('changing.jar', ['Add-Exports': 'java.base/first'])
+        ModuleArgs.collectClasspathArgs(JavaVersion.VERSION_17, project.files(jar), jarModuleInfo)
+
+        when:
+        writeJar('changing.jar', ['Add-Exports': 'java.base/second.pkg'])
+        jar.setLastModified(jar.lastModified() + 10_000)
+        def args = ModuleArgs.collectClasspathArgs(JavaVersion.VERSION_17, project.files(jar), jarModuleInfo)
+
+        then:
+        args.contains('java.base/second.pkg=ALL-UNNAMED')
+        !args.contains('java.base/first=ALL-UNNAMED')
+    }
+
+    def 'skips scanning before java 16'() {
+        given:
+        def jar = writeJar('lib.jar', ['Add-Exports': 'java.base/pkg'])
+
+        expect:
+        ModuleArgs.collectClasspathArgs(JavaVersion.VERSION_11, project.files(jar), jarModuleInfo).isEmpty()
+    }
+
+    private File writeJar(String name, Map<String, String> attributes) {
+        Manifest manifest = new Manifest()
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, '1.0')
+        attributes.each { key, value -> manifest.getMainAttributes().putValue(key, value) }
+        File jar = project.file(name)
+        jar.withOutputStream { new JarOutputStream(it, manifest).close() }
+        return jar
+    }
+}
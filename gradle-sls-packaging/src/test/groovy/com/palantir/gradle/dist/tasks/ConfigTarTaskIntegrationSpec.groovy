@@ -43,6 +43,22 @@ class ConfigTarTaskIntegrationSpec extends IntegrationSpec {
         fileExists('build/distributions/foo-asset-0.0.1.asset.config.tgz')
     }
 
+    def 'configTar task uses the archive codec of the distribution'() {
+        setup:
+        createUntarBuildFile(buildFile, "java-service", "service", "foo-service")
+        buildFile << """
+            distribution {
+                archiveCodec 'zstd'
+            }
+        """.stripIndent()
+
+        when:
+        runTasksSuccessfully(':configTar')
+
+        then:
+        fileExists('build/distributions/foo-service-0.0.1.service.config.tar.zst')
+    }
+
     def 'configTar task contains the necessary deployment files for services'() {
         setup:
         createUntarBuildFile(buildFile, "java-service", "service", "foo-service")
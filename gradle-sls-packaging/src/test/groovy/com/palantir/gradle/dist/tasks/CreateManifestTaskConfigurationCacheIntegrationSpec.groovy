@@ -0,0 +1,159 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.tasks
+
+import com.palantir.gradle.dist.GradleIntegrationSpec
+import com.palantir.gradle.dist.ObjectMappers
+import com.palantir.gradle.dist.pdeps.ResolveProductDependenciesIntegrationSpec
+
+class CreateManifestTaskConfigurationCacheIntegrationSpec extends GradleIntegrationSpec {
+    private static final String LOCK_FILE = '''\
+        # Run ./gradlew writeProductDependenciesLocks to regenerate this file
+        group1:name1 (1.0.0, 1.3.x)
+        '''.stripIndent()
+
+    def setup() {
+        buildFile << """
+            plugins {
+                id 'com.palantir.sls-asset-distribution'
+            }
+
+            version '1.0.0'
+
+            distribution {
+                serviceName 'asset-name'
+                serviceGroup 'service-group'
+                ${ResolveProductDependenciesIntegrationSpec.PDEP}
+            }
+        """.stripIndent()
+    }
+
+    def 'creates the manifest when reusing the configuration cache'() {
+        given:
+        file('product-dependencies.lock').text = LOCK_FILE
+
+        when:
+        runTasks('createManifest', '--configuration-cache')
+        new File(projectDir, 'build/deployment/manifest.yml').delete()
+        def result = runTasks('createManifest', '--configuration-cache')
+
+        then:
+        result.output.contains('Reusing configuration cache.')
+        def manifest = ObjectMappers.jsonMapper.readValue(new File(projectDir, 'build/deployment/manifest.yml'), Map)
+        manifest.get('product-version') == '1.0.0'
+        manifest.get('extensions').get('product-dependencies')*.get('product-name') == ['name1']
+    }
+
+    def 'checks the lock file when reusing the configuration cache'() {
+        given:
+        file('product-dependencies.lock').text = LOCK_FILE
+        runTasks('createManifest', '--configuration-cache')
+
+        when:
+        file('product-dependencies.lock').text = LOCK_FILE.replace('1.3.x', '1.4.x')
+        def result = runTasksAndFail('createManifest', '--configuration-cache')
+
+        then:
+        result.output.contains('Reusing configuration cache.')
+        result.output.contains('product-dependencies.lock is out of date, please run '
+                + '`./gradlew writeProductDependenciesLocks` to update it')
+    }
+
+    def 'writes locks with the configuration cache'() {
+        when:
+        runTasks('writeProductDependenciesLocks', '--configuration-cache')
+
+        then:
+        new File(projectDir, 'product-dependencies.lock').text == LOCK_FILE
+
+        when:
+        runTasks('createManifest', '--configuration-cache')
+
+        then:
+        fileExists('build/deployment/manifest.yml')
+    }
+
+    def 'creates and checks the java service manifest when reusing the configuration cache'() {
+        given:
+        useJavaServiceDistribution()
+        file('product-dependencies.lock').text = LOCK_FILE
+
+        when:
+        runTasks('createManifest', '--configuration-cache')
+        new File(projectDir, 'build/deployment/manifest.yml').delete()
+        def result = runTasks('createManifest', '--configuration-cache')
+
+        then:
+        result.output.contains('Reusing configuration cache.')
+        def manifest = ObjectMappers.jsonMapper.readValue(new File(projectDir, 'build/deployment/manifest.yml'), Map)
+        manifest.get('product-type') == 'service.v1'
+        manifest.get('extensions').get('product-dependencies')*.get('product-name') == ['name1']
+
+        when:
+        file('product-dependencies.lock').text = LOCK_FILE.replace('1.3.x', '1.4.x')
+        result = runTasksAndFail('createManifest', '--configuration-cache')
+
+        then:
+        result.output.contains('Reusing configuration cache.')
+        result.output.contains('product-dependencies.lock is out of date, please run '
+                + '`./gradlew writeProductDependenciesLocks` to update it')
+    }
+
+    def 'writes java service locks with --write-locks and the configuration cache'() {
+        given:
+        useJavaServiceDistribution()
+
+        when:
+        runTasks('--write-locks', '--configuration-cache')
+
+        then:
+        new File(projectDir, 'product-dependencies.lock').text == LOCK_FILE
+
+        when:
+        runTasks('--write-locks', '--configuration-cache')
+        def result = runTasks('--write-locks', '--configuration-cache')
+
+        then:
+        result.output.contains('Reusing configuration cache.')
+        new File(projectDir, 'product-dependencies.lock').text == LOCK_FILE
+
+        when:
+        runTasks('createManifest', '--configuration-cache')
+        result = runTasks('createManifest', '--configuration-cache')
+
+        then:
+        result.output.contains('Reusing configuration cache.')
+        fileExists('build/deployment/manifest.yml')
+    }
+
+    private void useJavaServiceDistribution() {
+        buildFile.text = """
+            plugins {
+                id 'com.palantir.sls-java-service-distribution'
+            }
+
+            version '1.0.0'
+
+            distribution {
+                serviceName 'service-name'
+                serviceGroup 'service-group'
+                mainClass 'test.Test'
+                ${ResolveProductDependenciesIntegrationSpec.PDEP}
+            }
+        """.stripIndent()
+    }
+}
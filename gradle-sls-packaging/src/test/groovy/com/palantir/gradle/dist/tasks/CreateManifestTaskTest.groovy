@@ -29,7 +29,7 @@ class CreateManifestTaskTest extends ProjectSpec {
         CreateManifestTask task = project.tasks.create("m", CreateManifestTask)
 
         then:
-        task.getProjectVersion() == "1.0.0"
+        task.getProjectVersion().get() == "1.0.0"
     }
 
     def 'Cannot create CreateManifestTask when product.version is invalid SLS version'() {
@@ -0,0 +1,90 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.tasks
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.zip.GZIPInputStream
+
+class ParallelGzipOutputStreamTest extends Specification {
+
+    @Unroll
+    def 'round trips #size bytes through gzip with #threads threads'() {
+        given:
+        byte[] input = sampleData(size)
+
+        when:
+        byte[] compressed = compress(input, threads)
+
+        then:
+        new GZIPInputStream(new ByteArrayInputStream(compressed)).bytes == input
+
+        where:
+        [size, threads] << [
+                [0, 1, 1000, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE + 1, 3_000_000],
+                [1, 4]
+        ].combinations()
+    }
+
+    def 'output does not depend on the number of threads'() {
+        given:
+        byte[] input = sampleData(2_000_000)
+
+        expect:
+        compress(input, 1) == compress(input, 3)
+        compress(input, 1) == compress(input, 8)
+    }
+
+    def 'writes single bytes'() {
+        given:
+        def baos = new ByteArrayOutputStream()
+
+        when:
+        new ParallelGzipOutputStream(baos, 2).withCloseable { out ->
+            'hello world'.bytes.each { out.write(it) }
+        }
+
+        then:
+        new GZIPInputStream(new ByteArrayInputStream(baos.toByteArray())).text == 'hello world'
+    }
+
+    def 'rejects non-positive thread counts'() {
+        when:
+        new ParallelGzipOutputStream(new ByteArrayOutputStream(), 0)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private static byte[] compress(byte[] input, int threads) {
+        def baos = new ByteArrayOutputStream()
+        new ParallelGzipOutputStream(baos, threads).withCloseable { it.write(input) }
+        return baos.toByteArray()
+    }
+
+    /** Mix of repetitive and random data, so that both the dictionary and the block boundaries matter. */
+    private static byte[] sampleData(int size) {
+        def random = new Random(42)
+        byte[] data = new byte[size]
+        byte[] text = 'public static void main(String[] args) '.bytes
+        for (int i = 0; i < size; i++) {
+            data[i] = i.intdiv(4096) % 2 == 0 ? text[i % text.length] : (byte) random.nextInt(256)
+        }
+        return data
+    }
+}
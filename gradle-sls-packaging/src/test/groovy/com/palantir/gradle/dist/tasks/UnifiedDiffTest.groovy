@@ -0,0 +1,115 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.gradle.dist.tasks
+
+import spock.lang.Specification
+
+class UnifiedDiffTest extends Specification {
+
+    def 'renders changes to a lock file like diff -u'() {
+        given:
+        def existing = '''\
+            # Run ./gradlew writeProductDependenciesLocks to regenerate this file
+            com.palantir.a:a (1.0.0, 1.x.x)
+            com.palantir.b:b (2.0.0, 2.x.x)
+            com.palantir.c:c (1.0.0, 1.x.x)
+            '''.stripIndent()
+        def upToDate = '''\
+            # Run ./gradlew writeProductDependenciesLocks to regenerate this file
+            com.palantir.a:a (1.0.0, 1.x.x)
+            com.palantir.b:b (2.1.0, 2.x.x)
+            com.palantir.c:c (1.0.0, 1.x.x)
+            com.palantir.d:d (0.1.0, 0.x.x)
+            '''.stripIndent()
+
+        expect:
+        UnifiedDiff.diff(existing, upToDate) == '''\
+            @@ -1,4 +1,5 @@
+             # Run ./gradlew writeProductDependenciesLocks to regenerate this file
+             com.palantir.a:a (1.0.0, 1.x.x)
+            -com.palantir.b:b (2.0.0, 2.x.x)
+            +com.palantir.b:b (2.1.0, 2.x.x)
+             com.palantir.c:c (1.0.0, 1.x.x)
+            +com.palantir.d:d (0.1.0, 0.x.x)
+            '''.stripIndent()
+    }
+
+    def 'splits changes more than six lines apart into separate hunks'() {
+        given:
+        def existing = lines(1..20)
+        def upToDate = existing.replace('\n2\n', '\ntwo\n').replace('\n18\n', '\neighteen\n')
+
+        expect:
+        UnifiedDiff.diff(existing, upToDate) == '''\
+            @@ -1,5 +1,5 @@
+             1
+            -2
+            +two
+             3
+             4
+             5
+            @@ -15,6 +15,6 @@
+             15
+             16
+             17
+            -18
+            +eighteen
+             19
+             20
+            '''.stripIndent()
+    }
+
+    def 'joins changes whose context overlaps into one hunk'() {
+        given:
+        def existing = lines(1..12)
+        def upToDate = existing.replace('\n2\n', '\ntwo\n').replace('\n9\n', '\nnine\n')
+
+        expect:
+        UnifiedDiff.diff(existing, upToDate).startsWith('@@ -1,12 +1,12 @@\n')
+        UnifiedDiff.diff(existing, upToDate).count('@@') == 2
+    }
+
+    def 'places changes among repeated lines where diff does'() {
+        expect:
+        UnifiedDiff.diff('a\nb\nb\nb\nc\n', 'a\nb\nb\nc\n') == '@@ -1,5 +1,4 @@\n a\n b\n b\n-b\n c\n'
+    }
+
+    def 'handles empty files and missing trailing newlines'() {
+        expect:
+        UnifiedDiff.diff('', 'a\nb\n') == '@@ -0,0 +1,2 @@\n+a\n+b\n'
+        UnifiedDiff.diff('a\nb', 'a\nb\n') == '@@ -1,2 +1,2 @@\n a\n-b\n\\ No newline at end of file\n+b\n'
+        UnifiedDiff.diff('a\nb\n', 'a\nb\n') == ''
+    }
+
+    def 'diffs large lock files with a few changes'() {
+        given:
+        def existing = (0..<20_000).collect { "com.palantir.group${it}:product (1.${it}.0, 1.x.x)\n" }.join()
+        def upToDate = existing.replace('com.palantir.group10000:product (1.10000.0', 'com.palantir.group10000:product (1.10001.0')
+
+        when:
+        def diff = UnifiedDiff.diff(existing, upToDate)
+
+        then:
+        diff.readLines().size() == 9
+        diff.startsWith('@@ -9998,7 +9998,7 @@\n')
+        diff.contains('-com.palantir.group10000:product (1.10000.0, 1.x.x)\n+com.palantir.group10000:product (1.10001.0, 1.x.x)\n')
+    }
+
+    private static String lines(IntRange range) {
+        return range.collect { "${it}\n" }.join()
+    }
+}